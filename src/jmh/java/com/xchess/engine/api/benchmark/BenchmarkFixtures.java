@@ -0,0 +1,60 @@
+package com.xchess.engine.api.benchmark;
+
+import com.xchess.engine.api.cache.CacheProperties;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.metrics.EngineMetrics;
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.affinity.AffinityProperties;
+import com.xchess.engine.api.pool.affinity.PositionAffinity;
+import com.xchess.engine.api.pool.scheduler.SchedulerProperties;
+import com.xchess.engine.api.pool.scheduler.TaskCostEstimator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+final class BenchmarkFixtures {
+    /**
+     * Positions searched in turn, so that concurrent requests are not all
+     * coalesced into a single search.
+     */
+    static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+            "rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static PoolWrapper poolWrapper(int poolSize,
+                                   long searchLatencyInMicros) throws Exception {
+        PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setMinIdle(poolSize);
+        poolProperties.setMaxTotal(poolSize);
+        poolProperties.setMaxQueueLength(10000);
+        SchedulerProperties schedulerProperties = new SchedulerProperties();
+        EngineMetrics engineMetrics =
+                new EngineMetrics(new SimpleMeterRegistry());
+        PoolWrapper poolWrapper = new PoolWrapper(poolProperties,
+                schedulerProperties, new TaskCostEstimator(schedulerProperties),
+                new PositionAffinity(new AffinityProperties()), engineMetrics,
+                FakeChessEngine.factory(engineMetrics, searchLatencyInMicros));
+        // Engines are started in the background; measure a full pool.
+        while (!poolWrapper.isWarm()) {
+            Thread.sleep(10);
+        }
+        return poolWrapper;
+    }
+
+    static EvaluationCache evaluationCache(boolean enabled) {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(enabled);
+        cacheProperties.setMaxSize(10000);
+        cacheProperties.setTtlInMs(Integer.MAX_VALUE);
+        return new EvaluationCache(cacheProperties);
+    }
+}
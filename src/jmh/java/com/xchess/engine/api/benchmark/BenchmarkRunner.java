@@ -0,0 +1,40 @@
+package com.xchess.engine.api.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the selected benchmarks once per requested thread count and writes
+ * one JSON result file per run, so that runs can be compared over time.
+ * Started by the {@code benchmark} Maven profile:
+ * <pre>
+ * mvn -P benchmark verify -Dbenchmark.include=ChessServiceBenchmark -Dbenchmark.threads=1,8
+ * </pre>
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("benchmark.include", ".*");
+        String threads = System.getProperty("benchmark.threads", "1");
+        File resultDir = new File(System.getProperty("benchmark.resultDir",
+                "target/jmh"));
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDir);
+        }
+        for (String threadCount : threads.split(",")) {
+            int threadNumber = Integer.parseInt(threadCount.trim());
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threadNumber)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir,
+                            "result-" + threadNumber + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.xchess.engine.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xchess.engine.api.binary.BinaryProtocol;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server side cost of one request with the binary protocol against the
+ * FEN query parameter and JSON body path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+    private static final String FEN =
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BestMoveResponse bestMoveResponse =
+            new BestMoveResponse("e1g1", MoveSource.ENGINE, null);
+    private PossibleMovesResponse possibleMovesResponse;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws Exception {
+        Position position = Position.fromFen(FEN);
+        this.possibleMovesResponse = PossibleMovesResponse.builder()
+                .possibleMoves(MoveGenerator.legalUciMoves(position))
+                .build();
+        this.request = BinaryProtocol.encodeRequest(BinaryPositionRequest
+                .builder()
+                .position(position)
+                .depth(12)
+                .build());
+    }
+
+    @Benchmark
+    public Position readFenRequest() throws Exception {
+        return Position.fromFen(FEN);
+    }
+
+    @Benchmark
+    public BinaryPositionRequest readBinaryRequest() throws Exception {
+        return BinaryProtocol.decodeRequest(ByteBuffer.wrap(this.request));
+    }
+
+    @Benchmark
+    public byte[] writeBestMoveJson() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.bestMoveResponse);
+    }
+
+    @Benchmark
+    public byte[] writeBestMoveBinary() throws Exception {
+        return BinaryProtocol.encode(this.bestMoveResponse);
+    }
+
+    @Benchmark
+    public byte[] writePossibleMovesJson() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.possibleMovesResponse);
+    }
+
+    @Benchmark
+    public byte[] writePossibleMovesBinary() throws Exception {
+        return BinaryProtocol.encode(this.possibleMovesResponse);
+    }
+}
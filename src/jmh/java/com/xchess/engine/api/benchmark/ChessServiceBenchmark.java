@@ -0,0 +1,84 @@
+package com.xchess.engine.api.benchmark;
+
+import com.xchess.engine.api.book.OpeningBook;
+import com.xchess.engine.api.book.OpeningBookProperties;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.service.ChessService;
+import com.xchess.engine.api.store.AnalysisStore;
+import com.xchess.engine.api.store.AnalysisStoreProperties;
+import com.xchess.engine.api.tablebase.SyzygyProperties;
+import com.xchess.engine.api.tablebase.SyzygyTablebase;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end throughput of {@link ChessService} searches over a pool of
+ * fake engines. Run with several thread counts (see
+ * {@link BenchmarkRunner}) to see how the pool size bounds throughput once
+ * the engines become the bottleneck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChessServiceBenchmark {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(10).build();
+
+    @Param({"1", "4", "16"})
+    public int poolSize;
+
+    @Param({"0", "1000"})
+    public long searchLatencyInMicros;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private PoolWrapper poolWrapper;
+    private ChessService chessService;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.poolWrapper = BenchmarkFixtures.poolWrapper(this.poolSize,
+                this.searchLatencyInMicros);
+        this.chessService = new ChessService(this.poolWrapper,
+                BenchmarkFixtures.evaluationCache(this.cacheEnabled),
+                new OpeningBook(new OpeningBookProperties()),
+                new AnalysisStore(new AnalysisStoreProperties()),
+                new SyzygyTablebase(new SyzygyProperties()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.poolWrapper.shutdown();
+    }
+
+    @Benchmark
+    public BestMoveResponse findBestMove(Positions positions) {
+        return this.chessService.findBestMove(positions.next(), PARAMETERS)
+                .join();
+    }
+
+    @Benchmark
+    public PositionEvaluationResponse getPositionEvaluation(Positions positions) {
+        return this.chessService.getPositionEvaluation(positions.next(),
+                PARAMETERS).join();
+    }
+}
@@ -0,0 +1,68 @@
+package com.xchess.engine.api.benchmark;
+
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and inserts on the evaluation cache, which every search goes
+ * through before reaching the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationCacheBenchmark {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(10).build();
+    private static final EvaluationParameters DEEPER_PARAMETERS =
+            EvaluationParameters.builder().depth(20).build();
+    private static final BestMoveResponse RESPONSE =
+            new BestMoveResponse("e2e4", MoveSource.ENGINE, null);
+
+    private EvaluationCache evaluationCache;
+
+    @Setup
+    public void setUp() {
+        this.evaluationCache = BenchmarkFixtures.evaluationCache(true);
+        for (String fen : BenchmarkFixtures.FENS) {
+            this.evaluationCache.put(EvaluationType.BEST_MOVE, fen,
+                    PARAMETERS, RESPONSE);
+        }
+    }
+
+    @Benchmark
+    public Optional<BestMoveResponse> hit(Positions positions) {
+        return this.evaluationCache.get(EvaluationType.BEST_MOVE,
+                positions.next(), PARAMETERS, BestMoveResponse.class);
+    }
+
+    @Benchmark
+    public Optional<BestMoveResponse> missOnDepth(Positions positions) {
+        return this.evaluationCache.get(EvaluationType.BEST_MOVE,
+                positions.next(), DEEPER_PARAMETERS, BestMoveResponse.class);
+    }
+
+    @Benchmark
+    public void put(Positions positions) {
+        this.evaluationCache.put(EvaluationType.BEST_MOVE, positions.next(),
+                PARAMETERS, RESPONSE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.xchess.engine.api.benchmark;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.metrics.EngineMetrics;
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.engine.api.pool.autoscaling.AutoscalingProperties;
+import com.xchess.engine.api.pool.placement.EnginePlacement;
+import com.xchess.engine.api.pool.placement.PlacementProperties;
+import com.xchess.engine.api.pool.worker.ChessEngineFactory;
+import com.xchess.engine.api.pool.worker.ChessEngineProperties;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process engine answering every search with a fixed result after a
+ * configurable delay, so that benchmarks measure the service and pool
+ * around the engine rather than the engine itself.
+ */
+public final class FakeChessEngine {
+    public static final String BEST_MOVE = "e2e4";
+    public static final float VERSION = 16f;
+
+    private FakeChessEngine() {
+    }
+
+    public static ChessEngine create(long searchLatencyInMicros) {
+        ChessEngineEvaluation evaluation = ChessEngineEvaluation.builder()
+                .type(ChessEngineEvaluationType.CENTIPAWNS)
+                .value(25)
+                .build();
+        return (ChessEngine) Proxy.newProxyInstance(
+                ChessEngine.class.getClassLoader(),
+                new Class<?>[]{ChessEngine.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getEngineVersion":
+                            return VERSION;
+                        case "findBestMove":
+                            pause(searchLatencyInMicros);
+                            return BEST_MOVE;
+                        case "getPositionEvaluation":
+                            pause(searchLatencyInMicros);
+                            return evaluation;
+                        case "healthCheck":
+                            return true;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "FakeChessEngine";
+                        default:
+                            return method.getReturnType() == boolean.class
+                                    ? Boolean.TRUE : null;
+                    }
+                });
+    }
+
+    /**
+     * Pool factory handing out instrumented fake engines; validation and
+     * destruction still go through the real factory.
+     */
+    public static ChessEngineFactory factory(EngineMetrics engineMetrics,
+                                             long searchLatencyInMicros) {
+        PoolProperties poolProperties = new PoolProperties();
+        return new ChessEngineFactory(new ChessEngineProperties(),
+                poolProperties, new EnginePlacement(new PlacementProperties(),
+                poolProperties, new AutoscalingProperties()), engineMetrics) {
+            @Override
+            public ChessEngine create(String profile) {
+                return engineMetrics.instrument(FakeChessEngine.create(searchLatencyInMicros));
+            }
+        };
+    }
+
+    private static void pause(long latencyInMicros) {
+        if (latencyInMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyInMicros));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.xchess.engine.api.benchmark;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.affinity.EnginePosition;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing an action to the pool with an engine that answers
+ * immediately: cost estimation, lane scheduling, borrowing and returning
+ * the engine, and completing the future.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoolWrapperBenchmark {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(10).build();
+
+    @Param({"1", "4", "16"})
+    public int poolSize;
+
+    private PoolWrapper poolWrapper;
+    private EnginePosition startPosition;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.poolWrapper = BenchmarkFixtures.poolWrapper(this.poolSize, 0);
+        this.startPosition = new EnginePosition(null, Position.startPosition());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.poolWrapper.shutdown();
+    }
+
+    @Benchmark
+    public Float queueAction() {
+        return this.poolWrapper.queueAction(EngineTask.ENGINE_VERSION,
+                ChessEngine::getEngineVersion).join();
+    }
+
+    @Benchmark
+    public Float queueActionOnPosition() {
+        return this.poolWrapper.queueAction(EngineTask.BEST_MOVE, PARAMETERS,
+                this.startPosition, ChessEngine::getEngineVersion).join();
+    }
+}
@@ -0,0 +1,17 @@
+package com.xchess.engine.api.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread cursor over {@link BenchmarkFixtures#FENS}.
+ */
+@State(Scope.Thread)
+public class Positions {
+    private int next;
+
+    public String next() {
+        this.next = (this.next + 1) % BenchmarkFixtures.FENS.length;
+        return BenchmarkFixtures.FENS[this.next];
+    }
+}
@@ -0,0 +1,73 @@
+package com.xchess.engine.api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import com.xchess.engine.api.mapper.PositionEvaluationResponseMapper;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping engine results to response DTOs and writing them as JSON, as done
+ * for every answered request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChessEngineEvaluation evaluation = ChessEngineEvaluation
+            .builder()
+            .type(ChessEngineEvaluationType.CENTIPAWNS)
+            .value(-37)
+            .build();
+    private final BestMoveResponse bestMoveResponse =
+            new BestMoveResponse("e2e4", MoveSource.ENGINE, null);
+    private final PositionEvaluationResponse positionEvaluationResponse =
+            PositionEvaluationResponseMapper.toPositionEvaluationResponse(this.evaluation);
+    private final PossibleMovesResponse possibleMovesResponse =
+            PossibleMovesResponse.builder()
+                    .possibleMoves(Arrays.asList("a2a3", "a2a4", "b2b3",
+                            "b2b4", "c2c3", "c2c4", "d2d3", "d2d4", "e2e3",
+                            "e2e4", "f2f3", "f2f4", "g2g3", "g2g4", "h2h3",
+                            "h2h4", "b1a3", "b1c3", "g1f3", "g1h3"))
+                    .build();
+
+    @Benchmark
+    public PositionEvaluationResponse mapPositionEvaluation() {
+        return PositionEvaluationResponseMapper.toPositionEvaluationResponse(this.evaluation);
+    }
+
+    @Benchmark
+    public byte[] writeBestMove() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.bestMoveResponse);
+    }
+
+    @Benchmark
+    public byte[] writePositionEvaluation() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.positionEvaluationResponse);
+    }
+
+    @Benchmark
+    public byte[] writePossibleMoves() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.possibleMovesResponse);
+    }
+}
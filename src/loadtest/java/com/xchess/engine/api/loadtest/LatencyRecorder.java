@@ -0,0 +1,41 @@
+package com.xchess.engine.api.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint, kept in full so that percentiles are exact.
+ */
+class LatencyRecorder {
+    private long[] latenciesInNanos = new long[1024];
+    private int count;
+    private int errorCount;
+
+    synchronized void record(long latencyInNanos, boolean success) {
+        if (this.count == this.latenciesInNanos.length) {
+            this.latenciesInNanos = Arrays.copyOf(this.latenciesInNanos,
+                    this.count * 2);
+        }
+        this.latenciesInNanos[this.count++] = latencyInNanos;
+        if (!success) {
+            this.errorCount++;
+        }
+    }
+
+    synchronized int getCount() {
+        return this.count;
+    }
+
+    synchronized int getErrorCount() {
+        return this.errorCount;
+    }
+
+    synchronized double percentileInMs(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(this.latenciesInNanos, this.count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * this.count);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,224 @@
+package com.xchess.engine.api.loadtest;
+
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open loop load generator: requests are sent at a fixed rate whatever the
+ * response times, and latencies are measured from the time each request was
+ * due, so a slow server is not hidden by a slowed down client.
+ * <pre>
+ * java -cp target/test-classes com.xchess.engine.api.loadtest.LoadGenerator --url=http://localhost:8080 --rps=50 --duration-s=60 --depth=10 --endpoints=bestMove,positionEvaluation
+ * </pre>
+ * Each request is sent on a distinct position, reached by a random playout
+ * from the start position, so that the run measures searches rather than
+ * evaluation cache hits. At the end, prints throughput, errors and
+ * p50/p95/p99 latencies per endpoint.
+ */
+public class LoadGenerator {
+    private static final int MIN_PLAYOUT_PLIES = 8;
+    private static final int MAX_PLAYOUT_PLIES = 40;
+
+    private final String baseUrl;
+    private final int depth;
+    private final List<String> endpoints;
+    private final Map<String, LatencyRecorder> recorders =
+            new LinkedHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final Random random;
+
+    LoadGenerator(String baseUrl, int depth, List<String> endpoints,
+                  long seed) {
+        this.baseUrl = baseUrl;
+        this.depth = depth;
+        this.endpoints = endpoints;
+        this.random = new Random(seed);
+        for (String endpoint : endpoints) {
+            this.recorders.put(endpoint, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        int rps = 20;
+        int durationInSeconds = 30;
+        int depth = 10;
+        int maxConcurrency = 512;
+        long seed = System.nanoTime();
+        List<String> endpoints = new ArrayList<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            switch (parts[0]) {
+                case "--url":
+                    url = parts[1];
+                    break;
+                case "--rps":
+                    rps = Integer.parseInt(parts[1]);
+                    break;
+                case "--duration-s":
+                    durationInSeconds = Integer.parseInt(parts[1]);
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(parts[1]);
+                    break;
+                case "--max-concurrency":
+                    maxConcurrency = Integer.parseInt(parts[1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(parts[1]);
+                    break;
+                case "--endpoints":
+                    for (String endpoint : parts[1].split(",")) {
+                        endpoints.add(endpoint.trim());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        if (endpoints.isEmpty()) {
+            endpoints.add("bestMove");
+            endpoints.add("positionEvaluation");
+            endpoints.add("possibleMoves");
+            endpoints.add("engineVersion");
+        }
+        LoadGenerator generator = new LoadGenerator(url, depth, endpoints,
+                seed);
+        generator.run(rps, durationInSeconds, maxConcurrency);
+        generator.report(System.out, durationInSeconds);
+    }
+
+    void run(int rps, int durationInSeconds,
+             int maxConcurrency) throws InterruptedException {
+        ExecutorService senders = Executors.newFixedThreadPool(maxConcurrency);
+        ScheduledExecutorService ticker =
+                Executors.newSingleThreadScheduledExecutor();
+        long periodInNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rps);
+        long start = System.nanoTime();
+        long total = (long) rps * durationInSeconds;
+        ticker.scheduleAtFixedRate(() -> {
+            long index = this.sent.get();
+            if (index >= total) {
+                return;
+            }
+            this.sent.incrementAndGet();
+            long dueAt = start + index * periodInNanos;
+            String endpoint = this.endpoints.get((int) (index % this.endpoints.size()));
+            String fen = randomFen();
+            senders.execute(() -> send(endpoint, fen, dueAt));
+        }, 0, periodInNanos, TimeUnit.NANOSECONDS);
+        TimeUnit.SECONDS.sleep(durationInSeconds);
+        ticker.shutdown();
+        ticker.awaitTermination(1, TimeUnit.MINUTES);
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Plays random legal moves from the start position, starting over when
+     * the game ends before the drawn number of plies.
+     */
+    String randomFen() {
+        int plies = MIN_PLAYOUT_PLIES
+                + this.random.nextInt(MAX_PLAYOUT_PLIES - MIN_PLAYOUT_PLIES + 1);
+        Position position = Position.startPosition();
+        for (int ply = 0; ply < plies; ply++) {
+            int[] moves = MoveGenerator.legalMoves(position);
+            if (moves.length == 0) {
+                return randomFen();
+            }
+            position = position.play(moves[this.random.nextInt(moves.length)]);
+        }
+        return position.toFen();
+    }
+
+    void report(PrintStream out, int durationInSeconds) {
+        out.printf("%-20s %8s %8s %10s %10s %10s %10s %10s%n", "endpoint",
+                "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms",
+                "max ms");
+        for (Map.Entry<String, LatencyRecorder> entry : this.recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            out.printf("%-20s %8d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), recorder.getCount(),
+                    recorder.getErrorCount(),
+                    (double) recorder.getCount() / Math.max(1, durationInSeconds),
+                    recorder.percentileInMs(50), recorder.percentileInMs(95),
+                    recorder.percentileInMs(99), recorder.percentileInMs(100));
+        }
+    }
+
+    private void send(String endpoint, String fen, long dueAt) {
+        boolean success = false;
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url(endpoint, fen)).openConnection();
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(600000);
+            int status = connection.getResponseCode();
+            InputStream body = status < 400 ? connection.getInputStream()
+                    : connection.getErrorStream();
+            if (Objects.nonNull(body)) {
+                drain(body);
+            }
+            success = status < 400;
+        } catch (IOException e) {
+            if (Objects.nonNull(connection)) {
+                InputStream errorStream = connection.getErrorStream();
+                if (Objects.nonNull(errorStream)) {
+                    try {
+                        drain(errorStream);
+                    } catch (IOException ignored) {
+                        // the connection is dropped anyway
+                    }
+                }
+            }
+        }
+        this.recorders.get(endpoint).record(System.nanoTime() - dueAt, success);
+    }
+
+    private String url(String endpoint, String fen) throws UnsupportedEncodingException {
+        String encodedFen = URLEncoder.encode(fen, StandardCharsets.UTF_8.name());
+        switch (endpoint) {
+            case "bestMove":
+            case "positionEvaluation":
+                return this.baseUrl + "/" + endpoint + "?fen=" + encodedFen
+                        + "&depth=" + this.depth;
+            case "possibleMoves":
+                return this.baseUrl + "/possibleMoves?fen=" + encodedFen;
+            default:
+                return this.baseUrl + "/" + endpoint;
+        }
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[4096];
+        try (InputStream in = inputStream) {
+            while (in.read(buffer) >= 0) {
+                // keep the connection reusable
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.xchess.engine.api.loadtest;
+
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UCI engine answering like Stockfish, but thinking for a fixed, configured
+ * time instead of searching. It keeps track of the position with the board
+ * of the api, so its best move is always legal, and its score is derived
+ * from the position, so the same request always gets the same answer. Set
+ * it as the engine command to load test the api without engine noise:
+ * <pre>
+ * CHESS_ENGINE_COMMAND="java -cp target/classes:target/test-classes com.xchess.engine.api.loadtest.StubUciEngine --think-time-ms=20 --depth-time-ms=2"
+ * </pre>
+ * A search takes the requested move time if any, else the think time plus
+ * the depth time for each ply of the requested depth.
+ */
+public class StubUciEngine {
+    private static final String NAME = "Stockfish 16";
+    private static final int DEFAULT_DEPTH = 20;
+
+    private final PrintStream out;
+    private final long thinkTimeInMs;
+    private final long depthTimeInMs;
+    private final ExecutorService searcher =
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stub-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private Position position = Position.startPosition();
+    private Future<?> search;
+    private CountDownLatch stopSignal = new CountDownLatch(0);
+
+    StubUciEngine(PrintStream out, long thinkTimeInMs, long depthTimeInMs) {
+        this.out = out;
+        this.thinkTimeInMs = thinkTimeInMs;
+        this.depthTimeInMs = depthTimeInMs;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long thinkTimeInMs = 10;
+        long depthTimeInMs = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--think-time-ms=")) {
+                thinkTimeInMs = Long.parseLong(arg.substring("--think-time-ms=".length()));
+            } else if (arg.startsWith("--depth-time-ms=")) {
+                depthTimeInMs = Long.parseLong(arg.substring("--depth-time-ms=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        StubUciEngine engine = new StubUciEngine(System.out, thinkTimeInMs,
+                depthTimeInMs);
+        engine.println(NAME + " by the Stockfish developers (see AUTHORS file)");
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in,
+                StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!engine.handle(line.trim())) {
+                break;
+            }
+        }
+        engine.searcher.shutdownNow();
+    }
+
+    /**
+     * Handles one command, returning false when the engine has to quit.
+     */
+    boolean handle(String command) {
+        List<String> tokens = command.isEmpty() ? Collections.emptyList()
+                : Arrays.asList(command.split("\\s+"));
+        if (tokens.isEmpty()) {
+            return true;
+        }
+        switch (tokens.get(0)) {
+            case "uci":
+                println("id name " + NAME);
+                println("id author the Stockfish developers (see AUTHORS file)");
+                println("");
+                println("option name Threads type spin default 1 min 1 max 1024");
+                println("option name Hash type spin default 16 min 1 max 33554432");
+                println("uciok");
+                break;
+            case "isready":
+                println("readyok");
+                break;
+            case "ucinewgame":
+                awaitSearch();
+                this.position = Position.startPosition();
+                break;
+            case "position":
+                awaitSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                awaitSearch();
+                go(tokens);
+                break;
+            case "stop":
+                this.stopSignal.countDown();
+                awaitSearch();
+                break;
+            case "d":
+                awaitSearch();
+                println("");
+                println("Fen: " + this.position.toFen());
+                println(String.format("Key: %016X", key(this.position)));
+                println("Checkers: ");
+                break;
+            case "eval":
+                awaitSearch();
+                println(String.format("Final evaluation       %+.2f (white side)",
+                        whiteScore(this.position) / 100.0));
+                break;
+            case "quit":
+                return false;
+            default:
+                println("Unknown command: '" + command + "'. Type help for more information.");
+        }
+        return true;
+    }
+
+    private void setPosition(List<String> tokens) {
+        int movesIndex = tokens.indexOf("moves");
+        int end = movesIndex < 0 ? tokens.size() : movesIndex;
+        try {
+            Position next;
+            if (tokens.size() > 1 && tokens.get(1).equals("fen")) {
+                next = Position.fromFen(String.join(" ",
+                        tokens.subList(2, end)));
+            } else {
+                next = Position.startPosition();
+            }
+            if (movesIndex >= 0) {
+                next = MoveGenerator.playUciMoves(next,
+                        tokens.subList(movesIndex + 1, tokens.size()));
+            }
+            this.position = next;
+        } catch (InvalidFenException | InvalidNotationException |
+                 IllegalBoardMoveException e) {
+            // Stockfish ignores positions it cannot parse as well
+        }
+    }
+
+    private void go(List<String> tokens) {
+        Integer depth = intArgument(tokens, "depth");
+        Integer moveTime = intArgument(tokens, "movetime");
+        int targetDepth = Objects.isNull(depth) ? DEFAULT_DEPTH : depth;
+        long thinkTime = Objects.nonNull(moveTime) ? moveTime
+                : this.thinkTimeInMs + this.depthTimeInMs * targetDepth;
+        Position searched = this.position;
+        CountDownLatch stop = new CountDownLatch(1);
+        this.stopSignal = stop;
+        this.search = this.searcher.submit(() -> {
+            try {
+                stop.await(thinkTime, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<String> moves = MoveGenerator.legalUciMoves(searched);
+            if (moves.isEmpty()) {
+                println("info depth 0 score " + (searched.isInCheck()
+                        ? "mate 0" : "cp 0"));
+                println("bestmove (none)");
+                return;
+            }
+            int score = whiteScore(searched);
+            if (searched.getSideToMove() == Piece.BLACK) {
+                score = -score;
+            }
+            println("info depth " + targetDepth + " seldepth " + targetDepth
+                    + " multipv 1 score cp " + score + " nodes "
+                    + thinkTime * 1000 + " time " + thinkTime + " pv "
+                    + moves.get(0));
+            println("bestmove " + moves.get(0));
+        });
+    }
+
+    private void awaitSearch() {
+        if (Objects.isNull(this.search)) {
+            return;
+        }
+        try {
+            this.search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        this.search = null;
+    }
+
+    private synchronized void println(String line) {
+        this.out.println(line);
+        this.out.flush();
+    }
+
+    private static Integer intArgument(List<String> tokens, String name) {
+        int index = tokens.indexOf(name);
+        if (index < 0 || index + 1 >= tokens.size()) {
+            return null;
+        }
+        return Integer.valueOf(tokens.get(index + 1));
+    }
+
+    private static long key(Position position) {
+        long hash = 1125899906842597L;
+        for (char c : position.toNormalizedFen().toCharArray()) {
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
+    private static int whiteScore(Position position) {
+        return (int) Math.floorMod(key(position), 201L) - 100;
+    }
+}
@@ -0,0 +1,22 @@
+package com.xchess.engine.api;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application as soon as it is ready, so that a start-up run
+ * with -XX:ArchiveClassesAtExit records the classes loaded while starting
+ * into a class data sharing archive (see the cds Maven profile).
+ */
+@Component
+@ConditionalOnProperty(prefix = "startup", name = "cds-training",
+        havingValue = "true")
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
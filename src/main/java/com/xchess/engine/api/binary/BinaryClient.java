@@ -0,0 +1,212 @@
+package com.xchess.engine.api.binary;
+
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Minimal client for the binary protocol. It keeps one HTTP/1.1 connection
+ * open and pipelines batches of requests: a window of requests is written
+ * before the responses are read back in order. Not thread safe; use one
+ * client per thread.
+ */
+public class BinaryClient implements Closeable {
+    private static final int DEFAULT_PIPELINE_DEPTH = 64;
+    private static final int CONNECT_TIMEOUT_IN_MS = 5000;
+
+    private final String host;
+    private final int port;
+    private final int pipelineDepth;
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+    private boolean closeRequested;
+
+    public BinaryClient(String host, int port) {
+        this(host, port, DEFAULT_PIPELINE_DEPTH);
+    }
+
+    public BinaryClient(String host, int port, int pipelineDepth) {
+        this.host = host;
+        this.port = port;
+        this.pipelineDepth = pipelineDepth;
+    }
+
+    public BestMoveResponse findBestMove(BinaryPositionRequest request) throws IOException {
+        return findBestMoves(Collections.singletonList(request)).get(0);
+    }
+
+    public List<BestMoveResponse> findBestMoves(List<BinaryPositionRequest> requests) throws IOException {
+        return exchange("/bestMove", requests, BinaryProtocol::decodeBestMove);
+    }
+
+    public PossibleMovesResponse getPossibleMoves(BinaryPositionRequest request) throws IOException {
+        return getPossibleMoves(Collections.singletonList(request)).get(0);
+    }
+
+    public List<PossibleMovesResponse> getPossibleMoves(List<BinaryPositionRequest> requests) throws IOException {
+        return exchange("/possibleMoves", requests,
+                BinaryProtocol::decodePossibleMoves);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (Objects.nonNull(this.socket)) {
+            this.socket.close();
+            this.socket = null;
+            this.closeRequested = false;
+        }
+    }
+
+    private <T> List<T> exchange(String path,
+                                 List<BinaryPositionRequest> requests,
+                                 Function<ByteBuffer, T> decoder) throws IOException {
+        List<T> responses = new ArrayList<>(requests.size());
+        for (int start = 0; start < requests.size(); start += this.pipelineDepth) {
+            List<BinaryPositionRequest> window = requests.subList(start,
+                    Math.min(start + this.pipelineDepth, requests.size()));
+            connect();
+            try {
+                for (BinaryPositionRequest request : window) {
+                    writeRequest(path, request);
+                }
+                this.out.flush();
+                for (int i = 0; i < window.size(); i++) {
+                    responses.add(decoder.apply(ByteBuffer.wrap(readResponse())));
+                }
+                if (this.closeRequested) {
+                    close();
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+        return responses;
+    }
+
+    private void connect() throws IOException {
+        if (Objects.nonNull(this.socket)) {
+            return;
+        }
+        Socket connection = new Socket();
+        connection.setTcpNoDelay(true);
+        connection.connect(new InetSocketAddress(this.host, this.port),
+                CONNECT_TIMEOUT_IN_MS);
+        this.socket = connection;
+        this.in = new BufferedInputStream(connection.getInputStream());
+        this.out = new BufferedOutputStream(connection.getOutputStream());
+    }
+
+    private void writeRequest(String path, BinaryPositionRequest request) throws IOException {
+        byte[] body;
+        try {
+            body = BinaryProtocol.encodeRequest(request);
+        } catch (InvalidNotationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        String head = "POST " + path + " HTTP/1.1\r\n"
+                + "Host: " + this.host + ":" + this.port + "\r\n"
+                + "Content-Type: " + BinaryProtocol.MEDIA_TYPE_VALUE + "\r\n"
+                + "Accept: " + BinaryProtocol.MEDIA_TYPE_VALUE + "\r\n"
+                + "Content-Length: " + body.length + "\r\n\r\n";
+        this.out.write(head.getBytes(StandardCharsets.US_ASCII));
+        this.out.write(body);
+    }
+
+    private byte[] readResponse() throws IOException {
+        String statusLine = readLine();
+        String[] status = statusLine.split(" ", 3);
+        if (status.length < 2) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+        int contentLength = -1;
+        boolean chunked = false;
+        for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+            int separator = header.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String name = header.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = header.substring(separator + 1).trim();
+            if (name.equals("content-length")) {
+                contentLength = Integer.parseInt(value);
+            } else if (name.equals("transfer-encoding")) {
+                chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+            } else if (name.equals("connection")) {
+                this.closeRequested |= value.equalsIgnoreCase("close");
+            }
+        }
+        byte[] body = chunked ? readChunked() : readFully(Math.max(contentLength, 0));
+        if (!status[1].equals("200")) {
+            throw new IOException("Request failed with status " + status[1]
+                    + ": " + new String(body, StandardCharsets.UTF_8));
+        }
+        return body;
+    }
+
+    private byte[] readChunked() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine();
+            int extension = sizeLine.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? sizeLine :
+                    sizeLine.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                while (!readLine().isEmpty()) {
+                    // trailers are ignored
+                }
+                return body.toByteArray();
+            }
+            body.write(readFully(size));
+            readLine();
+        }
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = this.in.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException("Connection closed mid-response");
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = this.in.read()) != '\n') {
+            if (c < 0) {
+                throw new EOFException("Connection closed mid-response");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.xchess.engine.api.binary;
+
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes the {@link BinaryProtocol} messages. Registered as a
+ * bean so that Spring Boot adds it next to the Jackson converter; clients
+ * opt in through the Content-Type and Accept headers.
+ */
+@Component
+public class BinaryMessageConverter extends AbstractHttpMessageConverter<Object> {
+    public BinaryMessageConverter() {
+        super(BinaryProtocol.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == BinaryPositionRequest.class
+                || clazz == BestMoveResponse.class
+                || clazz == PossibleMovesResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == BinaryPositionRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return (clazz == BestMoveResponse.class
+                || clazz == PossibleMovesResponse.class) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz,
+                                  HttpInputMessage inputMessage) throws IOException {
+        byte[] body = StreamUtils.copyToByteArray(inputMessage.getBody());
+        try {
+            return BinaryProtocol.decodeRequest(ByteBuffer.wrap(body));
+        } catch (InvalidFenException | InvalidNotationException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object response,
+                                 HttpOutputMessage outputMessage) throws IOException {
+        byte[] body;
+        try {
+            body = response instanceof BestMoveResponse ?
+                    BinaryProtocol.encode((BestMoveResponse) response) :
+                    BinaryProtocol.encode((PossibleMovesResponse) response);
+        } catch (InvalidNotationException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
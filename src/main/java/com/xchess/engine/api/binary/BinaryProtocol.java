@@ -0,0 +1,152 @@
+package com.xchess.engine.api.binary;
+
+import com.xchess.engine.api.board.Move;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import com.xchess.engine.api.domain.response.TablebaseResponse;
+import org.springframework.http.MediaType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binary encoding of the bestMove and possibleMoves messages, an
+ * alternative to JSON for high volume clients. All numbers are big endian
+ * and moves are 16-bit codes: origin square in bits 0-5, destination in
+ * bits 6-11 and promotion piece type in bits 12-14.
+ * <ul>
+ * <li>request: flags (bit 0 position, bit 1 square), compact position (see
+ * {@link Position#writeCompact}), square index, unsigned 16-bit depth and
+ * 32-bit time in ms, 0 meaning unset</li>
+ * <li>best move: move code (0 when none), source, tablebase outcome (0 when
+ * none, otherwise its ordinal plus one) followed by a 16-bit DTZ</li>
+ * <li>possible moves: unsigned 8-bit count followed by the move codes</li>
+ * </ul>
+ */
+public final class BinaryProtocol {
+    public static final String MEDIA_TYPE_VALUE = "application/x-xchess";
+    public static final MediaType MEDIA_TYPE =
+            MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int HAS_POSITION = 1;
+    private static final int HAS_SQUARE = 2;
+    private static final short NO_DTZ = Short.MIN_VALUE;
+    private static final int MAX_REQUEST_SIZE = 1 + 29 + 1 + 2 + 4;
+    private static final MoveSource[] SOURCES = MoveSource.values();
+    private static final TablebaseOutcome[] OUTCOMES = TablebaseOutcome.values();
+
+    private BinaryProtocol() {
+    }
+
+    public static byte[] encodeRequest(BinaryPositionRequest request) throws InvalidNotationException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+        int flags = (Objects.nonNull(request.getPosition()) ? HAS_POSITION : 0)
+                | (Objects.nonNull(request.getSquare()) ? HAS_SQUARE : 0);
+        buffer.put((byte) flags);
+        if (Objects.nonNull(request.getPosition())) {
+            request.getPosition().writeCompact(buffer);
+        }
+        if (Objects.nonNull(request.getSquare())) {
+            buffer.put((byte) Square.parse(request.getSquare()));
+        }
+        buffer.putShort((short) (Objects.isNull(request.getDepth()) ? 0 :
+                request.getDepth()));
+        buffer.putInt(Objects.isNull(request.getTimeInMs()) ? 0 :
+                request.getTimeInMs());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public static BinaryPositionRequest decodeRequest(ByteBuffer buffer) throws InvalidFenException, InvalidNotationException {
+        try {
+            int flags = buffer.get();
+            Position position = (flags & HAS_POSITION) != 0 ?
+                    Position.readCompact(buffer) : null;
+            String square = null;
+            if ((flags & HAS_SQUARE) != 0) {
+                int index = buffer.get();
+                if (index < 0 || index > 63) {
+                    throw new InvalidNotationException("Invalid square: " + index);
+                }
+                square = Square.toString(index);
+            }
+            int depth = buffer.getShort() & 0xFFFF;
+            int timeInMs = buffer.getInt();
+            return BinaryPositionRequest.builder()
+                    .position(position)
+                    .square(square)
+                    .depth(depth == 0 ? null : depth)
+                    .timeInMs(timeInMs == 0 ? null : timeInMs)
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new InvalidNotationException("Truncated request");
+        }
+    }
+
+    public static byte[] encode(BestMoveResponse response) throws InvalidNotationException {
+        ByteBuffer buffer = ByteBuffer.allocate(6);
+        buffer.putShort((short) (Objects.isNull(response.getBestMove()) ? 0 :
+                Move.codeFromUci(response.getBestMove())));
+        buffer.put((byte) (Objects.isNull(response.getSource()) ? 0 :
+                response.getSource().ordinal()));
+        TablebaseResponse tablebase = response.getTablebase();
+        if (Objects.isNull(tablebase)) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) (tablebase.getOutcome().ordinal() + 1));
+            buffer.putShort(Objects.isNull(tablebase.getDtz()) ? NO_DTZ :
+                    tablebase.getDtz().shortValue());
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public static BestMoveResponse decodeBestMove(ByteBuffer buffer) {
+        int code = buffer.getShort() & 0xFFFF;
+        MoveSource source = SOURCES[buffer.get()];
+        int outcome = buffer.get();
+        TablebaseResponse tablebase = null;
+        if (outcome > 0) {
+            short dtz = buffer.getShort();
+            tablebase = TablebaseResponse.builder()
+                    .outcome(OUTCOMES[outcome - 1])
+                    .dtz(dtz == NO_DTZ ? null : (int) dtz)
+                    .build();
+        }
+        return BestMoveResponse.builder()
+                .bestMove(code == 0 ? null : Move.toUci(code))
+                .source(source)
+                .tablebase(tablebase)
+                .build();
+    }
+
+    public static byte[] encode(PossibleMovesResponse response) throws InvalidNotationException {
+        List<String> moves = response.getPossibleMoves();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 * moves.size());
+        buffer.put((byte) moves.size());
+        for (String move : moves) {
+            buffer.putShort((short) Move.codeFromUci(move));
+        }
+        return buffer.array();
+    }
+
+    public static PossibleMovesResponse decodePossibleMoves(ByteBuffer buffer) {
+        int count = buffer.get() & 0xFF;
+        List<String> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(Move.toUci(buffer.getShort() & 0xFFFF));
+        }
+        return PossibleMovesResponse.builder()
+                .possibleMoves(moves)
+                .build();
+    }
+}
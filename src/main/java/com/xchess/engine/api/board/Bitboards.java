@@ -0,0 +1,123 @@
+package com.xchess.engine.api.board;
+
+/**
+ * Precomputed attack tables. Sliding pieces use the classical ray approach:
+ * the first blocker on each ray truncates it.
+ */
+public final class Bitboards {
+    public static final long RANK_1 = 0xFFL;
+
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int NORTH_WEST = 3;
+    private static final int SOUTH = 4;
+    private static final int WEST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+
+    private static final int[] FILE_STEPS = {0, 1, 1, -1, 0, -1, -1, 1};
+    private static final int[] RANK_STEPS = {1, 0, 1, 1, -1, 0, -1, -1};
+
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    static {
+        int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2},
+                {-2, -1}, {-2, 1}, {-1, 2}};
+        for (int square = 0; square < 64; square++) {
+            int file = Square.file(square);
+            int rank = Square.rank(square);
+            for (int direction = 0; direction < 8; direction++) {
+                RAYS[direction][square] = ray(file, rank, direction);
+                KING_ATTACKS[square] |= bit(file + FILE_STEPS[direction],
+                        rank + RANK_STEPS[direction]);
+            }
+            for (int[] step : knightSteps) {
+                KNIGHT_ATTACKS[square] |= bit(file + step[0], rank + step[1]);
+            }
+            PAWN_ATTACKS[Piece.WHITE][square] =
+                    bit(file - 1, rank + 1) | bit(file + 1, rank + 1);
+            PAWN_ATTACKS[Piece.BLACK][square] =
+                    bit(file - 1, rank - 1) | bit(file + 1, rank - 1);
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static long squareBit(int square) {
+        return 1L << square;
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static long bishopAttacks(int square, long occupancy) {
+        return positiveRayAttacks(NORTH_EAST, square, occupancy)
+                | positiveRayAttacks(NORTH_WEST, square, occupancy)
+                | negativeRayAttacks(SOUTH_EAST, square, occupancy)
+                | negativeRayAttacks(SOUTH_WEST, square, occupancy);
+    }
+
+    public static long rookAttacks(int square, long occupancy) {
+        return positiveRayAttacks(NORTH, square, occupancy)
+                | positiveRayAttacks(EAST, square, occupancy)
+                | negativeRayAttacks(SOUTH, square, occupancy)
+                | negativeRayAttacks(WEST, square, occupancy);
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return bishopAttacks(square, occupancy) | rookAttacks(square, occupancy);
+    }
+
+    private static long positiveRayAttacks(int direction, int square,
+                                           long occupancy) {
+        long attacks = RAYS[direction][square];
+        long blockers = attacks & occupancy;
+        if (blockers != 0) {
+            attacks ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    private static long negativeRayAttacks(int direction, int square,
+                                           long occupancy) {
+        long attacks = RAYS[direction][square];
+        long blockers = attacks & occupancy;
+        if (blockers != 0) {
+            attacks ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    private static long ray(int file, int rank, int direction) {
+        long ray = 0L;
+        int f = file + FILE_STEPS[direction];
+        int r = rank + RANK_STEPS[direction];
+        while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+            ray |= squareBit(Square.of(f, r));
+            f += FILE_STEPS[direction];
+            r += RANK_STEPS[direction];
+        }
+        return ray;
+    }
+
+    private static long bit(int file, int rank) {
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return 0L;
+        }
+        return squareBit(Square.of(file, rank));
+    }
+}
@@ -0,0 +1,98 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+
+/**
+ * Moves are packed into an int: bits 0-5 origin, bits 6-11 destination,
+ * bits 12-14 promotion piece type (0 when none) and bits 15-17 special move
+ * flags. The low 15 bits are the compact move code, which is enough to
+ * identify a move within a known position.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int FLAG_CASTLING = 1;
+    public static final int FLAG_EN_PASSANT = 2;
+    public static final int FLAG_DOUBLE_PUSH = 4;
+
+    private static final int CODE_MASK = 0x7FFF;
+    private static final String PROMOTION_SYMBOLS = " nbrq";
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int promotionType, int flags) {
+        int promotion = promotionType == Piece.NONE ? 0 : promotionType;
+        return from | (to << 6) | (promotion << 12) | (flags << 15);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int promotionType(int move) {
+        int promotion = (move >>> 12) & 7;
+        return promotion == 0 ? Piece.NONE : promotion;
+    }
+
+    public static int flags(int move) {
+        return move >>> 15;
+    }
+
+    public static boolean isCastling(int move) {
+        return (flags(move) & FLAG_CASTLING) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (flags(move) & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (flags(move) & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    public static int code(int move) {
+        return move & CODE_MASK;
+    }
+
+    /**
+     * Move code of a UCI move, without the special move flags, which only
+     * the position can tell.
+     */
+    public static int codeFromUci(String uci) throws InvalidNotationException {
+        if (uci == null || (uci.length() != 4 && uci.length() != 5)) {
+            throw new InvalidNotationException("Invalid move: " + uci);
+        }
+        int promotionType = Piece.NONE;
+        if (uci.length() == 5) {
+            promotionType = promotionTypeFromSymbol(uci.charAt(4));
+            if (promotionType == Piece.NONE) {
+                throw new InvalidNotationException("Invalid move: " + uci);
+            }
+        }
+        return of(Square.parse(uci.substring(0, 2)),
+                Square.parse(uci.substring(2, 4)), promotionType, 0);
+    }
+
+    public static String toUci(int move) {
+        String uci = Square.toString(from(move)) + Square.toString(to(move));
+        int promotionType = promotionType(move);
+        if (promotionType != Piece.NONE) {
+            uci += PROMOTION_SYMBOLS.charAt(promotionType);
+        }
+        return uci;
+    }
+
+    static int promotionTypeFromSymbol(char symbol) {
+        int type = PROMOTION_SYMBOLS.indexOf(Character.toLowerCase(symbol));
+        return type <= 0 ? Piece.NONE : type;
+    }
+}
@@ -0,0 +1,288 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Legal move generation. Pseudo-legal moves are generated from the attack
+ * tables and filtered by checking that the mover's king is not attacked
+ * after the move is played.
+ */
+public final class MoveGenerator {
+    private static final int MAX_MOVES = 256;
+    private static final int[] PROMOTION_TYPES = {Piece.QUEEN, Piece.ROOK,
+            Piece.BISHOP, Piece.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    public static int[] legalMoves(Position position) {
+        int[] pseudoLegal = new int[MAX_MOVES];
+        int count = generatePseudoLegal(position, pseudoLegal);
+        int us = position.getSideToMove();
+        int legalCount = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pseudoLegal[i];
+            Position next = position.play(move);
+            if (!next.isAttacked(next.getKingSquare(us), us ^ 1)) {
+                pseudoLegal[legalCount++] = move;
+            }
+        }
+        return Arrays.copyOf(pseudoLegal, legalCount);
+    }
+
+    public static List<String> legalUciMoves(Position position) {
+        List<String> moves = new ArrayList<>();
+        for (int move : legalMoves(position)) {
+            moves.add(Move.toUci(move));
+        }
+        return moves;
+    }
+
+    public static List<String> legalUciMoves(Position position, int from) {
+        List<String> moves = new ArrayList<>();
+        for (int move : legalMoves(position)) {
+            if (Move.from(move) == from) {
+                moves.add(Move.toUci(move));
+            }
+        }
+        return moves;
+    }
+
+    public static int parseUciMove(Position position, String uci) throws InvalidNotationException, IllegalBoardMoveException {
+        if (uci == null || (uci.length() != 4 && uci.length() != 5)) {
+            throw new InvalidNotationException("Invalid move: " + uci);
+        }
+        int from = Square.parse(uci.substring(0, 2));
+        int to = Square.parse(uci.substring(2, 4));
+        int promotionType = Piece.NONE;
+        if (uci.length() == 5) {
+            promotionType = Move.promotionTypeFromSymbol(uci.charAt(4));
+            if (promotionType == Piece.NONE) {
+                throw new InvalidNotationException("Invalid move: " + uci);
+            }
+        }
+        for (int move : legalMoves(position)) {
+            if (Move.from(move) == from && Move.to(move) == to
+                    && Move.promotionType(move) == promotionType) {
+                return move;
+            }
+        }
+        throw new IllegalBoardMoveException("Illegal move: " + uci);
+    }
+
+    /**
+     * Standard algebraic notation, as found in PGN: castling as O-O or 0-0,
+     * optional capture marks, disambiguation and check or annotation
+     * suffixes.
+     */
+    public static int parseSanMove(Position position, String san) throws InvalidNotationException, IllegalBoardMoveException {
+        String notation = san == null ? "" : san.replaceAll("[+#!?]+$", "");
+        if (notation.isEmpty()) {
+            throw new InvalidNotationException("Invalid move: " + san);
+        }
+        int[] moves = legalMoves(position);
+        if (notation.equals("O-O") || notation.equals("0-0")
+                || notation.equals("O-O-O") || notation.equals("0-0-0")) {
+            int file = notation.length() == 3 ? 6 : 2;
+            for (int move : moves) {
+                if (Move.isCastling(move) && Square.file(Move.to(move)) == file) {
+                    return move;
+                }
+            }
+            throw new IllegalBoardMoveException("Illegal move: " + san);
+        }
+
+        int type = Piece.PAWN;
+        int start = 0;
+        if ("NBRQK".indexOf(notation.charAt(0)) >= 0) {
+            type = Piece.type(Piece.fromSymbol(notation.charAt(0)));
+            start = 1;
+        }
+        int end = notation.length();
+        int promotionType = Piece.NONE;
+        if (type == Piece.PAWN && end > 2
+                && Character.isLetter(notation.charAt(end - 1))) {
+            promotionType = Move.promotionTypeFromSymbol(notation.charAt(end - 1));
+            end -= notation.charAt(end - 2) == '=' ? 2 : 1;
+            if (promotionType == Piece.NONE) {
+                throw new InvalidNotationException("Invalid move: " + san);
+            }
+        }
+        if (end - start < 2) {
+            throw new InvalidNotationException("Invalid move: " + san);
+        }
+        int to = Square.parse(notation.substring(end - 2, end));
+        int fromFile = -1;
+        int fromRank = -1;
+        for (char c : notation.substring(start, end - 2).toCharArray()) {
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw new InvalidNotationException("Invalid move: " + san);
+            }
+        }
+
+        int found = Move.NONE;
+        for (int move : moves) {
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotionType(move) != promotionType
+                    || Piece.type(position.getPieceAt(from)) != type
+                    || (fromFile >= 0 && Square.file(from) != fromFile)
+                    || (fromRank >= 0 && Square.rank(from) != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                throw new InvalidNotationException("Ambiguous move: " + san);
+            }
+            found = move;
+        }
+        if (found == Move.NONE) {
+            throw new IllegalBoardMoveException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    public static Position playUciMoves(Position position, List<String> moves) throws InvalidNotationException, IllegalBoardMoveException {
+        Position current = position;
+        for (String uci : moves) {
+            current = current.play(parseUciMove(current, uci));
+        }
+        return current;
+    }
+
+    public static long perft(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] moves = legalMoves(position);
+        if (depth == 1) {
+            return moves.length;
+        }
+        long nodes = 0;
+        for (int move : moves) {
+            nodes += perft(position.play(move), depth - 1);
+        }
+        return nodes;
+    }
+
+    private static int generatePseudoLegal(Position position, int[] moves) {
+        int us = position.getSideToMove();
+        int them = us ^ 1;
+        long own = position.getOccupancy(us);
+        long enemy = position.getOccupancy(them);
+        long occupancy = own | enemy;
+        int count = generatePawnMoves(position, moves, 0, us, enemy, occupancy);
+
+        for (long knights = position.getPieces(us, Piece.KNIGHT); knights != 0; knights &= knights - 1) {
+            int from = Long.numberOfTrailingZeros(knights);
+            count = addTargets(moves, count, from, Bitboards.knightAttacks(from) & ~own);
+        }
+        for (long bishops = position.getPieces(us, Piece.BISHOP); bishops != 0; bishops &= bishops - 1) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            count = addTargets(moves, count, from,
+                    Bitboards.bishopAttacks(from, occupancy) & ~own);
+        }
+        for (long rooks = position.getPieces(us, Piece.ROOK); rooks != 0; rooks &= rooks - 1) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            count = addTargets(moves, count, from,
+                    Bitboards.rookAttacks(from, occupancy) & ~own);
+        }
+        for (long queens = position.getPieces(us, Piece.QUEEN); queens != 0; queens &= queens - 1) {
+            int from = Long.numberOfTrailingZeros(queens);
+            count = addTargets(moves, count, from,
+                    Bitboards.queenAttacks(from, occupancy) & ~own);
+        }
+        int king = position.getKingSquare(us);
+        count = addTargets(moves, count, king, Bitboards.kingAttacks(king) & ~own);
+        return generateCastlingMoves(position, moves, count, us, occupancy);
+    }
+
+    private static int generatePawnMoves(Position position, int[] moves,
+                                         int count, int us, long enemy,
+                                         long occupancy) {
+        int forward = us == Piece.WHITE ? 8 : -8;
+        int startRank = us == Piece.WHITE ? 1 : 6;
+        int promotionRank = us == Piece.WHITE ? 7 : 0;
+        int enPassant = position.getEnPassantSquare();
+        for (long pawns = position.getPieces(us, Piece.PAWN); pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            int to = from + forward;
+            if ((occupancy & Bitboards.squareBit(to)) == 0) {
+                count = addPawnMove(moves, count, from, to, promotionRank);
+                int doublePushTo = to + forward;
+                if (Square.rank(from) == startRank
+                        && (occupancy & Bitboards.squareBit(doublePushTo)) == 0) {
+                    moves[count++] = Move.of(from, doublePushTo, Piece.NONE,
+                            Move.FLAG_DOUBLE_PUSH);
+                }
+            }
+            long attacks = Bitboards.pawnAttacks(us, from);
+            for (long captures = attacks & enemy; captures != 0; captures &= captures - 1) {
+                count = addPawnMove(moves, count, from,
+                        Long.numberOfTrailingZeros(captures), promotionRank);
+            }
+            if (enPassant >= 0 && (attacks & Bitboards.squareBit(enPassant)) != 0) {
+                moves[count++] = Move.of(from, enPassant, Piece.NONE,
+                        Move.FLAG_EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int[] moves, int count, int from, int to,
+                                   int promotionRank) {
+        if (Square.rank(to) == promotionRank) {
+            for (int promotionType : PROMOTION_TYPES) {
+                moves[count++] = Move.of(from, to, promotionType, 0);
+            }
+        } else {
+            moves[count++] = Move.of(from, to);
+        }
+        return count;
+    }
+
+    private static int generateCastlingMoves(Position position, int[] moves,
+                                             int count, int us,
+                                             long occupancy) {
+        int rights = position.getCastlingRights();
+        int kingSideRight = us == Piece.WHITE ? Position.WHITE_KING_SIDE :
+                Position.BLACK_KING_SIDE;
+        int queenSideRight = us == Piece.WHITE ? Position.WHITE_QUEEN_SIDE :
+                Position.BLACK_QUEEN_SIDE;
+        if ((rights & (kingSideRight | queenSideRight)) == 0
+                || position.isInCheck()) {
+            return count;
+        }
+        int king = us == Piece.WHITE ? 4 : 60;
+        int them = us ^ 1;
+        if ((rights & kingSideRight) != 0
+                && (occupancy & (Bitboards.squareBit(king + 1) | Bitboards.squareBit(king + 2))) == 0
+                && !position.isAttacked(king + 1, them)) {
+            moves[count++] = Move.of(king, king + 2, Piece.NONE,
+                    Move.FLAG_CASTLING);
+        }
+        if ((rights & queenSideRight) != 0
+                && (occupancy & (Bitboards.squareBit(king - 1)
+                | Bitboards.squareBit(king - 2) | Bitboards.squareBit(king - 3))) == 0
+                && !position.isAttacked(king - 1, them)) {
+            moves[count++] = Move.of(king, king - 2, Piece.NONE,
+                    Move.FLAG_CASTLING);
+        }
+        return count;
+    }
+
+    private static int addTargets(int[] moves, int count, int from,
+                                  long targets) {
+        for (; targets != 0; targets &= targets - 1) {
+            moves[count++] = Move.of(from, Long.numberOfTrailingZeros(targets));
+        }
+        return count;
+    }
+}
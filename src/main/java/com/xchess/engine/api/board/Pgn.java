@@ -0,0 +1,136 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Main line of the first game of a PGN text. Comments, variations and
+ * annotations are skipped; a FEN tag sets the starting position.
+ */
+public final class Pgn {
+    private static final Pattern TAG =
+            Pattern.compile("\\[\\s*(\\w+)\\s+\"((?:[^\"\\\\]|\\\\.)*)\"\\s*]");
+    private static final Pattern MOVE_NUMBER = Pattern.compile("^\\d+\\.*");
+    private static final List<String> RESULTS = Arrays.asList("1-0", "0-1",
+            "1/2-1/2", "*");
+
+    private final Map<String, String> tags;
+    private final Position startPosition;
+    private final int[] moves;
+
+    private Pgn(Map<String, String> tags, Position startPosition,
+                int[] moves) {
+        this.tags = tags;
+        this.startPosition = startPosition;
+        this.moves = moves;
+    }
+
+    public static Pgn parse(String pgn) throws InvalidNotationException,
+            IllegalBoardMoveException, InvalidFenException {
+        if (pgn == null) {
+            throw new InvalidNotationException("Missing PGN");
+        }
+        Map<String, String> tags = new HashMap<>();
+        Matcher tag = TAG.matcher(pgn);
+        int movetextStart = 0;
+        while (tag.find() && pgn.substring(movetextStart, tag.start()).trim().isEmpty()) {
+            tags.put(tag.group(1), tag.group(2).replaceAll("\\\\(.)", "$1"));
+            movetextStart = tag.end();
+        }
+        Position startPosition = tags.containsKey("FEN") ?
+                Position.fromFen(tags.get("FEN")) : Position.startPosition();
+
+        List<Integer> moves = new ArrayList<>();
+        Position position = startPosition;
+        for (String token : tokenize(pgn.substring(movetextStart))) {
+            if (RESULTS.contains(token)) {
+                break;
+            }
+            String san = MOVE_NUMBER.matcher(token).replaceFirst("");
+            if (san.isEmpty()) {
+                continue;
+            }
+            int move = MoveGenerator.parseSanMove(position, san);
+            moves.add(move);
+            position = position.play(move);
+        }
+        return new Pgn(tags, startPosition,
+                moves.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String getTag(String name) {
+        return this.tags.get(name);
+    }
+
+    public Position getStartPosition() {
+        return this.startPosition;
+    }
+
+    public int[] getMoves() {
+        return this.moves.clone();
+    }
+
+    /**
+     * Splits the movetext, dropping comments, variations and numeric
+     * annotation glyphs.
+     */
+    private static List<String> tokenize(String movetext) throws InvalidNotationException {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+        for (int i = 0; i < movetext.length(); i++) {
+            char c = movetext.charAt(i);
+            if (c == '{') {
+                int end = movetext.indexOf('}', i);
+                if (end < 0) {
+                    throw new InvalidNotationException("Unterminated PGN comment");
+                }
+                i = end;
+                c = ' ';
+            } else if (c == ';') {
+                int end = movetext.indexOf('\n', i);
+                i = end < 0 ? movetext.length() : end;
+                c = ' ';
+            } else if (c == '(') {
+                flush(token, tokens);
+                variationDepth++;
+                c = ' ';
+            } else if (c == ')') {
+                if (variationDepth == 0) {
+                    throw new InvalidNotationException("Unbalanced PGN variation");
+                }
+                variationDepth--;
+                c = ' ';
+            }
+            if (variationDepth > 0) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                flush(token, tokens);
+            } else {
+                token.append(c);
+            }
+        }
+        if (variationDepth > 0) {
+            throw new InvalidNotationException("Unbalanced PGN variation");
+        }
+        flush(token, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder token, List<String> tokens) {
+        if (token.length() > 0 && token.charAt(0) != '$') {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+}
@@ -0,0 +1,486 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable bitboard chess position. {@link #play(int)} returns a new
+ * position, so instances can be shared between threads.
+ */
+public final class Position {
+    public static final String START_FEN =
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final int[] CASTLING_MASKS = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, 15);
+        CASTLING_MASKS[0] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASKS[4] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASKS[7] &= ~WHITE_KING_SIDE;
+        CASTLING_MASKS[56] &= ~BLACK_QUEEN_SIDE;
+        CASTLING_MASKS[60] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[63] &= ~BLACK_KING_SIDE;
+    }
+
+    private final long[] pieces;
+    private final long[] colors;
+    private final int[] mailbox;
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+
+    private Position() {
+        this.pieces = new long[12];
+        this.colors = new long[2];
+        this.mailbox = new int[64];
+        Arrays.fill(this.mailbox, Piece.NONE);
+        this.enPassantSquare = -1;
+        this.fullmoveNumber = 1;
+    }
+
+    private Position(Position other) {
+        this.pieces = other.pieces.clone();
+        this.colors = other.colors.clone();
+        this.mailbox = other.mailbox.clone();
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+    }
+
+    public static Position startPosition() {
+        try {
+            return fromFen(START_FEN);
+        } catch (InvalidFenException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Position fromFen(String fen) throws InvalidFenException {
+        if (fen == null) {
+            throw new InvalidFenException("Missing FEN");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > 6) {
+            throw new InvalidFenException("Invalid FEN field count: " + fen);
+        }
+        Position position = new Position();
+        position.parsePlacement(fields[0]);
+        position.sideToMove = parseSideToMove(fields[1]);
+        position.castlingRights = parseCastlingRights(fields[2]);
+        position.enPassantSquare = parseEnPassantSquare(fields[3]);
+        position.halfmoveClock = fields.length > 4 ?
+                parseCounter(fields[4], 0) : 0;
+        position.fullmoveNumber = fields.length > 5 ?
+                Math.max(1, parseCounter(fields[5], 1)) : 1;
+        position.validate();
+        return position;
+    }
+
+    /**
+     * Reads the compact encoding written by {@link #writeCompact}.
+     */
+    public static Position readCompact(ByteBuffer buffer) throws InvalidFenException {
+        try {
+            Position position = new Position();
+            long occupancy = buffer.getLong();
+            int pieceByte = 0;
+            int count = 0;
+            for (long squares = occupancy; squares != 0; squares &= squares - 1) {
+                if ((count & 1) == 0) {
+                    pieceByte = buffer.get() & 0xFF;
+                }
+                int piece = (count & 1) == 0 ? pieceByte >>> 4 : pieceByte & 15;
+                if (piece > 11) {
+                    throw new InvalidFenException("Invalid piece code: " + piece);
+                }
+                position.putPiece(Long.numberOfTrailingZeros(squares), piece);
+                count++;
+            }
+            int state = buffer.get() & 0xFF;
+            position.sideToMove = state & 1;
+            position.castlingRights = (state >>> 1) & 15;
+            int enPassantSquare = buffer.get();
+            position.enPassantSquare = enPassantSquare < 0 || enPassantSquare > 63 ?
+                    -1 : enPassantSquare;
+            position.halfmoveClock = buffer.get() & 0xFF;
+            position.fullmoveNumber = Math.max(1, buffer.getShort() & 0xFFFF);
+            position.validate();
+            return position;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidFenException("Truncated position");
+        }
+    }
+
+    /**
+     * Writes the position in at most 29 bytes: the occupancy bitboard, one
+     * nibble per piece in square order, then side to move and castling
+     * rights, en passant square, halfmove clock and fullmove number.
+     */
+    public void writeCompact(ByteBuffer buffer) {
+        long occupancy = getOccupancy();
+        buffer.putLong(occupancy);
+        int pieceByte = 0;
+        int count = 0;
+        for (long squares = occupancy; squares != 0; squares &= squares - 1) {
+            int piece = this.mailbox[Long.numberOfTrailingZeros(squares)];
+            if ((count & 1) == 0) {
+                pieceByte = piece << 4;
+            } else {
+                buffer.put((byte) (pieceByte | piece));
+            }
+            count++;
+        }
+        if ((count & 1) != 0) {
+            buffer.put((byte) pieceByte);
+        }
+        buffer.put((byte) (this.sideToMove | (this.castlingRights << 1)));
+        buffer.put((byte) this.enPassantSquare);
+        buffer.put((byte) Math.min(255, this.halfmoveClock));
+        buffer.putShort((short) Math.min(0xFFFF, this.fullmoveNumber));
+    }
+
+    public Position play(int move) {
+        Position next = new Position(this);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = this.mailbox[from];
+        int us = this.sideToMove;
+        boolean capture = this.mailbox[to] != Piece.NONE;
+
+        if (Move.isEnPassant(move)) {
+            next.removePiece(us == Piece.WHITE ? to - 8 : to + 8);
+            capture = true;
+        } else if (capture) {
+            next.removePiece(to);
+        }
+        next.removePiece(from);
+        int promotionType = Move.promotionType(move);
+        next.putPiece(to, promotionType == Piece.NONE ? piece :
+                Piece.of(us, promotionType));
+
+        if (Move.isCastling(move)) {
+            boolean kingSide = to > from;
+            int rookFrom = kingSide ? from + 3 : from - 4;
+            int rookTo = kingSide ? from + 1 : from - 1;
+            next.putPiece(rookTo, next.removePiece(rookFrom));
+        }
+
+        next.enPassantSquare = Move.isDoublePush(move) ? (from + to) / 2 : -1;
+        next.castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        next.halfmoveClock = capture || Piece.type(piece) == Piece.PAWN ? 0 :
+                this.halfmoveClock + 1;
+        if (us == Piece.BLACK) {
+            next.fullmoveNumber++;
+        }
+        next.sideToMove = us ^ 1;
+        return next;
+    }
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = this.mailbox[Square.of(file, rank)];
+                if (piece == Piece.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(Piece.symbol(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(this.sideToMove == Piece.WHITE ? " w " : " b ");
+        fen.append(castlingToFen());
+        int enPassant = getLegalEnPassantSquare();
+        fen.append(' ').append(enPassant < 0 ? "-" : Square.toString(enPassant));
+        fen.append(' ').append(this.halfmoveClock);
+        fen.append(' ').append(this.fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * FEN without the move counters, suitable as a position identity key.
+     */
+    public String toNormalizedFen() {
+        String fen = toFen();
+        int countersStart = fen.lastIndexOf(' ', fen.lastIndexOf(' ') - 1);
+        return fen.substring(0, countersStart);
+    }
+
+    /**
+     * Same identity as {@link #toNormalizedFen()}, without building strings.
+     */
+    public boolean isSamePosition(Position other) {
+        return this.sideToMove == other.sideToMove
+                && this.castlingRights == other.castlingRights
+                && Arrays.equals(this.pieces, other.pieces)
+                && (this.enPassantSquare == other.enPassantSquare
+                || getLegalEnPassantSquare() == other.getLegalEnPassantSquare());
+    }
+
+    public int getLegalEnPassantSquare() {
+        if (this.enPassantSquare < 0) {
+            return -1;
+        }
+        for (int move : MoveGenerator.legalMoves(this)) {
+            if (Move.isEnPassant(move)) {
+                return this.enPassantSquare;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isAttacked(int square, int byColor) {
+        long occupancy = getOccupancy();
+        return (Bitboards.pawnAttacks(byColor ^ 1, square)
+                & getPieces(byColor, Piece.PAWN)) != 0
+                || (Bitboards.knightAttacks(square)
+                & getPieces(byColor, Piece.KNIGHT)) != 0
+                || (Bitboards.kingAttacks(square)
+                & getPieces(byColor, Piece.KING)) != 0
+                || (Bitboards.bishopAttacks(square, occupancy)
+                & (getPieces(byColor, Piece.BISHOP)
+                | getPieces(byColor, Piece.QUEEN))) != 0
+                || (Bitboards.rookAttacks(square, occupancy)
+                & (getPieces(byColor, Piece.ROOK)
+                | getPieces(byColor, Piece.QUEEN))) != 0;
+    }
+
+    public boolean isInCheck() {
+        return isAttacked(getKingSquare(this.sideToMove), this.sideToMove ^ 1);
+    }
+
+    public int getKingSquare(int color) {
+        return Long.numberOfTrailingZeros(getPieces(color, Piece.KING));
+    }
+
+    public int getPieceAt(int square) {
+        return this.mailbox[square];
+    }
+
+    public long getPieces(int color, int type) {
+        return this.pieces[Piece.of(color, type)];
+    }
+
+    public long getOccupancy(int color) {
+        return this.colors[color];
+    }
+
+    public long getOccupancy() {
+        return this.colors[Piece.WHITE] | this.colors[Piece.BLACK];
+    }
+
+    public int getPieceCount() {
+        return Long.bitCount(getOccupancy());
+    }
+
+    public int getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return this.fullmoveNumber;
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+
+    private void putPiece(int square, int piece) {
+        long bit = Bitboards.squareBit(square);
+        this.pieces[piece] |= bit;
+        this.colors[Piece.color(piece)] |= bit;
+        this.mailbox[square] = piece;
+    }
+
+    private int removePiece(int square) {
+        int piece = this.mailbox[square];
+        long bit = Bitboards.squareBit(square);
+        this.pieces[piece] &= ~bit;
+        this.colors[Piece.color(piece)] &= ~bit;
+        this.mailbox[square] = Piece.NONE;
+        return piece;
+    }
+
+    private void parsePlacement(String placement) throws InvalidFenException {
+        String[] ranks = placement.split("/", -1);
+        if (ranks.length != 8) {
+            throw new InvalidFenException("Invalid FEN rank count: " + placement);
+        }
+        for (int i = 0; i < 8; i++) {
+            int rank = 7 - i;
+            int file = 0;
+            for (char symbol : ranks[i].toCharArray()) {
+                if (symbol >= '1' && symbol <= '8') {
+                    file += symbol - '0';
+                } else {
+                    int piece = Piece.fromSymbol(symbol);
+                    if (piece < 0 || file > 7) {
+                        throw new InvalidFenException("Invalid FEN rank: " + ranks[i]);
+                    }
+                    putPiece(Square.of(file, rank), piece);
+                    file++;
+                }
+                if (file > 8) {
+                    throw new InvalidFenException("Invalid FEN rank: " + ranks[i]);
+                }
+            }
+            if (file != 8) {
+                throw new InvalidFenException("Invalid FEN rank: " + ranks[i]);
+            }
+        }
+    }
+
+    private static int parseSideToMove(String field) throws InvalidFenException {
+        switch (field) {
+            case "w":
+                return Piece.WHITE;
+            case "b":
+                return Piece.BLACK;
+            default:
+                throw new InvalidFenException("Invalid side to move: " + field);
+        }
+    }
+
+    private static int parseCastlingRights(String field) throws InvalidFenException {
+        if (field.equals("-")) {
+            return 0;
+        }
+        int rights = 0;
+        for (char symbol : field.toCharArray()) {
+            int index = "KQkq".indexOf(symbol);
+            if (index < 0) {
+                throw new InvalidFenException("Invalid castling rights: " + field);
+            }
+            rights |= 1 << index;
+        }
+        return rights;
+    }
+
+    private static int parseEnPassantSquare(String field) throws InvalidFenException {
+        if (field.equals("-")) {
+            return -1;
+        }
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || (field.charAt(1) != '3' && field.charAt(1) != '6')) {
+            throw new InvalidFenException("Invalid en passant square: " + field);
+        }
+        return Square.of(field.charAt(0) - 'a', field.charAt(1) - '1');
+    }
+
+    private static int parseCounter(String field, int defaultValue) throws InvalidFenException {
+        if (field.equals("-")) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(field);
+            if (value < 0) {
+                throw new InvalidFenException("Invalid move counter: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InvalidFenException("Invalid move counter: " + field);
+        }
+    }
+
+    private void validate() throws InvalidFenException {
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            if (Long.bitCount(getPieces(color, Piece.KING)) != 1) {
+                throw new InvalidFenException("Each side must have exactly one king");
+            }
+        }
+        long backRanks = Bitboards.RANK_1 | (Bitboards.RANK_1 << 56);
+        if (((getPieces(Piece.WHITE, Piece.PAWN)
+                | getPieces(Piece.BLACK, Piece.PAWN)) & backRanks) != 0) {
+            throw new InvalidFenException("Pawns cannot stand on the first or last rank");
+        }
+        if (isAttacked(getKingSquare(this.sideToMove ^ 1), this.sideToMove)) {
+            throw new InvalidFenException("The side not to move is in check");
+        }
+        sanitizeCastlingRights();
+        sanitizeEnPassantSquare();
+    }
+
+    private void sanitizeCastlingRights() {
+        int whiteKing = Piece.of(Piece.WHITE, Piece.KING);
+        int whiteRook = Piece.of(Piece.WHITE, Piece.ROOK);
+        int blackKing = Piece.of(Piece.BLACK, Piece.KING);
+        int blackRook = Piece.of(Piece.BLACK, Piece.ROOK);
+        if (this.mailbox[4] != whiteKing || this.mailbox[7] != whiteRook) {
+            this.castlingRights &= ~WHITE_KING_SIDE;
+        }
+        if (this.mailbox[4] != whiteKing || this.mailbox[0] != whiteRook) {
+            this.castlingRights &= ~WHITE_QUEEN_SIDE;
+        }
+        if (this.mailbox[60] != blackKing || this.mailbox[63] != blackRook) {
+            this.castlingRights &= ~BLACK_KING_SIDE;
+        }
+        if (this.mailbox[60] != blackKing || this.mailbox[56] != blackRook) {
+            this.castlingRights &= ~BLACK_QUEEN_SIDE;
+        }
+    }
+
+    private void sanitizeEnPassantSquare() {
+        if (this.enPassantSquare < 0) {
+            return;
+        }
+        int them = this.sideToMove ^ 1;
+        int expectedRank = this.sideToMove == Piece.WHITE ? 5 : 2;
+        int pawnSquare = this.sideToMove == Piece.WHITE ?
+                this.enPassantSquare - 8 : this.enPassantSquare + 8;
+        if (Square.rank(this.enPassantSquare) != expectedRank
+                || this.mailbox[pawnSquare] != Piece.of(them, Piece.PAWN)
+                || this.mailbox[this.enPassantSquare] != Piece.NONE) {
+            this.enPassantSquare = -1;
+        }
+    }
+
+    private String castlingToFen() {
+        if (this.castlingRights == 0) {
+            return "-";
+        }
+        StringBuilder castling = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            if ((this.castlingRights & (1 << i)) != 0) {
+                castling.append("KQkq".charAt(i));
+            }
+        }
+        return castling.toString();
+    }
+}
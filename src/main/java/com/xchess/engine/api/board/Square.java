@@ -0,0 +1,36 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+
+public final class Square {
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    public static int parse(String notation) throws InvalidNotationException {
+        if (notation == null || notation.length() != 2) {
+            throw new InvalidNotationException("Invalid square: " + notation);
+        }
+        int file = notation.charAt(0) - 'a';
+        int rank = notation.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new InvalidNotationException("Invalid square: " + notation);
+        }
+        return of(file, rank);
+    }
+
+    public static String toString(int square) {
+        return String.valueOf((char) ('a' + file(square))) + (char) ('1' + rank(square));
+    }
+}
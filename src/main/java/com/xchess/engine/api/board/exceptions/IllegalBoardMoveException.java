@@ -0,0 +1,7 @@
+package com.xchess.engine.api.board.exceptions;
+
+public class IllegalBoardMoveException extends Exception {
+    public IllegalBoardMoveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.xchess.engine.api.board.exceptions;
+
+public class InvalidFenException extends Exception {
+    public InvalidFenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.xchess.engine.api.board.exceptions;
+
+public class InvalidNotationException extends Exception {
+    public InvalidNotationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.xchess.engine.api.book;
+
+import lombok.Value;
+
+@Value
+public class BookEntry {
+    int from;
+    int to;
+    int promotionType;
+    int weight;
+}
@@ -0,0 +1,12 @@
+package com.xchess.engine.api.book;
+
+public enum BookSelection {
+    /**
+     * Move with the highest weight.
+     */
+    BEST,
+    /**
+     * Random move, picked with a probability proportional to its weight.
+     */
+    WEIGHTED
+}
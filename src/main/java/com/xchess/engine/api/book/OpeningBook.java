@@ -0,0 +1,127 @@
+package com.xchess.engine.api.book;
+
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional Polyglot opening book, looked up before searching for a best
+ * move. Only legal moves with a positive weight are played.
+ */
+@Component
+public class OpeningBook {
+    private static final String PROMOTION_SYMBOLS = " nbrq";
+
+    private final BookSelection selection;
+    private final PolyglotKeys keys;
+    private final PolyglotBook book;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public OpeningBook(OpeningBookProperties properties) {
+        this.selection = properties.getSelection();
+        if (!properties.isEnabled()) {
+            this.keys = null;
+            this.book = null;
+            return;
+        }
+        try {
+            this.keys = PolyglotKeys.load(Paths.get(properties.getKeysPath()));
+            this.book = PolyglotBook.open(Paths.get(properties.getPath()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load opening book "
+                    + properties.getPath(), e);
+        }
+    }
+
+    OpeningBook(BookSelection selection, PolyglotKeys keys, PolyglotBook book) {
+        this.selection = selection;
+        this.keys = keys;
+        this.book = book;
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(this.book);
+    }
+
+    public Optional<String> findMove(Position position) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        List<String> legalMoves = MoveGenerator.legalUciMoves(position);
+        List<String> moves = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int totalWeight = 0;
+        for (BookEntry entry : this.book.find(this.keys.key(position))) {
+            String move = toUci(position, entry);
+            if (entry.getWeight() > 0 && legalMoves.contains(move)) {
+                moves.add(move);
+                weights.add(entry.getWeight());
+                totalWeight += entry.getWeight();
+            }
+        }
+        if (moves.isEmpty()) {
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+        this.hits.incrementAndGet();
+        if (this.selection == BookSelection.BEST) {
+            int best = 0;
+            for (int index = 1; index < moves.size(); index++) {
+                if (weights.get(index) > weights.get(best)) {
+                    best = index;
+                }
+            }
+            return Optional.of(moves.get(best));
+        }
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int index = 0; index < moves.size(); index++) {
+            pick -= weights.get(index);
+            if (pick < 0) {
+                return Optional.of(moves.get(index));
+            }
+        }
+        return Optional.of(moves.get(moves.size() - 1));
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * Polyglot writes castling as the king taking its own rook.
+     */
+    private static String toUci(Position position, BookEntry entry) {
+        int from = entry.getFrom();
+        int to = entry.getTo();
+        int piece = position.getPieceAt(from);
+        if (piece != Piece.NONE && Piece.type(piece) == Piece.KING
+                && Square.file(from) == 4 && Square.rank(from) == Square.rank(to)) {
+            if (Square.file(to) == 7) {
+                to = Square.of(6, Square.rank(to));
+            } else if (Square.file(to) == 0) {
+                to = Square.of(2, Square.rank(to));
+            }
+        }
+        String move = Square.toString(from) + Square.toString(to);
+        return entry.getPromotionType() == 0 ? move
+                : move + PROMOTION_SYMBOLS.charAt(entry.getPromotionType());
+    }
+}
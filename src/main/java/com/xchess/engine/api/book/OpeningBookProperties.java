@@ -0,0 +1,17 @@
+package com.xchess.engine.api.book;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "book.polyglot")
+public class OpeningBookProperties {
+    private boolean enabled;
+    private String path;
+    private String keysPath;
+    private BookSelection selection = BookSelection.WEIGHTED;
+}
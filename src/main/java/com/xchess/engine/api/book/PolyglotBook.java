@@ -0,0 +1,70 @@
+package com.xchess.engine.api.book;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polyglot {@code .bin} book mapped in memory. Entries are 16 bytes, big
+ * endian, sorted by position key: key (8 bytes), move (2), weight (2) and
+ * learn data (4). Lookups are a binary search over the mapping and never
+ * copy the file.
+ */
+public final class PolyglotBook {
+    private static final int ENTRY_SIZE = 16;
+
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    private PolyglotBook(MappedByteBuffer entries) {
+        this.entries = entries;
+        this.entryCount = entries.capacity() / ENTRY_SIZE;
+    }
+
+    public static PolyglotBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not a Polyglot book");
+            }
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, size));
+        }
+    }
+
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    public List<BookEntry> find(long key) {
+        int low = 0;
+        int high = this.entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<BookEntry> found = new ArrayList<>();
+        for (int index = low; index < this.entryCount && keyAt(index) == key;
+             index++) {
+            int offset = index * ENTRY_SIZE;
+            int move = this.entries.getShort(offset + 8) & 0xFFFF;
+            int weight = this.entries.getShort(offset + 10) & 0xFFFF;
+            found.add(new BookEntry((move >>> 6) & 0x3F, move & 0x3F,
+                    (move >>> 12) & 0x7, weight));
+        }
+        return found;
+    }
+
+    private long keyAt(int index) {
+        return this.entries.getLong(index * ENTRY_SIZE);
+    }
+}
@@ -0,0 +1,106 @@
+package com.xchess.engine.api.book;
+
+import com.xchess.engine.api.board.Bitboards;
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Zobrist keys of positions as used by Polyglot books. The 781 random
+ * numbers they are built from are read from a text file holding the
+ * standard Polyglot table, as published with the Polyglot sources, in
+ * order; any other text around the hexadecimal numbers is ignored.
+ */
+public final class PolyglotKeys {
+    static final int SIZE = 781;
+    static final long START_POSITION_KEY = 0x463B96181691FC9CL;
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+    private static final Pattern RANDOM =
+            Pattern.compile("\\b(?:0[xX])?([0-9a-fA-F]{16})\\b");
+
+    private final long[] randoms;
+
+    PolyglotKeys(long[] randoms) {
+        if (randoms.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE
+                    + " random numbers, got " + randoms.length);
+        }
+        this.randoms = randoms.clone();
+    }
+
+    public static PolyglotKeys load(Path path) throws IOException {
+        String content = new String(Files.readAllBytes(path),
+                StandardCharsets.UTF_8);
+        long[] randoms = new long[SIZE];
+        int count = 0;
+        Matcher matcher = RANDOM.matcher(content);
+        while (matcher.find()) {
+            if (count == SIZE) {
+                throw new IOException(path + " holds more than " + SIZE
+                        + " random numbers");
+            }
+            randoms[count++] = Long.parseUnsignedLong(matcher.group(1), 16);
+        }
+        if (count != SIZE) {
+            throw new IOException(path + " holds " + count + " random numbers"
+                    + " instead of " + SIZE);
+        }
+        PolyglotKeys keys = new PolyglotKeys(randoms);
+        if (keys.key(Position.startPosition()) != START_POSITION_KEY) {
+            throw new IOException(path + " is not the Polyglot random table:"
+                    + " the start position key does not match");
+        }
+        return keys;
+    }
+
+    public long key(Position position) {
+        long key = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+                int kind = 2 * type + (color == Piece.WHITE ? 1 : 0);
+                long pieces = position.getPieces(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    key ^= this.randoms[64 * kind + square];
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        int castlingRights = position.getCastlingRights();
+        if ((castlingRights & Position.WHITE_KING_SIDE) != 0) {
+            key ^= this.randoms[CASTLING_OFFSET];
+        }
+        if ((castlingRights & Position.WHITE_QUEEN_SIDE) != 0) {
+            key ^= this.randoms[CASTLING_OFFSET + 1];
+        }
+        if ((castlingRights & Position.BLACK_KING_SIDE) != 0) {
+            key ^= this.randoms[CASTLING_OFFSET + 2];
+        }
+        if ((castlingRights & Position.BLACK_QUEEN_SIDE) != 0) {
+            key ^= this.randoms[CASTLING_OFFSET + 3];
+        }
+        // Polyglot only hashes the en passant file when a pawn stands
+        // next to the double pushed one, legal capture or not
+        int us = position.getSideToMove();
+        int enPassantSquare = position.getEnPassantSquare();
+        if (enPassantSquare >= 0
+                && (Bitboards.pawnAttacks(us ^ 1, enPassantSquare)
+                & position.getPieces(us, Piece.PAWN)) != 0) {
+            key ^= this.randoms[EN_PASSANT_OFFSET + Square.file(enPassantSquare)];
+        }
+        if (us == Piece.WHITE) {
+            key ^= this.randoms[TURN_OFFSET];
+        }
+        return key;
+    }
+}
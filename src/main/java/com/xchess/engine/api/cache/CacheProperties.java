@@ -0,0 +1,16 @@
+package com.xchess.engine.api.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "cache.evaluation")
+public class CacheProperties {
+    private boolean enabled;
+    private int maxSize;
+    private int ttlInMs;
+}
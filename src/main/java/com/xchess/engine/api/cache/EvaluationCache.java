@@ -0,0 +1,134 @@
+package com.xchess.engine.api.cache;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of engine results keyed by normalized FEN. A result
+ * searched at depth N answers any request for a depth lower or equal to N.
+ * Requests without a depth are never cached, and results of searches with
+ * a time limit are not stored since the limit may have cut them short of
+ * their depth.
+ */
+@Component
+public class EvaluationCache {
+    private final CacheProperties properties;
+    private final Clock clock;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public EvaluationCache(CacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    EvaluationCache(CacheProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > properties.getMaxSize();
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public <T> Optional<T> get(EvaluationType type, String normalizedFen,
+                               EvaluationParameters evaluationParameters,
+                               Class<T> valueClass) {
+        Integer depth = evaluationParameters.getDepth();
+        if (!this.properties.isEnabled() || Objects.isNull(depth)) {
+            return Optional.empty();
+        }
+        Key key = new Key(type, normalizedFen);
+        synchronized (this.entries) {
+            Entry entry = this.entries.get(key);
+            if (Objects.nonNull(entry) && isExpired(entry)) {
+                this.entries.remove(key);
+                this.evictions.incrementAndGet();
+                entry = null;
+            }
+            if (Objects.isNull(entry) || entry.getDepth() < depth) {
+                this.misses.incrementAndGet();
+                return Optional.empty();
+            }
+            this.hits.incrementAndGet();
+            return Optional.of(valueClass.cast(entry.getValue()));
+        }
+    }
+
+    public void put(EvaluationType type, String normalizedFen,
+                    EvaluationParameters evaluationParameters, Object value) {
+        Integer depth = evaluationParameters.getDepth();
+        if (!this.properties.isEnabled() || Objects.isNull(depth)
+                || Objects.nonNull(evaluationParameters.getTimeInMs())) {
+            return;
+        }
+        Key key = new Key(type, normalizedFen);
+        Entry entry = new Entry(depth, value,
+                this.clock.millis() + this.properties.getTtlInMs());
+        synchronized (this.entries) {
+            Entry existing = this.entries.get(key);
+            if (Objects.isNull(existing) || isExpired(existing)
+                    || existing.getDepth() <= depth) {
+                this.entries.put(key, entry);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int getSize() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.get();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.getExpiresAt() <= this.clock.millis();
+    }
+
+    @Value
+    private static class Key {
+        EvaluationType type;
+        String normalizedFen;
+    }
+
+    @Value
+    private static class Entry {
+        int depth;
+        Object value;
+        long expiresAt;
+    }
+}
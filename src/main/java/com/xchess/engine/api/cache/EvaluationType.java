@@ -0,0 +1,6 @@
+package com.xchess.engine.api.cache;
+
+public enum EvaluationType {
+    BEST_MOVE,
+    POSITION_EVALUATION
+}
@@ -0,0 +1,254 @@
+package com.xchess.engine.api.cluster;
+
+import com.xchess.engine.api.binary.BinaryProtocol;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.controller.ChessController;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Sends engine requests to the node owning their position, so that each
+ * node's cache and engine hash tables only see its own shard. Requests are
+ * handled locally when the owner cannot be reached, and answered with 502 or
+ * 504 when it fails or times out after accepting them; forwarded requests
+ * carry {@link #FORWARDED_HEADER} and are never forwarded again.
+ */
+@Component
+@AllArgsConstructor
+public class ClusterForwardingFilter extends OncePerRequestFilter {
+    public static final String FORWARDED_HEADER = "X-Xchess-Forwarded";
+
+    private static final List<String> ROUTES = Arrays.asList("/bestMove",
+            "/positionEvaluation");
+    private static final List<String> FORWARDED_HEADERS =
+            Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE,
+                    ChessController.REQUEST_TIMEOUT_HEADER);
+    /**
+     * Headers describing the connection to the peer rather than its answer.
+     */
+    private static final List<String> HOP_BY_HOP_HEADERS = Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding",
+            "upgrade", "content-length");
+
+    private final ClusterRouter clusterRouter;
+    private final ClusterProperties clusterProperties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !clusterRouter.isEnabled()
+                || !ROUTES.contains(request.getServletPath())
+                || Objects.nonNull(request.getHeader(FORWARDED_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        HttpServletRequest localRequest = request;
+        byte[] body = null;
+        Optional<String> normalizedFen;
+        if ("POST".equals(request.getMethod())) {
+            body = StreamUtils.copyToByteArray(request.getInputStream());
+            localRequest = new CachedBodyRequest(request, body);
+            normalizedFen = binaryNormalizedFen(body);
+        } else {
+            normalizedFen = normalizedFen(request.getParameter("fen"));
+        }
+        Optional<String> peer = normalizedFen.flatMap(clusterRouter::peerFor);
+        if (peer.isPresent() && forward(peer.get(), request, body, response)) {
+            return;
+        }
+        filterChain.doFilter(localRequest, response);
+    }
+
+    /**
+     * Replays the request on the peer and copies its answer. Returns false
+     * when the peer cannot be reached, which is then marked down. Once the
+     * peer accepted the request it may still be searching, so its failures
+     * are answered with 502 or 504 rather than searched again here.
+     */
+    private boolean forward(String peer, HttpServletRequest request,
+                            byte[] body, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        HttpURLConnection connection;
+        try {
+            connection = (HttpURLConnection) new URL(peer
+                    + request.getRequestURI()
+                    + (Objects.isNull(query) ? "" : "?" + query)).openConnection();
+            connection.setConnectTimeout(clusterProperties.getConnectTimeoutInMs());
+            connection.setReadTimeout(clusterProperties.getReadTimeoutInMs());
+            connection.setRequestMethod(request.getMethod());
+            for (String header : FORWARDED_HEADERS) {
+                String value = request.getHeader(header);
+                if (Objects.nonNull(value)) {
+                    connection.setRequestProperty(header, value);
+                }
+            }
+            connection.setRequestProperty(FORWARDED_HEADER,
+                    clusterProperties.getSelf());
+            if (Objects.nonNull(body)) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+            }
+            connection.connect();
+        } catch (IOException e) {
+            clusterRouter.markDown(peer);
+            return false;
+        }
+        int status;
+        byte[] responseBody;
+        try {
+            if (Objects.nonNull(body)) {
+                try (OutputStream outputStream = connection.getOutputStream()) {
+                    outputStream.write(body);
+                }
+            }
+            status = connection.getResponseCode();
+            responseBody = readBody(connection, status);
+        } catch (SocketTimeoutException e) {
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT,
+                    "No answer from " + peer);
+            return true;
+        } catch (IOException e) {
+            response.sendError(HttpServletResponse.SC_BAD_GATEWAY,
+                    "Failed answer from " + peer);
+            return true;
+        }
+        response.setStatus(status);
+        copyHeaders(connection, response);
+        response.setContentLength(responseBody.length);
+        response.getOutputStream().write(responseBody);
+        return true;
+    }
+
+    /**
+     * Copies the peer's answer headers, such as Content-Type or
+     * Retry-After.
+     */
+    private static void copyHeaders(HttpURLConnection connection,
+                                    HttpServletResponse response) {
+        for (Map.Entry<String, List<String>> header :
+                connection.getHeaderFields().entrySet()) {
+            String name = header.getKey();
+            // the status line has no name
+            if (Objects.isNull(name) || HOP_BY_HOP_HEADERS.contains(
+                    name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                response.addHeader(name, value);
+            }
+        }
+    }
+
+    private static byte[] readBody(HttpURLConnection connection,
+                                   int status) throws IOException {
+        InputStream stream = status >= 400 ? connection.getErrorStream() :
+                connection.getInputStream();
+        if (Objects.isNull(stream)) {
+            return new byte[0];
+        }
+        try (InputStream inputStream = stream) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+    }
+
+    private static Optional<String> normalizedFen(String fen) {
+        try {
+            return Optional.of((Objects.isNull(fen) ? Position.startPosition() :
+                    Position.fromFen(fen)).toNormalizedFen());
+        } catch (InvalidFenException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> binaryNormalizedFen(byte[] body) {
+        try {
+            BinaryPositionRequest request =
+                    BinaryProtocol.decodeRequest(ByteBuffer.wrap(body));
+            return Optional.of((Objects.isNull(request.getPosition()) ?
+                    Position.startPosition() : request.getPosition())
+                    .toNormalizedFen());
+        } catch (InvalidFenException | InvalidNotationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Request whose body was already read, replayed for local handling.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(this.body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the whole body is in memory, available at once
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return inputStream.read(bytes, offset, length);
+                }
+            };
+        }
+    }
+}
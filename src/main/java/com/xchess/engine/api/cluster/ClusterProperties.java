@@ -0,0 +1,30 @@
+package com.xchess.engine.api.cluster;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+    private boolean enabled;
+    /**
+     * Base URL of this node, as it appears in {@link #peers}.
+     */
+    private String self;
+    /**
+     * Base URLs of all the nodes, this one included. Every node must be
+     * given the same list.
+     */
+    private List<String> peers = new ArrayList<>();
+    private int virtualNodes = 128;
+    private int connectTimeoutInMs = 200;
+    private int readTimeoutInMs = 60000;
+    private long peerRetryInMs = 5000;
+}
@@ -0,0 +1,76 @@
+package com.xchess.engine.api.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which node owns a position. A peer that could not be reached is
+ * skipped for a while so that its requests are served locally instead of
+ * paying a connect timeout each time.
+ */
+@Component
+public class ClusterRouter {
+    private final ClusterProperties properties;
+    private final Clock clock;
+    private final HashRing ring;
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClusterRouter(ClusterProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    ClusterRouter(ClusterProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        if (properties.isEnabled() && !properties.getPeers()
+                .contains(properties.getSelf())) {
+            throw new IllegalStateException("cluster.self "
+                    + properties.getSelf() + " is not in cluster.peers");
+        }
+        this.ring = new HashRing(properties.getPeers(),
+                properties.getVirtualNodes());
+    }
+
+    public boolean isEnabled() {
+        return this.properties.isEnabled();
+    }
+
+    /**
+     * The peer owning the position, or empty when it should be handled
+     * here: it is owned by this node or its owner is down.
+     */
+    public Optional<String> peerFor(String normalizedFen) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        String node = this.ring.nodeFor(normalizedFen);
+        if (node.equals(this.properties.getSelf()) || isDown(node)) {
+            return Optional.empty();
+        }
+        return Optional.of(node);
+    }
+
+    public void markDown(String peer) {
+        this.downUntil.put(peer, this.clock.millis()
+                + this.properties.getPeerRetryInMs());
+    }
+
+    private boolean isDown(String peer) {
+        Long until = this.downUntil.get(peer);
+        if (Objects.isNull(until)) {
+            return false;
+        }
+        if (this.clock.millis() >= until) {
+            this.downUntil.remove(peer, until);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package com.xchess.engine.api.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring. Each node is placed at several points so that keys
+ * spread evenly, and adding or removing a node only moves the keys it owns.
+ */
+public class HashRing {
+    private final TreeMap<Long, String> points = new TreeMap<>();
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                this.points.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public String nodeFor(String key) {
+        if (this.points.isEmpty()) {
+            throw new IllegalStateException("Empty hash ring");
+        }
+        Map.Entry<Long, String> point = this.points.ceilingEntry(hash(key));
+        return (point == null ? this.points.firstEntry() : point).getValue();
+    }
+
+    static long hash(String value) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,94 @@
+package com.xchess.engine.api.concurrent;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Time after which the client no longer waits for a request, brought
+ * forward when it goes away. Searches are given a time limit ending a
+ * margin before the deadline, so the engine stops on its own and answers
+ * with the best move found so far instead of running into its timeout.
+ */
+public final class Deadline {
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final long expiresAtInNanos;
+    private final long marginInNanos;
+    private final LongSupplier clock;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    public Deadline(long expiresAtInNanos, long marginInNanos,
+                    LongSupplier clock) {
+        this.expiresAtInNanos = expiresAtInNanos;
+        this.marginInNanos = marginInNanos;
+        this.clock = clock;
+    }
+
+    public static Deadline none() {
+        return new Deadline(NONE, 0, System::nanoTime);
+    }
+
+    public static Deadline after(long timeoutInMs, long marginInMs) {
+        return new Deadline(System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeoutInMs),
+                TimeUnit.MILLISECONDS.toNanos(marginInMs), System::nanoTime);
+    }
+
+    public void cancel() {
+        this.cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled.get();
+    }
+
+    public boolean isBounded() {
+        return this.expiresAtInNanos != NONE;
+    }
+
+    /**
+     * True once no search can be started any more: the client went away,
+     * or the deadline is closer than the margin.
+     */
+    public boolean isExhausted() {
+        return isCancelled() || (isBounded() && searchTimeInMs() <= 0);
+    }
+
+    /**
+     * Parameters whose time limit ends before the deadline; unchanged when
+     * they already do.
+     */
+    public EvaluationParameters limit(EvaluationParameters evaluationParameters) {
+        if (!isBounded()) {
+            return evaluationParameters;
+        }
+        int searchTimeInMs = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                searchTimeInMs()));
+        Integer timeInMs = evaluationParameters.getTimeInMs();
+        if (Objects.nonNull(timeInMs) && timeInMs <= searchTimeInMs) {
+            return evaluationParameters;
+        }
+        return EvaluationParameters.builder()
+                .depth(evaluationParameters.getDepth())
+                .timeInMs(searchTimeInMs)
+                .build();
+    }
+
+    /**
+     * True when {@link #limit} gave the search a time limit the request did
+     * not have, so its result may be shallower than asked for.
+     */
+    public static boolean isTimeLimited(EvaluationParameters requested,
+                                        EvaluationParameters sent) {
+        return !Objects.equals(requested.getTimeInMs(), sent.getTimeInMs());
+    }
+
+    private long searchTimeInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(this.expiresAtInNanos
+                - this.marginInNanos - this.clock.getAsLong());
+    }
+}
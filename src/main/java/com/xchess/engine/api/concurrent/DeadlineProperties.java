@@ -0,0 +1,15 @@
+package com.xchess.engine.api.concurrent;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "request.deadline")
+public class DeadlineProperties {
+    private long defaultTimeoutInMs;
+    private long stopMarginInMs = 250;
+}
@@ -0,0 +1,54 @@
+package com.xchess.engine.api.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls sharing the same key: the first caller starts
+ * the call, the others are attached to its outcome and get the same result
+ * or the same exception. Each caller gets its own dependent future, so one
+ * caller cancelling does not affect the others.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight =
+            new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key,
+                                        Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, future);
+        if (Objects.nonNull(existing)) {
+            this.coalesced.incrementAndGet();
+            return existing.thenApply(Function.identity());
+        }
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = Futures.failed(e);
+        }
+        result.whenComplete((value, error) -> {
+            this.inFlight.remove(key, future);
+            if (Objects.nonNull(error)) {
+                future.completeExceptionally(Futures.unwrap(error));
+            } else {
+                future.complete(value);
+            }
+        });
+        return future.thenApply(Function.identity());
+    }
+
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    public long getCoalescedCount() {
+        return this.coalesced.get();
+    }
+}
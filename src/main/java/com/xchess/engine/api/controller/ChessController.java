@@ -1,20 +1,44 @@
 package com.xchess.engine.api.controller;
 
+import com.xchess.engine.api.binary.BinaryProtocol;
+import com.xchess.engine.api.concurrent.Deadline;
+import com.xchess.engine.api.concurrent.DeadlineProperties;
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.domain.request.BatchAnalysisRequest;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.request.GameAnalysisRequest;
 import com.xchess.engine.api.domain.request.MoveRequest;
 import com.xchess.engine.api.domain.response.*;
+import com.xchess.engine.api.service.BatchAnalysisService;
 import com.xchess.engine.api.service.ChessService;
+import com.xchess.engine.api.service.GameAnalysisService;
+import com.xchess.engine.api.service.ProgressiveEvaluationService;
 import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @AllArgsConstructor
 public class ChessController {
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
 
     private final ChessService chessService;
+    private final BatchAnalysisService batchAnalysisService;
+    private final ProgressiveEvaluationService progressiveEvaluationService;
+    private final GameAnalysisService gameAnalysisService;
+    private final DeadlineProperties deadlineProperties;
 
     @GetMapping(value = "/engineVersion")
-    public EngineVersionResponse getEngineVersion() throws Exception {
+    public CompletableFuture<EngineVersionResponse> getEngineVersion() {
         return chessService.getEngineVersion();
     }
 
@@ -24,20 +48,113 @@ public class ChessController {
         return chessService.getPossibleMoves(fen, square);
     }
 
+    @PostMapping(value = "/possibleMoves", consumes =
+            BinaryProtocol.MEDIA_TYPE_VALUE)
+    public PossibleMovesResponse getPossibleMoves(@RequestBody BinaryPositionRequest request) throws Exception {
+        return chessService.getPossibleMoves(toFen(request), request.getSquare());
+    }
+
     @GetMapping(value = "/bestMove")
-    public BestMoveResponse findBestMove(@RequestParam(required = false) String fen,
-                                         EvaluationParameters evaluationParameters) throws Exception {
-        return chessService.findBestMove(fen, evaluationParameters);
+    public DeferredResult<BestMoveResponse> findBestMove(@RequestParam(required = false) String fen,
+                                                         EvaluationParameters evaluationParameters,
+                                                         @RequestParam(required = false) String profile,
+                                                         @RequestParam(required = false) Long requestTimeoutInMs,
+                                                         @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutHeader) {
+        Deadline deadline = toDeadline(requestTimeoutInMs, requestTimeoutHeader);
+        return toDeferredResult(deadline, chessService.findBestMove(fen,
+                evaluationParameters, profile, deadline));
+    }
+
+    @PostMapping(value = "/bestMove", consumes =
+            BinaryProtocol.MEDIA_TYPE_VALUE)
+    public DeferredResult<BestMoveResponse> findBestMove(@RequestBody BinaryPositionRequest request,
+                                                         @RequestParam(required = false) String profile,
+                                                         @RequestParam(required = false) Long requestTimeoutInMs,
+                                                         @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutHeader) {
+        Deadline deadline = toDeadline(requestTimeoutInMs, requestTimeoutHeader);
+        EvaluationParameters evaluationParameters = EvaluationParameters.builder()
+                .depth(request.getDepth())
+                .timeInMs(request.getTimeInMs())
+                .build();
+        return toDeferredResult(deadline, chessService.findBestMove(
+                toFen(request), evaluationParameters, profile, deadline));
     }
 
     @GetMapping(value = "/positionEvaluation")
-    public PositionEvaluationResponse getPositionEvaluation(@RequestParam(required = false) String fen, EvaluationParameters evaluationParameters) throws Exception {
-        return chessService.getPositionEvaluation(fen,
+    public DeferredResult<PositionEvaluationResponse> getPositionEvaluation(@RequestParam(required = false) String fen,
+                                                                            EvaluationParameters evaluationParameters,
+                                                                            @RequestParam(required = false) String profile,
+                                                                            @RequestParam(required = false) Long requestTimeoutInMs,
+                                                                            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutHeader) {
+        Deadline deadline = toDeadline(requestTimeoutInMs, requestTimeoutHeader);
+        return toDeferredResult(deadline, chessService.getPositionEvaluation(fen,
+                evaluationParameters, profile, deadline));
+    }
+
+    @GetMapping(value = "/positionEvaluation/stream", produces =
+            MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPositionEvaluation(@RequestParam(required = false) String fen, EvaluationParameters evaluationParameters) {
+        return progressiveEvaluationService.streamPositionEvaluation(fen,
                 evaluationParameters);
     }
 
     @PostMapping(value = "/move")
-    public MoveResponse move(@RequestBody(required = false) MoveRequest moveRequest) throws Exception {
+    public MoveResponse move(@Valid @RequestBody MoveRequest moveRequest) throws Exception {
         return chessService.move(moveRequest.getFen(), moveRequest.getMoves());
     }
-}
+
+    @PostMapping(value = "/batchAnalysis", produces =
+            MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> batchAnalysis(@Valid @RequestBody BatchAnalysisRequest batchAnalysisRequest) {
+        StreamingResponseBody body =
+                outputStream -> batchAnalysisService.analyse(batchAnalysisRequest, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(value = "/gameAnalysis")
+    public DeferredResult<GameAnalysisResponse> gameAnalysis(@Valid @RequestBody GameAnalysisRequest gameAnalysisRequest,
+                                                             @RequestParam(required = false) Long requestTimeoutInMs,
+                                                             @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutHeader) {
+        Deadline deadline = toDeadline(requestTimeoutInMs, requestTimeoutHeader);
+        return toDeferredResult(deadline,
+                gameAnalysisService.analyse(gameAnalysisRequest, deadline));
+    }
+
+    private Deadline toDeadline(Long requestTimeoutInMs,
+                                Long requestTimeoutHeader) {
+        Long timeoutInMs = Objects.nonNull(requestTimeoutInMs) ?
+                requestTimeoutInMs : requestTimeoutHeader;
+        if (Objects.isNull(timeoutInMs)) {
+            timeoutInMs = deadlineProperties.getDefaultTimeoutInMs();
+        }
+        return timeoutInMs > 0 ?
+                Deadline.after(timeoutInMs, deadlineProperties.getStopMarginInMs()) :
+                Deadline.none();
+    }
+
+    private static String toFen(BinaryPositionRequest request) {
+        return Objects.isNull(request.getPosition()) ? null :
+                request.getPosition().toFen();
+    }
+
+    /**
+     * The async request completes early when it times out or the client
+     * disconnects; the deadline is then cancelled so that work still
+     * queued for it is dropped.
+     */
+    private static <T> DeferredResult<T> toDeferredResult(Deadline deadline,
+                                                          CompletableFuture<T> future) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.onCompletion(deadline::cancel);
+        future.whenComplete((value, error) -> {
+            if (Objects.nonNull(error)) {
+                result.setErrorResult(Futures.unwrap(error));
+            } else {
+                result.setResult(value);
+            }
+        });
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.xchess.engine.api.controller;
+
+import com.xchess.engine.api.exceptions.EngineUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class EngineUnavailableExceptionHandler {
+
+    @ExceptionHandler(EngineUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleEngineUnavailable(EngineUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(exception.getRetryAfterInSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                        exception.getMessage()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.xchess.engine.api.controller;
+
+import com.xchess.engine.api.domain.request.CreateGameSessionRequest;
+import com.xchess.engine.api.domain.request.GameSessionMovesRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.GameSessionResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.session.GameSessionService;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping(value = "/sessions")
+public class GameSessionController {
+
+    private final GameSessionService gameSessionService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public GameSessionResponse createSession(@RequestBody(required = false) CreateGameSessionRequest createGameSessionRequest) {
+        if (Objects.isNull(createGameSessionRequest)) {
+            return gameSessionService.create(null);
+        }
+        return gameSessionService.create(createGameSessionRequest.getFen(),
+                createGameSessionRequest.getProfile(),
+                Boolean.TRUE.equals(createGameSessionRequest.getPonder()));
+    }
+
+    @GetMapping(value = "/{id}")
+    public GameSessionResponse getSession(@PathVariable String id) {
+        return gameSessionService.get(id);
+    }
+
+    @PostMapping(value = "/{id}/moves")
+    public GameSessionResponse move(@PathVariable String id,
+                                    @Valid @RequestBody GameSessionMovesRequest gameSessionMovesRequest) {
+        return gameSessionService.play(id, gameSessionMovesRequest.getMoves());
+    }
+
+    @GetMapping(value = "/{id}/bestMove")
+    public CompletableFuture<BestMoveResponse> findBestMove(@PathVariable String id,
+                                                            EvaluationParameters evaluationParameters) {
+        return gameSessionService.findBestMove(id, evaluationParameters);
+    }
+
+    @GetMapping(value = "/{id}/positionEvaluation")
+    public CompletableFuture<PositionEvaluationResponse> getPositionEvaluation(@PathVariable String id,
+                                                                               EvaluationParameters evaluationParameters) {
+        return gameSessionService.getPositionEvaluation(id,
+                evaluationParameters);
+    }
+
+    @DeleteMapping(value = "/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void closeSession(@PathVariable String id) {
+        gameSessionService.close(id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.xchess.engine.api.domain.enumeration;
+
+public enum BatchAnalysisStatus {
+    OK,
+    INVALID_INPUT,
+    ERROR
+}
@@ -0,0 +1,8 @@
+package com.xchess.engine.api.domain.enumeration;
+
+public enum MoveJudgement {
+    BEST,
+    GOOD,
+    MISTAKE,
+    BLUNDER
+}
@@ -0,0 +1,7 @@
+package com.xchess.engine.api.domain.enumeration;
+
+public enum MoveSource {
+    ENGINE,
+    BOOK,
+    TABLEBASE
+}
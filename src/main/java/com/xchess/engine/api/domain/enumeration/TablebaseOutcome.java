@@ -0,0 +1,9 @@
+package com.xchess.engine.api.domain.enumeration;
+
+public enum TablebaseOutcome {
+    LOSS,
+    BLESSED_LOSS,
+    DRAW,
+    CURSED_WIN,
+    WIN
+}
@@ -0,0 +1,16 @@
+package com.xchess.engine.api.domain.request;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAnalysisItem {
+    private String fen;
+    private EvaluationParameters evaluationParameters;
+}
@@ -0,0 +1,21 @@
+package com.xchess.engine.api.domain.request;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAnalysisRequest {
+    private EvaluationParameters evaluationParameters;
+    private boolean withEvaluation;
+    @NotEmpty
+    private List<BatchAnalysisItem> items;
+}
@@ -0,0 +1,20 @@
+package com.xchess.engine.api.domain.request;
+
+import com.xchess.engine.api.board.Position;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Body of the binary bestMove and possibleMoves requests. A missing
+ * position stands for the start position.
+ */
+@Builder
+@AllArgsConstructor
+@Getter
+public class BinaryPositionRequest {
+    private Position position;
+    private String square;
+    private Integer depth;
+    private Integer timeInMs;
+}
@@ -0,0 +1,16 @@
+package com.xchess.engine.api.domain.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateGameSessionRequest {
+    private String fen;
+    private String profile;
+    private Boolean ponder;
+}
@@ -0,0 +1,22 @@
+package com.xchess.engine.api.domain.request;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameAnalysisRequest {
+    private String pgn;
+    private String fen;
+    private List<String> moves;
+    @NotNull
+    private EvaluationParameters evaluationParameters;
+}
@@ -0,0 +1,18 @@
+package com.xchess.engine.api.domain.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSessionMovesRequest {
+    @NotEmpty
+    private List<String> moves;
+}
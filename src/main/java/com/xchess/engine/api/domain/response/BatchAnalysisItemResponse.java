@@ -0,0 +1,18 @@
+package com.xchess.engine.api.domain.response;
+
+import com.xchess.engine.api.domain.enumeration.BatchAnalysisStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@AllArgsConstructor
+@Getter
+public class BatchAnalysisItemResponse {
+    private int index;
+    private String fen;
+    private BatchAnalysisStatus status;
+    private String bestMove;
+    private PositionEvaluationResponse evaluation;
+    private String error;
+}
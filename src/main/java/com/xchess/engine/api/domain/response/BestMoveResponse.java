@@ -1,5 +1,6 @@
 package com.xchess.engine.api.domain.response;
 
+import com.xchess.engine.api.domain.enumeration.MoveSource;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -9,4 +10,6 @@ import lombok.Getter;
 @Getter
 public class BestMoveResponse {
     private String bestMove;
+    private MoveSource source;
+    private TablebaseResponse tablebase;
 }
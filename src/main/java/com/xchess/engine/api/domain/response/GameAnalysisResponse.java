@@ -0,0 +1,16 @@
+package com.xchess.engine.api.domain.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@Getter
+public class GameAnalysisResponse {
+    private List<PlyAnalysisResponse> plies;
+    private String finalFen;
+    private PositionEvaluationResponse finalEvaluation;
+}
@@ -0,0 +1,16 @@
+package com.xchess.engine.api.domain.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@Getter
+public class GameSessionResponse {
+    private String id;
+    private String fen;
+    private List<String> moves;
+}
@@ -0,0 +1,21 @@
+package com.xchess.engine.api.domain.response;
+
+import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.MoveJudgement;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@AllArgsConstructor
+@Getter
+public class PlyAnalysisResponse {
+    private int ply;
+    private ChessColor color;
+    private String fen;
+    private String move;
+    private String bestMove;
+    private PositionEvaluationResponse evaluation;
+    private int evaluationLoss;
+    private MoveJudgement judgement;
+}
@@ -13,4 +13,5 @@ public class PositionEvaluationResponse {
     private ChessEngineEvaluationType type;
     private ChessColor color;
     private int value;
+    private TablebaseResponse tablebase;
 }
@@ -0,0 +1,14 @@
+package com.xchess.engine.api.domain.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@AllArgsConstructor
+@Getter
+public class ProgressiveEvaluationResponse {
+    private int depth;
+    private boolean complete;
+    private PositionEvaluationResponse evaluation;
+}
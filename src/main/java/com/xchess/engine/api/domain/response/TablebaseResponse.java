@@ -0,0 +1,19 @@
+package com.xchess.engine.api.domain.response;
+
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Exact endgame result for the side to move. The DTZ is the number of
+ * plies to the next capture or pawn move on the optimal path, negative when
+ * losing, and is missing when only the WDL tables are installed.
+ */
+@Builder
+@AllArgsConstructor
+@Getter
+public class TablebaseResponse {
+    private TablebaseOutcome outcome;
+    private Integer dtz;
+}
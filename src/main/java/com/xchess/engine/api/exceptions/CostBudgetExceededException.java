@@ -0,0 +1,11 @@
+package com.xchess.engine.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CostBudgetExceededException extends RuntimeException {
+    public CostBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.xchess.engine.api.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class EngineUnavailableException extends RuntimeException {
+    private final int retryAfterInSeconds;
+
+    public EngineUnavailableException(String message, int retryAfterInSeconds) {
+        super(message);
+        this.retryAfterInSeconds = retryAfterInSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.xchess.engine.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class GameSessionNotFoundException extends RuntimeException {
+    public GameSessionNotFoundException(String id) {
+        super("Unknown game session: " + id);
+    }
+}
@@ -0,0 +1,11 @@
+package com.xchess.engine.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyGameSessionsException extends RuntimeException {
+    public TooManyGameSessionsException(int maxSessions) {
+        super("Game session limit of " + maxSessions + " reached");
+    }
+}
@@ -1,10 +1,20 @@
 package com.xchess.engine.api.mapper;
 
+import com.xchess.engine.api.board.Piece;
 import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
 import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.domain.response.TablebaseResponse;
 import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
 
 public class PositionEvaluationResponseMapper {
+    /**
+     * Score given to tablebase wins, like the engine reports them. Results
+     * the 50 move rule turns into draws score 0.
+     */
+    public static final int TABLEBASE_WIN_CENTIPAWNS = 20000;
+
     public static PositionEvaluationResponse toPositionEvaluationResponse(ChessEngineEvaluation chessEngineEvaluation) {
         return PositionEvaluationResponse
                 .builder()
@@ -14,4 +24,21 @@ public class PositionEvaluationResponseMapper {
                         ChessColor.WHITE : ChessColor.BLACK)
                 .build();
     }
+
+    public static PositionEvaluationResponse toPositionEvaluationResponse(TablebaseResponse tablebaseResponse,
+                                                                          int sideToMove) {
+        TablebaseOutcome outcome = tablebaseResponse.getOutcome();
+        boolean decisive = outcome == TablebaseOutcome.WIN
+                || outcome == TablebaseOutcome.LOSS;
+        int winner = outcome == TablebaseOutcome.LOSS ? sideToMove ^ 1 :
+                sideToMove;
+        return PositionEvaluationResponse
+                .builder()
+                .type(ChessEngineEvaluationType.CENTIPAWNS)
+                .value(decisive ? TABLEBASE_WIN_CENTIPAWNS : 0)
+                .color(decisive && winner == Piece.BLACK ?
+                        ChessColor.BLACK : ChessColor.WHITE)
+                .tablebase(tablebaseResponse)
+                .build();
+    }
 }
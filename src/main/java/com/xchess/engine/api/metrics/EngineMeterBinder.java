@@ -0,0 +1,129 @@
+package com.xchess.engine.api.metrics;
+
+import com.xchess.engine.api.book.OpeningBook;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.affinity.PositionAffinity;
+import com.xchess.engine.api.session.GameSessionService;
+import com.xchess.engine.api.store.AnalysisStore;
+import com.xchess.engine.api.tablebase.SyzygyTablebase;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class EngineMeterBinder implements MeterBinder {
+    private final PoolWrapper poolWrapper;
+    private final EvaluationCache evaluationCache;
+    private final PositionAffinity positionAffinity;
+    private final GameSessionService gameSessionService;
+    private final OpeningBook openingBook;
+    private final AnalysisStore analysisStore;
+    private final SyzygyTablebase syzygyTablebase;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("engine.pool.capacity", this.poolWrapper,
+                        poolWrapper -> poolWrapper.getStatistics().getCapacity())
+                .description("Maximum number of engine processes")
+                .register(registry);
+        Gauge.builder("engine.pool.active", this.poolWrapper,
+                        poolWrapper -> poolWrapper.getStatistics().getActive())
+                .description("Engines running a task")
+                .register(registry);
+        Gauge.builder("engine.pool.idle", this.poolWrapper,
+                        poolWrapper -> poolWrapper.getStatistics().getIdle())
+                .description("Idle engine processes")
+                .register(registry);
+        Gauge.builder("engine.pool.waiting", this.poolWrapper,
+                        poolWrapper -> poolWrapper.getStatistics().getQueued())
+                .description("Tasks waiting for a worker or an engine")
+                .register(registry);
+
+        FunctionCounter.builder("engine.cache.requests", this.evaluationCache,
+                        EvaluationCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("engine.cache.requests", this.evaluationCache,
+                        EvaluationCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("engine.cache.evictions", this.evaluationCache,
+                        EvaluationCache::getEvictionCount)
+                .register(registry);
+        Gauge.builder("engine.cache.size", this.evaluationCache,
+                        EvaluationCache::getSize)
+                .register(registry);
+
+        FunctionCounter.builder("engine.affinity.requests", this.positionAffinity,
+                        PositionAffinity::getExactHitCount)
+                .tag("result", "exact")
+                .register(registry);
+        FunctionCounter.builder("engine.affinity.requests", this.positionAffinity,
+                        PositionAffinity::getDescendantHitCount)
+                .tag("result", "descendant")
+                .register(registry);
+        FunctionCounter.builder("engine.affinity.requests", this.positionAffinity,
+                        PositionAffinity::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("engine.affinity.hit.rate", this.positionAffinity,
+                        PositionAffinity::getHitRate)
+                .register(registry);
+
+        FunctionCounter.builder("engine.book.requests", this.openingBook,
+                        OpeningBook::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("engine.book.requests", this.openingBook,
+                        OpeningBook::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+
+        FunctionCounter.builder("engine.store.requests", this.analysisStore,
+                        AnalysisStore::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("engine.store.requests", this.analysisStore,
+                        AnalysisStore::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("engine.store.failures", this.analysisStore,
+                        AnalysisStore::getFailureCount)
+                .register(registry);
+        Gauge.builder("engine.store.size", this.analysisStore,
+                        AnalysisStore::getSize)
+                .register(registry);
+        Gauge.builder("engine.store.garbage.ratio", this.analysisStore,
+                        AnalysisStore::getGarbageRatio)
+                .register(registry);
+
+        FunctionCounter.builder("engine.tablebase.requests", this.syzygyTablebase,
+                        SyzygyTablebase::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("engine.tablebase.requests", this.syzygyTablebase,
+                        SyzygyTablebase::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+
+        Gauge.builder("engine.sessions", this.gameSessionService,
+                        GameSessionService::getSessionCount)
+                .register(registry);
+        Gauge.builder("engine.sessions.pinned", this.gameSessionService,
+                        GameSessionService::getPinnedEngineCount)
+                .register(registry);
+        FunctionCounter.builder("engine.sessions.ponders", this.gameSessionService,
+                        GameSessionService::getPonderHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("engine.sessions.ponders", this.gameSessionService,
+                        GameSessionService::getPonderMissCount)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
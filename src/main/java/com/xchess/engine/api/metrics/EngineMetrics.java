@@ -0,0 +1,178 @@
+package com.xchess.engine.api.metrics;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.engine.api.pool.scheduler.Lane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters around the engine pool. Engine tasks set the endpoint
+ * of the current worker thread, so everything recorded while a task runs,
+ * down to single engine calls, is tagged with the endpoint that caused it.
+ */
+@Component
+public class EngineMetrics {
+    public static final String NO_ENDPOINT = "none";
+
+    private static final ThreadLocal<EngineTask> CURRENT_TASK =
+            new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public EngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void startTask(EngineTask task) {
+        CURRENT_TASK.set(task);
+    }
+
+    public void endTask() {
+        CURRENT_TASK.remove();
+    }
+
+    public void recordQueueWait(EngineTask task, Lane lane, long nanos) {
+        Timer.builder("engine.task.queue.wait")
+                .description("Time spent waiting for a worker in the lane scheduler")
+                .tags("endpoint", tagValue(task), "lane", tagValue(lane))
+                .publishPercentileHistogram()
+                .register(this.registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBorrowWait(long nanos, boolean success) {
+        Timer.builder("engine.pool.borrow.wait")
+                .description("Time spent waiting for an idle engine")
+                .tags("endpoint", currentEndpoint(), "outcome",
+                        success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(this.registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordExecution(EngineTask task, long nanos,
+                                Throwable error) {
+        Timer.builder("engine.task.execution")
+                .description("Time an engine task held its worker")
+                .tags("endpoint", tagValue(task), "outcome", outcome(error))
+                .publishPercentileHistogram()
+                .register(this.registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordInvalidation(Throwable reason) {
+        Counter.builder("engine.invalidations")
+                .description("Engines dropped from the pool")
+                .tags("endpoint", currentEndpoint(), "reason", reason(reason))
+                .register(this.registry)
+                .increment();
+    }
+
+    public void recordReset(Throwable reason) {
+        Counter.builder("engine.resets")
+                .description("Engines reset and kept after a request error")
+                .tags("endpoint", currentEndpoint(), "reason", reason(reason))
+                .register(this.registry)
+                .increment();
+    }
+
+    public void recordValidationFailure() {
+        Counter.builder("engine.invalidations")
+                .description("Engines dropped from the pool")
+                .tags("endpoint", currentEndpoint(), "reason", "validation")
+                .register(this.registry)
+                .increment();
+    }
+
+    public void recordEngineLifecycle(String operation, long nanos,
+                                      boolean success) {
+        Timer.builder("engine.process." + operation)
+                .description("Engine process " + operation + " time")
+                .tags("endpoint", currentEndpoint(), "outcome",
+                        success ? "success" : "failure")
+                .register(this.registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wraps the engine so that every call, which is one UCI round-trip or a
+     * short exchange of them, is timed per command.
+     */
+    public ChessEngine instrument(ChessEngine engineWorker) {
+        return (ChessEngine) Proxy.newProxyInstance(
+                ChessEngine.class.getClassLoader(),
+                new Class<?>[]{ChessEngine.class},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return invokeObjectMethod(proxy, method.getName(),
+                                args);
+                    }
+                    long start = System.nanoTime();
+                    Throwable error = null;
+                    try {
+                        return method.invoke(engineWorker, args);
+                    } catch (InvocationTargetException e) {
+                        error = e.getCause();
+                        throw error;
+                    } finally {
+                        Timer.builder("engine.uci.calls")
+                                .description("Engine call round-trip time")
+                                .tags("endpoint", currentEndpoint(),
+                                        "command", method.getName(),
+                                        "outcome", outcome(error))
+                                .publishPercentileHistogram()
+                                .register(this.registry)
+                                .record(System.nanoTime() - start,
+                                        TimeUnit.NANOSECONDS);
+                    }
+                });
+    }
+
+    private static Object invokeObjectMethod(Object proxy, String name,
+                                             Object[] args) {
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "InstrumentedChessEngine@"
+                        + Integer.toHexString(System.identityHashCode(proxy));
+        }
+    }
+
+    private static String currentEndpoint() {
+        return tagValue(CURRENT_TASK.get());
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return Objects.isNull(value) ? NO_ENDPOINT :
+                value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String outcome(Throwable error) {
+        return Objects.isNull(error) ? "success" : "failure";
+    }
+
+    private static String reason(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        if (cause instanceof ChessEngineWorkerExecutionException
+                && Objects.nonNull(cause.getCause())) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,25 @@
+package com.xchess.engine.api.pool;
+
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tells failures of the engine process from errors caused by the request.
+ * Only I/O errors and timeouts leave the process in an unknown state; bad
+ * positions, illegal moves and other request errors are raised before or
+ * instead of talking to the engine, which stays usable.
+ */
+public final class EngineFailures {
+    private EngineFailures() {
+    }
+
+    public static boolean isEngineFailure(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        return cause instanceof ChessEngineWorkerExecutionException
+                || cause instanceof IOException
+                || cause instanceof TimeoutException;
+    }
+}
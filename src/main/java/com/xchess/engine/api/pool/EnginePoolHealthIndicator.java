@@ -0,0 +1,33 @@
+package com.xchess.engine.api.pool;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service until the minimum idle engines are warm. Part of the
+ * readiness group, so instances only get traffic once requests no longer
+ * pay for engine start-up.
+ */
+@Component
+public class EnginePoolHealthIndicator implements HealthIndicator {
+    private final PoolWrapper poolWrapper;
+
+    @Autowired
+    public EnginePoolHealthIndicator(PoolWrapper poolWrapper) {
+        this.poolWrapper = poolWrapper;
+    }
+
+    @Override
+    public Health health() {
+        PoolStatistics statistics = this.poolWrapper.getStatistics();
+        Health.Builder builder = this.poolWrapper.isWarm() ? Health.up() :
+                Health.outOfService();
+        return builder
+                .withDetail("active", statistics.getActive())
+                .withDetail("idle", statistics.getIdle())
+                .withDetail("capacity", statistics.getCapacity())
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.xchess.engine.api.pool;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Engines started with their own configuration options, such as a thread
+ * count, a hash size or a skill level, and kept in their own sub-pool.
+ */
+@Getter
+@Setter
+public class EngineProfile {
+    public static final String DEFAULT = "default";
+
+    private Map<String, String> options = new HashMap<>();
+    private int minIdle;
+    private int maxTotal;
+}
@@ -5,6 +5,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
@@ -14,4 +17,11 @@ public class PoolProperties {
     private int maxTotal;
     private int timeBetweenEvictionRunsInMs;
     private int evictableIdleDurationInMs;
+    private int maxQueueLength;
+    private int maxBorrowWaitInMs;
+    private int retryAfterInSeconds;
+    private int warmupDepth;
+    private int prewarmParallelism = 4;
+    private boolean testWhileIdle = true;
+    private Map<String, EngineProfile> profiles = new HashMap<>();
 }
@@ -0,0 +1,14 @@
+package com.xchess.engine.api.pool;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PoolStatistics {
+    int capacity;
+    int active;
+    int idle;
+    int queued;
+    double meanWaitInMs;
+}
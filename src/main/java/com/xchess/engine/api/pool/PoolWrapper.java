@@ -1,52 +1,713 @@
 package com.xchess.engine.api.pool;
 
 import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.concurrent.Deadline;
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.exceptions.CostBudgetExceededException;
+import com.xchess.engine.api.exceptions.DeadlineExceededException;
+import com.xchess.engine.api.exceptions.EngineUnavailableException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.metrics.EngineMetrics;
+import com.xchess.engine.api.pool.affinity.AffinityProperties;
+import com.xchess.engine.api.pool.affinity.EnginePosition;
+import com.xchess.engine.api.pool.affinity.PositionAffinity;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.engine.api.pool.scheduler.LaneExecutor;
+import com.xchess.engine.api.pool.scheduler.LaneScheduler;
+import com.xchess.engine.api.pool.scheduler.SchedulerProperties;
+import com.xchess.engine.api.pool.scheduler.TaskCost;
+import com.xchess.engine.api.pool.scheduler.TaskCostEstimator;
 import com.xchess.engine.api.pool.worker.ChessEngineFactory;
-import org.apache.commons.pool2.impl.GenericObjectPool;
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.EvictionConfig;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
+/**
+ * Runs engine actions on a bounded set of worker threads, one per engine
+ * slot. Each action is given an estimated cost and queued in the matching
+ * lane of a {@link LaneScheduler}; actions over the per-request budget are
+ * rejected up front. When the wait queue is full, or no engine frees up
+ * within the maximum borrow wait, the action fails fast with an
+ * {@link EngineUnavailableException} instead of parking a request thread.
+ * <p>
+ * Engines are pooled per {@link EngineProfile}. All profiles share the total
+ * capacity: when a profile needs a new engine and the pool is full, the
+ * oldest idle engine of another profile is stopped to make room.
+ */
 @Component
 @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
 public class PoolWrapper {
-    protected GenericObjectPool<ChessEngine> pool;
+    protected GenericKeyedObjectPool<String, ChessEngine> pool;
+    protected ChessEngineFactory chessEngineFactory;
+    protected Map<String, EngineProfile> profiles = new HashMap<>();
+    protected final Map<String, Semaphore> profileSlots = new HashMap<>();
+    protected volatile int defaultMinIdle;
+    protected LaneExecutor executor;
+    protected TaskCostEstimator taskCostEstimator;
+    protected PositionAffinity positionAffinity;
+    protected EngineMetrics engineMetrics;
+    protected Duration maxBorrowWait = Duration.ZERO;
+    protected long maxCostPerRequestInMs = Long.MAX_VALUE;
+    protected int retryAfterInSeconds;
+    protected Executor replacementExecutor = Runnable::run;
+    protected CompletableFuture<Void> prewarm =
+            CompletableFuture.completedFuture(null);
+    protected int prewarmTarget;
 
     @Autowired
     public PoolWrapper(PoolProperties poolProperties,
+                       SchedulerProperties schedulerProperties,
+                       TaskCostEstimator taskCostEstimator,
+                       PositionAffinity positionAffinity,
+                       EngineMetrics engineMetrics,
                        ChessEngineFactory chessEngineFactory) throws Exception {
-        GenericObjectPoolConfig<ChessEngine> config =
-                new GenericObjectPoolConfig<>();
-        config.setMinIdle(poolProperties.getMinIdle());
+        GenericKeyedObjectPoolConfig<ChessEngine> config =
+                new GenericKeyedObjectPoolConfig<>();
         config.setMaxTotal(poolProperties.getMaxTotal());
+        config.setMaxTotalPerKey(poolProperties.getMaxTotal());
+        config.setMaxIdlePerKey(poolProperties.getMaxTotal());
+        // Minimum idle counts differ per profile, so they are kept by the
+        // eviction policy and ensureMinIdle rather than by the pool.
+        config.setMinIdlePerKey(0);
         config.setSoftMinEvictableIdleDuration(Duration.ofMillis(poolProperties.getEvictableIdleDurationInMs()));
         config.setTimeBetweenEvictionRuns(Duration.ofMillis(poolProperties.getTimeBetweenEvictionRunsInMs()));
+        // Idle engines are health checked by the evictor, off the request
+        // path, so that a dead process is dropped before it is borrowed.
+        config.setTestWhileIdle(poolProperties.isTestWhileIdle());
 
-        this.pool = new GenericObjectPool<>(chessEngineFactory, config);
-        this.pool.preparePool();
+        this.chessEngineFactory = chessEngineFactory;
+        this.profiles = poolProperties.getProfiles();
+        this.profiles.forEach((name, profile) -> {
+            if (profile.getMaxTotal() > 0) {
+                this.profileSlots.put(name, new Semaphore(profile.getMaxTotal(), true));
+            }
+        });
+        this.defaultMinIdle = poolProperties.getMinIdle();
+        this.pool = new GenericKeyedObjectPool<>(chessEngineFactory, config);
+        this.pool.setEvictionPolicy(this::isEvictable);
+        this.prewarm = prewarm(poolProperties.getPrewarmParallelism());
+
+        this.executor =
+                new LaneScheduler(Math.max(1, poolProperties.getMaxTotal()),
+                        Math.max(1, poolProperties.getMaxQueueLength()),
+                        schedulerProperties);
+        this.taskCostEstimator = taskCostEstimator;
+        this.positionAffinity = positionAffinity;
+        this.engineMetrics = engineMetrics;
+        this.maxCostPerRequestInMs =
+                schedulerProperties.getMaxCostPerRequestInMs();
+        this.maxBorrowWait =
+                Duration.ofMillis(poolProperties.getMaxBorrowWaitInMs());
+        this.retryAfterInSeconds = poolProperties.getRetryAfterInSeconds();
+        this.replacementExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-replacement");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     protected PoolWrapper() {
+        this.executor = (lane, task) -> task.run();
+        this.taskCostEstimator =
+                new TaskCostEstimator(new SchedulerProperties());
+        this.positionAffinity = new PositionAffinity(new AffinityProperties());
+        this.engineMetrics = new EngineMetrics(new SimpleMeterRegistry());
+    }
+
+    public <T> CompletableFuture<T> queueAction(EngineTask task,
+                                                Function<ChessEngine, T> action) {
+        return queueAction(task, null, action);
+    }
+
+    public <T> CompletableFuture<T> queueAction(EngineTask task,
+                                                EvaluationParameters evaluationParameters,
+                                                Function<ChessEngine, T> action) {
+        return queueTask(task, evaluationParameters, () -> runAction(action));
+    }
+
+    /**
+     * Runs the action on an engine already set up on the given position,
+     * preferring an idle engine that last searched that position or one of
+     * its recent ancestors.
+     */
+    public <T> CompletableFuture<T> queueAction(EngineTask task,
+                                                EvaluationParameters evaluationParameters,
+                                                EnginePosition enginePosition,
+                                                Function<ChessEngine, T> action) {
+        return queueAction(task, evaluationParameters, enginePosition,
+                Deadline.none(), action);
+    }
+
+    /**
+     * Same as above, dropped without borrowing an engine when the deadline
+     * is exhausted by the time a worker picks it up.
+     */
+    public <T> CompletableFuture<T> queueAction(EngineTask task,
+                                                EvaluationParameters evaluationParameters,
+                                                EnginePosition enginePosition,
+                                                Deadline deadline,
+                                                Function<ChessEngine, T> action) {
+        return queueAction(task, evaluationParameters, EngineProfile.DEFAULT,
+                enginePosition, deadline, action);
+    }
+
+    /**
+     * Same as above, on an engine of the given profile.
+     */
+    public <T> CompletableFuture<T> queueAction(EngineTask task,
+                                                EvaluationParameters evaluationParameters,
+                                                String profile,
+                                                EnginePosition enginePosition,
+                                                Deadline deadline,
+                                                Function<ChessEngine, T> action) {
+        String engineProfile = checkProfile(profile);
+        return queueTask(task, evaluationParameters, 1, deadline,
+                () -> runAction(engineProfile, enginePosition, action));
+    }
+
+    /**
+     * Queues a task that manages its own engine, for callers that keep an
+     * engine across several tasks.
+     */
+    public <T> CompletableFuture<T> queueTask(EngineTask task,
+                                              EvaluationParameters evaluationParameters,
+                                              Callable<T> callable) {
+        return queueTask(task, evaluationParameters, 1, callable);
+    }
+
+    /**
+     * Queues a task running several searches on the same engine, costed as
+     * their sum.
+     */
+    public <T> CompletableFuture<T> queueTask(EngineTask task,
+                                              EvaluationParameters evaluationParameters,
+                                              int searchCount,
+                                              Callable<T> callable) {
+        return queueTask(task, evaluationParameters, searchCount,
+                Deadline.none(), callable);
+    }
+
+    public <T> CompletableFuture<T> queueTask(EngineTask task,
+                                              EvaluationParameters evaluationParameters,
+                                              int searchCount,
+                                              Deadline deadline,
+                                              Callable<T> callable) {
+        TaskCost cost = this.taskCostEstimator.estimate(task,
+                Objects.isNull(evaluationParameters) ? null :
+                        deadline.limit(evaluationParameters), searchCount);
+        if (cost.getEstimatedCostInMs() > this.maxCostPerRequestInMs) {
+            return Futures.failed(new CostBudgetExceededException(
+                    "Estimated cost of " + cost.getEstimatedCostInMs()
+                            + " ms exceeds the budget of "
+                            + this.maxCostPerRequestInMs + " ms"));
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            this.executor.execute(cost.getLane(), () -> {
+                long start = System.nanoTime();
+                this.engineMetrics.recordQueueWait(task, cost.getLane(),
+                        start - queuedAt);
+                this.engineMetrics.startTask(task);
+                Throwable error = null;
+                try {
+                    if (deadline.isExhausted()) {
+                        throw new DeadlineExceededException(
+                                "Deadline passed while waiting for an engine");
+                    }
+                    future.complete(callable.call());
+                } catch (Throwable e) {
+                    error = e;
+                    future.completeExceptionally(e);
+                } finally {
+                    this.engineMetrics.recordExecution(task,
+                            System.nanoTime() - start, error);
+                    this.engineMetrics.endTask();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new EngineUnavailableException(
+                    "Engine wait queue is full", this.retryAfterInSeconds));
+        }
+        return future;
+    }
+
+    public ChessEngine borrowEngine() throws Exception {
+        return borrowEngine(EngineProfile.DEFAULT);
+    }
+
+    public ChessEngine borrowEngine(String profile) throws Exception {
+        ChessEngine engineWorker = borrowObject(checkProfile(profile));
+        this.positionAffinity.forget(engineWorker);
+        return engineWorker;
+    }
+
+    public void returnEngine(ChessEngine engineWorker) {
+        this.positionAffinity.forget(engineWorker);
+        returnObject(engineWorker);
+    }
+
+    public void invalidateEngine(ChessEngine engineWorker,
+                                 Throwable reason) throws Exception {
+        this.engineMetrics.recordInvalidation(reason);
+        this.positionAffinity.remove(engineWorker);
+        String profile = profileOf(engineWorker);
+        try {
+            this.pool.invalidateObject(profile, engineWorker);
+        } finally {
+            releaseSlot(profile);
+        }
+        this.replacementExecutor.execute(() -> replaceEngine(profile));
+    }
+
+    /**
+     * Resolves the profile asked for by a request, the default one when
+     * none is given.
+     */
+    public String checkProfile(String profile) {
+        if (Objects.isNull(profile) || profile.equals(EngineProfile.DEFAULT)) {
+            return EngineProfile.DEFAULT;
+        }
+        if (!this.profiles.containsKey(profile)) {
+            throw new InvalidSyntaxException(new IllegalArgumentException(
+                    "Unknown engine profile: " + profile));
+        }
+        return profile;
     }
 
-    public <T> T queueAction(Function<ChessEngine, T> action) throws Exception {
-        ChessEngine engineWorker = borrowObject();
+    /**
+     * Gives back an engine whose action failed. After a request error the
+     * engine is reset to the start position and returned; only engine
+     * failures, or a failing reset, destroy it.
+     */
+    public void recoverEngine(ChessEngine engineWorker,
+                              Throwable reason) throws Exception {
+        if (EngineFailures.isEngineFailure(reason)) {
+            invalidateEngine(engineWorker, reason);
+            return;
+        }
         try {
-            T result = action.apply(engineWorker);
-            this.pool.returnObject(engineWorker);
-            return result;
+            engineWorker.moveToStartPosition(true);
+        } catch (IOException | TimeoutException e) {
+            invalidateEngine(engineWorker, e);
+            return;
+        }
+        this.engineMetrics.recordReset(reason);
+        returnEngine(engineWorker);
+    }
+
+    /**
+     * Whether the minimum idle engines have been started and warmed up, or
+     * at least as many engines are running after a failed start.
+     */
+    public boolean isWarm() {
+        if (!this.prewarm.isDone()) {
+            return false;
+        }
+        return !this.prewarm.isCompletedExceptionally()
+                || this.pool.getNumActive() + this.pool.getNumIdle() >= this.prewarmTarget;
+    }
+
+    public PoolStatistics getStatistics() {
+        LaneScheduler scheduler = this.executor instanceof LaneScheduler ?
+                (LaneScheduler) this.executor : null;
+        return PoolStatistics.builder()
+                .capacity(this.pool.getMaxTotal())
+                .active(this.pool.getNumActive())
+                .idle(this.pool.getNumIdle())
+                .queued(this.pool.getNumWaiters() + (Objects.isNull(scheduler) ?
+                        0 : scheduler.getQueuedCount()))
+                .meanWaitInMs(this.pool.getMeanBorrowWaitTimeMillis()
+                        + (Objects.isNull(scheduler) ? 0 :
+                        scheduler.getMeanWaitInMs()))
+                .build();
+    }
+
+    public void resize(int capacity, int spareEngines) {
+        this.pool.setMaxTotal(capacity);
+        this.pool.setMaxTotalPerKey(capacity);
+        this.pool.setMaxIdlePerKey(capacity);
+        this.defaultMinIdle = Math.min(spareEngines, capacity);
+        if (this.executor instanceof LaneScheduler) {
+            ((LaneScheduler) this.executor).setCapacity(capacity);
+        }
+    }
+
+    public void addSpareEngines(int spareEngines) throws Exception {
+        while (this.pool.getNumIdle() < spareEngines && hasRoom()) {
+            this.pool.addObject(EngineProfile.DEFAULT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (this.executor instanceof LaneScheduler) {
+            ((LaneScheduler) this.executor).shutdown();
+        }
+        if (this.replacementExecutor instanceof ExecutorService) {
+            ((ExecutorService) this.replacementExecutor).shutdownNow();
+        }
+        this.pool.close();
+    }
+
+    /**
+     * Starts and warms up the minimum idle engines of every profile in the
+     * background, several at a time, as long as there is room left so that
+     * a profile never takes capacity from another one just to stay warm.
+     * Engines are held until all are warm, so that each borrow starts a new
+     * one rather than picking up an engine already warmed.
+     */
+    private CompletableFuture<Void> prewarm(int parallelism) {
+        Map<String, Integer> minIdle = new HashMap<>();
+        this.profiles.forEach((name, profile) -> minIdle.put(name,
+                profile.getMinIdle()));
+        minIdle.put(EngineProfile.DEFAULT, this.defaultMinIdle);
+        List<String> engines = new ArrayList<>();
+        int room = this.pool.getMaxTotal();
+        for (Map.Entry<String, Integer> entry : minIdle.entrySet()) {
+            for (int i = 0; i < entry.getValue() && engines.size() < room; i++) {
+                engines.add(entry.getKey());
+            }
+        }
+        this.prewarmTarget = engines.size();
+        if (engines.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ExecutorService prewarmExecutor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, engines.size())), runnable -> {
+                    Thread thread = new Thread(runnable, "engine-prewarm");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Map<ChessEngine, String> warmEngines = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] futures = engines.stream()
+                .map(profile -> CompletableFuture.runAsync(() -> {
+                    try {
+                        warmUp(profile, warmEngines);
+                    } catch (Exception e) {
+                        throw new ChessEngineWorkerExecutionException(e);
+                    }
+                }, prewarmExecutor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures)
+                .whenComplete((ignored, error) -> {
+                    prewarmExecutor.shutdown();
+                    warmEngines.forEach((engineWorker, profile) ->
+                            this.pool.returnObject(profile, engineWorker));
+                });
+    }
+
+    private void warmUp(String profile,
+                        Map<ChessEngine, String> warmEngines) throws Exception {
+        ChessEngine engineWorker = this.pool.borrowObject(profile);
+        try {
+            this.chessEngineFactory.warmUp(engineWorker);
         } catch (Exception e) {
-            this.pool.invalidateObject(engineWorker);
+            this.pool.invalidateObject(profile, engineWorker);
             throw e;
         }
+        warmEngines.put(engineWorker, profile);
+    }
+
+    /**
+     * Starts a process in place of a destroyed one, off the request path,
+     * so the pool does not stay short until the next eviction run.
+     */
+    private void replaceEngine(String profile) {
+        if (this.pool.isClosed() || !hasRoom()) {
+            return;
+        }
+        try {
+            this.pool.addObject(profile);
+        } catch (Exception e) {
+            // the next borrow starts an engine on demand
+        }
+    }
+
+    private boolean hasRoom() {
+        return this.pool.getNumActive() + this.pool.getNumIdle() < this.pool.getMaxTotal();
+    }
+
+    /**
+     * Idle engines are stopped after the evictable idle duration, except
+     * for the minimum idle count of their profile. The idle duration runs
+     * from the last use of the engine, as engines looked at by affinity
+     * routing are put back to the pool without being used.
+     */
+    private boolean isEvictable(EvictionConfig config,
+                                PooledObject<ChessEngine> underTest,
+                                int idleCount) {
+        ChessEngine engineWorker = underTest.getObject();
+        String profile = profileOf(engineWorker);
+        int minIdle = profile.equals(EngineProfile.DEFAULT) ?
+                this.defaultMinIdle : this.profiles.get(profile).getMinIdle();
+        Duration idleDuration = this.positionAffinity
+                .getIdleDuration(engineWorker)
+                .orElse(underTest.getIdleDuration());
+        boolean evictable =
+                idleDuration.compareTo(config.getIdleSoftEvictDuration()) > 0
+                        && idleCount > minIdle;
+        if (evictable) {
+            this.positionAffinity.remove(engineWorker);
+        }
+        return evictable;
+    }
+
+    protected <T> T runAction(Function<ChessEngine, T> action) throws Exception {
+        ChessEngine engineWorker = borrowObject(EngineProfile.DEFAULT);
+        T result;
+        try {
+            result = action.apply(engineWorker);
+        } catch (Exception e) {
+            recoverAfter(engineWorker, e);
+            throw e;
+        }
+        returnObject(engineWorker);
+        return result;
+    }
+
+    protected <T> T runAction(String profile, EnginePosition enginePosition,
+                              Function<ChessEngine, T> action) throws Exception {
+        Lease lease = borrowFor(profile, enginePosition.getPosition());
+        ChessEngine engineWorker = lease.getEngine();
+        T result;
+        try {
+            moveTo(engineWorker, enginePosition, lease.getMoves());
+            result = action.apply(engineWorker);
+        } catch (Exception e) {
+            recoverAfter(engineWorker, e);
+            throw e;
+        }
+        this.positionAffinity.record(engineWorker, enginePosition.getPosition());
+        returnObject(engineWorker);
+        return result;
+    }
+
+    /**
+     * Recovers the engine after a failed action without hiding the failure:
+     * a recovery error is attached to it as suppressed.
+     */
+    private void recoverAfter(ChessEngine engineWorker, Exception failure) {
+        try {
+            recoverEngine(engineWorker, failure);
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private Lease borrowFor(String profile, Position target) throws Exception {
+        if (!this.positionAffinity.isEnabled()) {
+            return new Lease(borrowObject(profile), Optional.empty());
+        }
+        long start = System.nanoTime();
+        Optional<ChessEngine> candidate = this.positionAffinity.findIdle(target,
+                engineWorker -> profileOf(engineWorker).equals(profile));
+        Lease lease = candidate.isPresent() ?
+                borrowCandidate(profile, candidate.get(), target) : null;
+        if (Objects.isNull(lease)) {
+            lease = new Lease(borrowObject(profile), Optional.empty());
+        } else {
+            this.engineMetrics.recordBorrowWait(System.nanoTime() - start,
+                    true);
+        }
+        this.positionAffinity.recordOutcome(lease.getMoves());
+        return lease;
+    }
+
+    /**
+     * Borrows idle engines of the profile until the candidate comes up.
+     * Engines borrowed on the way are put back unused, unless one was just
+     * started because the idle ones ran out; it is then used instead.
+     * Returns null when the candidate was taken meanwhile.
+     */
+    private Lease borrowCandidate(String profile, ChessEngine candidate,
+                                  Position target) throws Exception {
+        List<ChessEngine> skipped = new ArrayList<>();
+        try {
+            while (this.pool.getNumIdle(profile) > 0) {
+                ChessEngine engineWorker = borrowIdle(profile);
+                if (Objects.isNull(engineWorker)) {
+                    return null;
+                }
+                if (engineWorker == candidate) {
+                    this.positionAffinity.taken(engineWorker);
+                    return new Lease(engineWorker,
+                            this.positionAffinity.movesTo(engineWorker, target));
+                }
+                if (!this.positionAffinity.isIdle(engineWorker)) {
+                    this.positionAffinity.taken(engineWorker);
+                    return new Lease(engineWorker, Optional.empty());
+                }
+                skipped.add(engineWorker);
+            }
+            return null;
+        } finally {
+            skipped.forEach(this::putBack);
+        }
+    }
+
+    private static void moveTo(ChessEngine engineWorker,
+                               EnginePosition enginePosition,
+                               Optional<List<String>> moves) throws Exception {
+        try {
+            if (moves.isPresent()) {
+                if (!moves.get().isEmpty()) {
+                    engineWorker.move(moves.get());
+                }
+            } else if (Objects.isNull(enginePosition.getFen())) {
+                engineWorker.moveToStartPosition(true);
+            } else {
+                engineWorker.moveToFenPosition(enginePosition.getFen(), true);
+            }
+        } catch (InvalidFenPositionException e) {
+            throw new InvalidMoveException(e);
+        } catch (IOException | TimeoutException e) {
+            throw new ChessEngineWorkerExecutionException(e);
+        }
+    }
+
+    protected ChessEngine borrowObject(String profile) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ChessEngine engineWorker;
+            if (this.maxBorrowWait.isZero()) {
+                acquireSlot(profile);
+                engineWorker = borrowSlotted(profile, -1);
+            } else {
+                long remainingInMs = this.maxBorrowWait.toMillis() - tryAcquireSlot(profile);
+                engineWorker = borrowSlotted(profile, Math.max(0, remainingInMs));
+            }
+            this.positionAffinity.taken(engineWorker);
+            success = true;
+            return engineWorker;
+        } catch (NoSuchElementException e) {
+            if (this.maxBorrowWait.isZero()) {
+                throw e;
+            }
+            throw new EngineUnavailableException(
+                    "No engine available within " + this.maxBorrowWait.toMillis() + " ms",
+                    this.retryAfterInSeconds);
+        } finally {
+            this.engineMetrics.recordBorrowWait(System.nanoTime() - start,
+                    success);
+        }
+    }
+
+    /**
+     * Borrows an idle engine of the profile without waiting, or returns
+     * null when there is none or the profile is at its maximum.
+     */
+    private ChessEngine borrowIdle(String profile) throws Exception {
+        Semaphore slots = this.profileSlots.get(profile);
+        if (Objects.nonNull(slots) && !slots.tryAcquire()) {
+            return null;
+        }
+        try {
+            return borrowSlotted(profile, 0);
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private ChessEngine borrowSlotted(String profile,
+                                      long maxWaitInMs) throws Exception {
+        try {
+            return maxWaitInMs < 0 ? this.pool.borrowObject(profile) :
+                    this.pool.borrowObject(profile, maxWaitInMs);
+        } catch (Exception e) {
+            releaseSlot(profile);
+            throw e;
+        }
+    }
+
+    private void acquireSlot(String profile) throws InterruptedException {
+        Semaphore slots = this.profileSlots.get(profile);
+        if (Objects.nonNull(slots)) {
+            slots.acquire();
+        }
+    }
+
+    /**
+     * Waits for a slot of the profile within the maximum borrow wait and
+     * returns the time spent waiting.
+     */
+    private long tryAcquireSlot(String profile) throws InterruptedException {
+        Semaphore slots = this.profileSlots.get(profile);
+        if (Objects.isNull(slots)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        if (!slots.tryAcquire(this.maxBorrowWait.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new NoSuchElementException("Engine profile " + profile
+                    + " is at its maximum");
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private void releaseSlot(String profile) {
+        Semaphore slots = this.profileSlots.get(profile);
+        if (Objects.nonNull(slots)) {
+            slots.release();
+        }
+    }
+
+    private void returnObject(ChessEngine engineWorker) {
+        this.positionAffinity.released(engineWorker);
+        putBack(engineWorker);
+    }
+
+    private void putBack(ChessEngine engineWorker) {
+        String profile = profileOf(engineWorker);
+        try {
+            this.pool.returnObject(profile, engineWorker);
+        } finally {
+            releaseSlot(profile);
+        }
+    }
+
+    private String profileOf(ChessEngine engineWorker) {
+        return Objects.isNull(this.chessEngineFactory) ? EngineProfile.DEFAULT :
+                this.chessEngineFactory.getProfile(engineWorker);
     }
 
-    protected ChessEngine borrowObject() throws Exception {
-        return this.pool.borrowObject();
+    @Value
+    private static class Lease {
+        ChessEngine engine;
+        Optional<List<String>> moves;
     }
 }
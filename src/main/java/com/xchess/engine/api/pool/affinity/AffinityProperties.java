@@ -0,0 +1,15 @@
+package com.xchess.engine.api.pool.affinity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pool.affinity")
+public class AffinityProperties {
+    private boolean enabled = true;
+    private int maxPlies = 2;
+}
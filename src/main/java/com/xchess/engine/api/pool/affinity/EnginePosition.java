@@ -0,0 +1,14 @@
+package com.xchess.engine.api.pool.affinity;
+
+import com.xchess.engine.api.board.Position;
+import lombok.Value;
+
+/**
+ * Position an engine task needs, with the FEN as the client sent it
+ * ({@code null} for the start position).
+ */
+@Value
+public class EnginePosition {
+    String fen;
+    Position position;
+}
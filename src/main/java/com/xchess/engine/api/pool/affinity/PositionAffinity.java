@@ -0,0 +1,192 @@
+package com.xchess.engine.api.pool.affinity;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.Move;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Remembers the last position each engine searched. A requested position
+ * that is the same, or reachable in a few plies, can be set up on that
+ * engine by playing the missing moves instead of resetting it, which keeps
+ * its hash table warm.
+ * <p>
+ * It also knows which engines are idle and since when, so that a matching
+ * engine is picked without borrowing the others, and engines only looked
+ * at still age towards eviction.
+ */
+@Component
+public class PositionAffinity {
+    private final AffinityProperties properties;
+    private final Map<ChessEngine, Position> lastPositions =
+            new IdentityHashMap<>();
+    private final Map<ChessEngine, Long> idleSince = new IdentityHashMap<>();
+    private final LongSupplier nanoClock;
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong descendantHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public PositionAffinity(AffinityProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    PositionAffinity(AffinityProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean isEnabled() {
+        return this.properties.isEnabled();
+    }
+
+    /**
+     * Moves leading from the last position of the engine to the target: an
+     * empty list when it is already there, nothing when it has to be reset.
+     */
+    public Optional<List<String>> movesTo(ChessEngine engineWorker,
+                                          Position target) {
+        Position last;
+        synchronized (this.lastPositions) {
+            last = this.lastPositions.get(engineWorker);
+        }
+        if (!this.properties.isEnabled() || Objects.isNull(last)) {
+            return Optional.empty();
+        }
+        List<String> moves = new ArrayList<>();
+        if (search(last, target, this.properties.getMaxPlies(), moves)) {
+            Collections.reverse(moves);
+            return Optional.of(moves);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * An idle engine, accepted by the filter, that can be moved to the
+     * target.
+     */
+    public Optional<ChessEngine> findIdle(Position target,
+                                          Predicate<ChessEngine> filter) {
+        List<ChessEngine> idle;
+        synchronized (this.lastPositions) {
+            idle = new ArrayList<>(this.idleSince.keySet());
+        }
+        for (ChessEngine engineWorker : idle) {
+            if (filter.test(engineWorker)
+                    && movesTo(engineWorker, target).isPresent()) {
+                return Optional.of(engineWorker);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void released(ChessEngine engineWorker) {
+        synchronized (this.lastPositions) {
+            this.idleSince.put(engineWorker, this.nanoClock.getAsLong());
+        }
+    }
+
+    public void taken(ChessEngine engineWorker) {
+        synchronized (this.lastPositions) {
+            this.idleSince.remove(engineWorker);
+        }
+    }
+
+    public boolean isIdle(ChessEngine engineWorker) {
+        synchronized (this.lastPositions) {
+            return this.idleSince.containsKey(engineWorker);
+        }
+    }
+
+    /**
+     * Time since the engine was last given back after use, when known.
+     */
+    public Optional<Duration> getIdleDuration(ChessEngine engineWorker) {
+        Long since;
+        synchronized (this.lastPositions) {
+            since = this.idleSince.get(engineWorker);
+        }
+        return Objects.isNull(since) ? Optional.empty() :
+                Optional.of(Duration.ofNanos(this.nanoClock.getAsLong() - since));
+    }
+
+    public void record(ChessEngine engineWorker, Position position) {
+        synchronized (this.lastPositions) {
+            this.lastPositions.put(engineWorker, position);
+        }
+    }
+
+    public void forget(ChessEngine engineWorker) {
+        synchronized (this.lastPositions) {
+            this.lastPositions.remove(engineWorker);
+        }
+    }
+
+    public void remove(ChessEngine engineWorker) {
+        synchronized (this.lastPositions) {
+            this.lastPositions.remove(engineWorker);
+            this.idleSince.remove(engineWorker);
+        }
+    }
+
+    public void recordOutcome(Optional<List<String>> moves) {
+        if (!moves.isPresent()) {
+            this.misses.incrementAndGet();
+        } else if (moves.get().isEmpty()) {
+            this.exactHits.incrementAndGet();
+        } else {
+            this.descendantHits.incrementAndGet();
+        }
+    }
+
+    public long getExactHitCount() {
+        return this.exactHits.get();
+    }
+
+    public long getDescendantHitCount() {
+        return this.descendantHits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    public double getHitRate() {
+        long hits = this.exactHits.get() + this.descendantHits.get();
+        long total = hits + this.misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static boolean search(Position from, Position target, int plies,
+                                  List<String> moves) {
+        if (from.isSamePosition(target)) {
+            return true;
+        }
+        // A ply changes at most four squares (castling) and never adds material.
+        if (plies == 0 || from.getPieceCount() < target.getPieceCount()
+                || Long.bitCount(from.getOccupancy() ^ target.getOccupancy()) > 4 * plies) {
+            return false;
+        }
+        for (int move : MoveGenerator.legalMoves(from)) {
+            if (search(from.play(move), target, plies - 1, moves)) {
+                moves.add(Move.toUci(move));
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.xchess.engine.api.pool.autoscaling;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pool.autoscaling")
+public class AutoscalingProperties {
+    private boolean enabled;
+    private int minTotal = 1;
+    private int maxTotal = 1;
+    private int spareEngines = 1;
+    private int intervalInMs = 1000;
+    private int targetWaitInMs = 200;
+    private double maxLoadPerCore = 1.0;
+    private int scaleDownDelayInMs = 60000;
+}
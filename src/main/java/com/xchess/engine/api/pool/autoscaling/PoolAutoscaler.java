@@ -0,0 +1,112 @@
+package com.xchess.engine.api.pool.autoscaling;
+
+import com.xchess.engine.api.pool.PoolStatistics;
+import com.xchess.engine.api.pool.PoolWrapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Periodically resizes the engine pool from the observed queue depth, wait
+ * time and host load. Capacity grows as soon as demand plus the spare
+ * engines exceeds it, and shrinks one engine at a time once demand has
+ * stayed lower for the scale-down delay. Spare engines are started from the
+ * autoscaler thread so requests never pay the engine start-up latency.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pool.autoscaling", name = "enabled",
+        havingValue = "true")
+public class PoolAutoscaler {
+    private final PoolWrapper poolWrapper;
+    private final AutoscalingProperties properties;
+    private final DoubleSupplier loadPerCore;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+    private long lastNeededAt;
+
+    @Autowired
+    public PoolAutoscaler(PoolWrapper poolWrapper,
+                          AutoscalingProperties properties) {
+        this(poolWrapper, properties, PoolAutoscaler::systemLoadPerCore,
+                System::currentTimeMillis);
+        this.scheduler.scheduleWithFixedDelay(this::tick, 0,
+                properties.getIntervalInMs(), TimeUnit.MILLISECONDS);
+    }
+
+    PoolAutoscaler(PoolWrapper poolWrapper, AutoscalingProperties properties,
+                   DoubleSupplier loadPerCore, LongSupplier clock) {
+        this.poolWrapper = poolWrapper;
+        this.properties = properties;
+        this.loadPerCore = loadPerCore;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-autoscaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastNeededAt = clock.getAsLong();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+
+    void tick() {
+        try {
+            PoolStatistics statistics = this.poolWrapper.getStatistics();
+            int capacity = nextCapacity(statistics);
+            if (capacity != statistics.getCapacity()) {
+                this.poolWrapper.resize(capacity,
+                        this.properties.getSpareEngines());
+            }
+            this.poolWrapper.addSpareEngines(this.properties.getSpareEngines());
+        } catch (Exception e) {
+            // Engine start-up failures surface on the next borrow; keep ticking.
+        }
+    }
+
+    int nextCapacity(PoolStatistics statistics) {
+        long now = this.clock.getAsLong();
+        int capacity = statistics.getCapacity();
+        int desired = statistics.getActive() + statistics.getQueued()
+                + this.properties.getSpareEngines();
+        // The mean wait lags behind demand, so it only counts while
+        // requests are actually waiting.
+        if (statistics.getQueued() > 0
+                && statistics.getMeanWaitInMs() > this.properties.getTargetWaitInMs()) {
+            desired = Math.max(desired, capacity + 1);
+        }
+        double load = this.loadPerCore.getAsDouble();
+        if (load >= 0 && load > this.properties.getMaxLoadPerCore()) {
+            desired = Math.min(desired, capacity);
+        }
+        desired = Math.max(this.properties.getMinTotal(),
+                Math.min(this.properties.getMaxTotal(), desired));
+
+        if (desired >= capacity) {
+            this.lastNeededAt = now;
+            return desired;
+        }
+        if (now - this.lastNeededAt < this.properties.getScaleDownDelayInMs()) {
+            return capacity;
+        }
+        this.lastNeededAt = now;
+        return capacity - 1;
+    }
+
+    private static double systemLoadPerCore() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        double load = bean.getSystemLoadAverage();
+        return load < 0 ? load : load / bean.getAvailableProcessors();
+    }
+}
@@ -0,0 +1,127 @@
+package com.xchess.engine.api.pool.placement;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Cores Linux lets this process run on: the CPU affinity mask, cut down to
+ * the number of cores granted by the cgroup CPU quota when there is one.
+ */
+public final class CpuTopology {
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+    private CpuTopology() {
+    }
+
+    public static List<Integer> availableCores(Path procStatus,
+                                               Path cgroupRoot) {
+        List<Integer> cores = allowedCores(procStatus);
+        OptionalInt quota = cgroupQuota(cgroupRoot);
+        if (quota.isPresent() && quota.getAsInt() < cores.size()) {
+            return new ArrayList<>(cores.subList(0, quota.getAsInt()));
+        }
+        return cores;
+    }
+
+    /**
+     * Parses a kernel CPU list such as {@code 0-3,8,10-11}.
+     */
+    public static List<Integer> parseCpuList(String cpuList) {
+        List<Integer> cores = new ArrayList<>();
+        for (String range : cpuList.trim().split(",")) {
+            if (range.isEmpty()) {
+                continue;
+            }
+            int dash = range.indexOf('-');
+            int first = Integer.parseInt(range.substring(0, dash < 0 ?
+                    range.length() : dash).trim());
+            int last = dash < 0 ? first :
+                    Integer.parseInt(range.substring(dash + 1).trim());
+            for (int core = first; core <= last; core++) {
+                cores.add(core);
+            }
+        }
+        return cores;
+    }
+
+    public static String toCpuList(List<Integer> cores) {
+        StringBuilder cpuList = new StringBuilder();
+        int i = 0;
+        while (i < cores.size()) {
+            int j = i;
+            while (j + 1 < cores.size() && cores.get(j + 1) == cores.get(j) + 1) {
+                j++;
+            }
+            if (cpuList.length() > 0) {
+                cpuList.append(',');
+            }
+            cpuList.append(cores.get(i));
+            if (j > i) {
+                cpuList.append('-').append(cores.get(j));
+            }
+            i = j + 1;
+        }
+        return cpuList.toString();
+    }
+
+    /**
+     * Whole cores granted by a CFS quota, rounded up; empty when the quota
+     * is unlimited or unknown.
+     */
+    public static OptionalInt parseQuota(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) Math.max(1, (quota + period - 1) / period));
+    }
+
+    private static List<Integer> allowedCores(Path procStatus) {
+        try {
+            for (String line : Files.readAllLines(procStatus, StandardCharsets.UTF_8)) {
+                if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                    return parseCpuList(line.substring(CPUS_ALLOWED_LIST.length()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux, or an unexpected format: every processor is allowed
+        }
+        List<Integer> cores = new ArrayList<>();
+        for (int core = 0; core < Runtime.getRuntime().availableProcessors(); core++) {
+            cores.add(core);
+        }
+        return cores;
+    }
+
+    private static OptionalInt cgroupQuota(Path cgroupRoot) {
+        try {
+            Path cpuMax = cgroupRoot.resolve("cpu.max");
+            if (Files.exists(cpuMax)) {
+                String[] fields = new String(Files.readAllBytes(cpuMax),
+                        StandardCharsets.UTF_8).trim().split("\\s+");
+                if (fields[0].equals("max")) {
+                    return OptionalInt.empty();
+                }
+                return parseQuota(Long.parseLong(fields[0]),
+                        Long.parseLong(fields[1]));
+            }
+            Path quota = cgroupRoot.resolve("cpu").resolve("cpu.cfs_quota_us");
+            Path period = cgroupRoot.resolve("cpu").resolve("cpu.cfs_period_us");
+            if (Files.exists(quota) && Files.exists(period)) {
+                return parseQuota(readLong(quota), readLong(period));
+            }
+        } catch (IOException | RuntimeException e) {
+            // an unreadable quota is treated as no quota
+        }
+        return OptionalInt.empty();
+    }
+
+    private static long readLong(Path path) throws IOException {
+        return Long.parseLong(new String(Files.readAllBytes(path),
+                StandardCharsets.UTF_8).trim());
+    }
+}
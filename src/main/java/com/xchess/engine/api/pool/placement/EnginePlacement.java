@@ -0,0 +1,123 @@
+package com.xchess.engine.api.pool.placement;
+
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.engine.api.pool.autoscaling.AutoscalingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the available cores into one core set per pool slot, after
+ * setting aside the reserved cores for the JVM and request handling. Each
+ * engine is started on the least used core set.
+ */
+@Component
+public class EnginePlacement {
+    private final PlacementProperties properties;
+    private final List<List<Integer>> coreSets;
+    private final int[] engineCounts;
+
+    @Autowired
+    public EnginePlacement(PlacementProperties properties,
+                           PoolProperties poolProperties,
+                           AutoscalingProperties autoscalingProperties) {
+        this(properties, properties.isEnabled() ?
+                CpuTopology.availableCores(Paths.get(properties.getProcStatusPath()),
+                        Paths.get(properties.getCgroupPath())) :
+                Collections.emptyList(),
+                maxEngines(poolProperties, autoscalingProperties));
+    }
+
+    EnginePlacement(PlacementProperties properties, List<Integer> cores,
+                    int slots) {
+        this.properties = properties;
+        this.coreSets = properties.isEnabled() ?
+                divide(cores, properties.getReservedCores(), slots) :
+                Collections.emptyList();
+        this.engineCounts = new int[this.coreSets.size()];
+    }
+
+    public boolean isEnabled() {
+        return !this.coreSets.isEmpty();
+    }
+
+    public List<List<Integer>> getCoreSets() {
+        return Collections.unmodifiableList(this.coreSets);
+    }
+
+    public synchronized int acquire() {
+        int slot = 0;
+        for (int i = 1; i < this.engineCounts.length; i++) {
+            if (this.engineCounts[i] < this.engineCounts[slot]) {
+                slot = i;
+            }
+        }
+        this.engineCounts[slot]++;
+        return slot;
+    }
+
+    public synchronized void release(int slot) {
+        this.engineCounts[slot]--;
+    }
+
+    public List<Integer> getCores(int slot) {
+        return this.coreSets.get(slot);
+    }
+
+    public String getPinCommand(int slot) {
+        return this.properties.getPinCommand() + " "
+                + CpuTopology.toCpuList(getCores(slot));
+    }
+
+    public int getHashInMb(int slot) {
+        return getCores(slot).size() * this.properties.getHashPerCoreInMb();
+    }
+
+    /**
+     * Most engines the pool may run at once: the autoscaler grows it beyond
+     * the configured size, up to its own maximum.
+     */
+    static int maxEngines(PoolProperties poolProperties,
+                          AutoscalingProperties autoscalingProperties) {
+        if (!autoscalingProperties.isEnabled()) {
+            return poolProperties.getMaxTotal();
+        }
+        return Math.max(poolProperties.getMaxTotal(),
+                autoscalingProperties.getMaxTotal());
+    }
+
+    /**
+     * Cores left over after an even split go to the first slots; with
+     * fewer cores than slots, slots share single cores round-robin. At
+     * least one core is always left for the engines.
+     */
+    static List<List<Integer>> divide(List<Integer> cores, int reservedCores,
+                                      int slots) {
+        if (cores.isEmpty() || slots <= 0) {
+            return Collections.emptyList();
+        }
+        int reserved = Math.max(0, Math.min(reservedCores, cores.size() - 1));
+        List<Integer> engineCores = cores.subList(reserved, cores.size());
+        List<List<Integer>> coreSets = new ArrayList<>();
+        if (engineCores.size() < slots) {
+            for (int slot = 0; slot < slots; slot++) {
+                coreSets.add(Collections.singletonList(
+                        engineCores.get(slot % engineCores.size())));
+            }
+            return coreSets;
+        }
+        int perSlot = engineCores.size() / slots;
+        int extra = engineCores.size() % slots;
+        int start = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int end = start + perSlot + (slot < extra ? 1 : 0);
+            coreSets.add(new ArrayList<>(engineCores.subList(start, end)));
+            start = end;
+        }
+        return coreSets;
+    }
+}
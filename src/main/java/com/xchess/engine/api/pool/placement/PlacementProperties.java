@@ -0,0 +1,19 @@
+package com.xchess.engine.api.pool.placement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pool.placement")
+public class PlacementProperties {
+    private boolean enabled;
+    private int reservedCores = 2;
+    private int hashPerCoreInMb = 16;
+    private String pinCommand = "taskset -c";
+    private String procStatusPath = "/proc/self/status";
+    private String cgroupPath = "/sys/fs/cgroup";
+}
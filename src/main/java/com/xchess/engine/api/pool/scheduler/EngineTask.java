@@ -0,0 +1,9 @@
+package com.xchess.engine.api.pool.scheduler;
+
+public enum EngineTask {
+    ENGINE_VERSION,
+    BEST_MOVE,
+    POSITION_EVALUATION,
+    PROGRESSIVE_EVALUATION,
+    GAME_ANALYSIS
+}
@@ -0,0 +1,7 @@
+package com.xchess.engine.api.pool.scheduler;
+
+public enum Lane {
+    FAST,
+    STANDARD,
+    DEEP
+}
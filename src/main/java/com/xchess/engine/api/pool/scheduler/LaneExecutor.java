@@ -0,0 +1,6 @@
+package com.xchess.engine.api.pool.scheduler;
+
+@FunctionalInterface
+public interface LaneExecutor {
+    void execute(Lane lane, Runnable task);
+}
@@ -0,0 +1,242 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dispatches engine tasks to a fixed set of workers from one queue per lane.
+ * Workers pick the next lane by stride scheduling over the configured
+ * shares, so a backlog of deep searches cannot hold back short tasks. The
+ * deep lane never occupies the reserved workers, which keeps an engine free
+ * for short tasks while every other engine is busy with a long search.
+ * The number of tasks running at once follows the pool capacity, which the
+ * autoscaler may change at runtime.
+ */
+public class LaneScheduler implements LaneExecutor {
+    private static final long STRIDE = 1L << 20;
+    private static final double WAIT_SMOOTHING = 0.2;
+    private static final Lane[] LANES = Lane.values();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+    private final List<Deque<QueuedTask>> queues = new ArrayList<>();
+    private final long[] strides = new long[LANES.length];
+    private final long[] passes = new long[LANES.length];
+    private final int[] maxActive = new int[LANES.length];
+    private final int[] active = new int[LANES.length];
+    private final List<Thread> workers = new ArrayList<>();
+    private final int maxQueueLength;
+    private final int reservedWorkers;
+    private int capacity;
+    private int totalActive;
+    private int queued;
+    private long virtualTime;
+    private double meanWaitInMs;
+    private boolean shutdown;
+
+    public LaneScheduler(int capacity, int maxQueueLength,
+                         SchedulerProperties properties) {
+        this.maxQueueLength = maxQueueLength;
+        this.reservedWorkers = properties.getReservedWorkers();
+        for (Lane lane : LANES) {
+            this.queues.add(new ArrayDeque<>());
+            this.strides[lane.ordinal()] =
+                    STRIDE / Math.max(1, properties.getShare(lane));
+        }
+        setCapacity(capacity);
+    }
+
+    public void setCapacity(int capacity) {
+        this.lock.lock();
+        try {
+            this.capacity = Math.max(1, capacity);
+            for (Lane lane : LANES) {
+                this.maxActive[lane.ordinal()] = lane == Lane.DEEP ?
+                        Math.max(1, this.capacity - this.reservedWorkers) :
+                        this.capacity;
+            }
+            // Workers are only ever added; surplus ones stay parked.
+            while (this.workers.size() < this.capacity && !this.shutdown) {
+                Thread worker = new Thread(this::work,
+                        "engine-worker-" + this.workers.size());
+                worker.setDaemon(true);
+                this.workers.add(worker);
+                worker.start();
+            }
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void execute(Lane lane, Runnable task) {
+        this.lock.lock();
+        try {
+            if (this.shutdown) {
+                throw new RejectedExecutionException("Scheduler is shut down");
+            }
+            if (this.queued >= this.maxQueueLength) {
+                throw new RejectedExecutionException("Engine wait queue is full");
+            }
+            int index = lane.ordinal();
+            Deque<QueuedTask> queue = this.queues.get(index);
+            if (queue.isEmpty()) {
+                // An idle lane must not bank credit while it has nothing to run.
+                this.passes[index] = Math.max(this.passes[index],
+                        this.virtualTime);
+            }
+            queue.addLast(new QueuedTask(task, System.nanoTime()));
+            this.queued++;
+            this.available.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        this.lock.lock();
+        try {
+            this.shutdown = true;
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        this.lock.lock();
+        try {
+            this.workers.forEach(Thread::interrupt);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        this.lock.lock();
+        try {
+            return this.capacity;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        this.lock.lock();
+        try {
+            return this.queued;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public double getMeanWaitInMs() {
+        this.lock.lock();
+        try {
+            return this.meanWaitInMs;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getQueuedCount(Lane lane) {
+        this.lock.lock();
+        try {
+            return this.queues.get(lane.ordinal()).size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getActiveCount(Lane lane) {
+        this.lock.lock();
+        try {
+            return this.active[lane.ordinal()];
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void work() {
+        Assignment assignment;
+        while ((assignment = take()) != null) {
+            try {
+                assignment.getTask().run();
+            } finally {
+                release(assignment.getLane());
+            }
+        }
+    }
+
+    private Assignment take() {
+        this.lock.lock();
+        try {
+            while (!this.shutdown) {
+                int index = nextLane();
+                if (index >= 0) {
+                    QueuedTask queuedTask = this.queues.get(index).pollFirst();
+                    this.queued--;
+                    this.active[index]++;
+                    this.totalActive++;
+                    double waitInMs = (System.nanoTime()
+                            - queuedTask.getEnqueuedAt()) / 1_000_000.0;
+                    this.meanWaitInMs += WAIT_SMOOTHING
+                            * (waitInMs - this.meanWaitInMs);
+                    this.virtualTime = this.passes[index];
+                    this.passes[index] += this.strides[index];
+                    return new Assignment(index, queuedTask.getTask());
+                }
+                this.available.await();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void release(int index) {
+        this.lock.lock();
+        try {
+            this.active[index]--;
+            this.totalActive--;
+            this.available.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private int nextLane() {
+        if (this.totalActive >= this.capacity) {
+            return -1;
+        }
+        int next = -1;
+        for (int index = 0; index < LANES.length; index++) {
+            if (!this.queues.get(index).isEmpty()
+                    && this.active[index] < this.maxActive[index]
+                    && (next < 0 || this.passes[index] < this.passes[next])) {
+                next = index;
+            }
+        }
+        return next;
+    }
+
+    @Value
+    private static class QueuedTask {
+        Runnable task;
+        long enqueuedAt;
+    }
+
+    @Value
+    private static class Assignment {
+        int lane;
+        Runnable task;
+    }
+}
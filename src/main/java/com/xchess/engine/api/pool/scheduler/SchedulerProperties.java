@@ -0,0 +1,35 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pool.scheduler")
+public class SchedulerProperties {
+    private int fastShare = 4;
+    private int standardShare = 2;
+    private int deepShare = 1;
+    private int reservedWorkers = 1;
+    private long fastMaxCostInMs = 100;
+    private long standardMaxCostInMs = 5000;
+    private long maxCostPerRequestInMs = Long.MAX_VALUE;
+    private long engineVersionCostInMs = 1;
+    private long depthBaseCostInMs = 1;
+    private double depthCostGrowth = 1.5;
+    private long unboundedSearchCostInMs = 30000;
+
+    public int getShare(Lane lane) {
+        switch (lane) {
+            case FAST:
+                return this.fastShare;
+            case STANDARD:
+                return this.standardShare;
+            default:
+                return this.deepShare;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import lombok.Value;
+
+@Value
+public class TaskCost {
+    Lane lane;
+    long estimatedCostInMs;
+}
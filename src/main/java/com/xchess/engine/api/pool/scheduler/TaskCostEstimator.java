@@ -0,0 +1,96 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Estimates how long an engine task keeps its engine busy. Time-limited
+ * searches cost their time limit; depth-limited searches grow geometrically
+ * with depth, following the effective branching factor of the engine.
+ */
+@Component
+public class TaskCostEstimator {
+    private final SchedulerProperties properties;
+
+    @Autowired
+    public TaskCostEstimator(SchedulerProperties properties) {
+        this.properties = properties;
+    }
+
+    public TaskCost estimate(EngineTask task,
+                             EvaluationParameters evaluationParameters) {
+        return estimate(task, evaluationParameters, 1);
+    }
+
+    /**
+     * Cost of a task running the given number of searches back to back on
+     * the same engine.
+     */
+    public TaskCost estimate(EngineTask task,
+                             EvaluationParameters evaluationParameters,
+                             int searchCount) {
+        long cost;
+        switch (task) {
+            case ENGINE_VERSION:
+                cost = this.properties.getEngineVersionCostInMs();
+                break;
+            case PROGRESSIVE_EVALUATION:
+                cost = progressiveCost(searchCost(evaluationParameters));
+                break;
+            default:
+                cost = searchCost(evaluationParameters);
+        }
+        if (task != EngineTask.ENGINE_VERSION && searchCount > 1) {
+            cost = cost > Long.MAX_VALUE / searchCount ? Long.MAX_VALUE :
+                    cost * searchCount;
+        }
+        return new TaskCost(laneFor(cost), cost);
+    }
+
+    private long searchCost(EvaluationParameters evaluationParameters) {
+        Integer depth = Objects.isNull(evaluationParameters) ? null :
+                evaluationParameters.getDepth();
+        Integer timeInMs = Objects.isNull(evaluationParameters) ? null :
+                evaluationParameters.getTimeInMs();
+        if (Objects.isNull(depth) && Objects.isNull(timeInMs)) {
+            return this.properties.getUnboundedSearchCostInMs();
+        }
+        long cost = Long.MAX_VALUE;
+        if (Objects.nonNull(timeInMs)) {
+            cost = timeInMs;
+        }
+        if (Objects.nonNull(depth)) {
+            cost = Math.min(cost, depthCost(depth));
+        }
+        return cost;
+    }
+
+    private long depthCost(int depth) {
+        double cost = this.properties.getDepthBaseCostInMs()
+                * Math.pow(this.properties.getDepthCostGrowth(), depth);
+        return cost >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) cost;
+    }
+
+    private long progressiveCost(long targetCost) {
+        double growth = this.properties.getDepthCostGrowth();
+        if (growth <= 1) {
+            return targetCost;
+        }
+        // Shallower iterations add up to at most a geometric series.
+        double cost = targetCost * growth / (growth - 1);
+        return cost >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) cost;
+    }
+
+    private Lane laneFor(long cost) {
+        if (cost <= this.properties.getFastMaxCostInMs()) {
+            return Lane.FAST;
+        }
+        if (cost <= this.properties.getStandardMaxCostInMs()) {
+            return Lane.STANDARD;
+        }
+        return Lane.DEEP;
+    }
+}
@@ -1,52 +1,206 @@
 package com.xchess.engine.api.pool.worker;
 
 import com.xchess.ChessEngine;
+import com.xchess.engine.api.metrics.EngineMetrics;
+import com.xchess.engine.api.pool.EngineProfile;
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.engine.api.pool.placement.EnginePlacement;
+import com.xchess.evaluation.parameter.EvaluationParameters;
 import com.xchess.process.ProcessWrapper;
 import com.xchess.stockfish.Stockfish;
 import com.xchess.stockfish.config.StockfishConfig;
-import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
 import org.apache.commons.pool2.DestroyMode;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.InvalidPropertyException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Starts engines for a profile, applying the profile options to the engine
+ * configuration, and remembers the profile of every live engine so that it
+ * can be given back to the right sub-pool. With placement enabled, each
+ * engine is pinned to a core set and gets a thread count and hash size
+ * matching it, unless its profile sets them.
+ */
 @Component
-public class ChessEngineFactory extends BasePooledObjectFactory<ChessEngine> {
+public class ChessEngineFactory extends BaseKeyedPooledObjectFactory<String, ChessEngine> {
     private final ChessEngineProperties properties;
+    private final Map<String, EngineProfile> profiles;
+    private final int warmupDepth;
+    private final EnginePlacement enginePlacement;
+    private final EngineMetrics engineMetrics;
+    private final Map<ChessEngine, String> engineProfiles =
+            new ConcurrentHashMap<>();
+    private final Map<ChessEngine, Integer> engineSlots =
+            new ConcurrentHashMap<>();
 
     @Autowired
-    public ChessEngineFactory(ChessEngineProperties properties) {
+    public ChessEngineFactory(ChessEngineProperties properties,
+                              PoolProperties poolProperties,
+                              EnginePlacement enginePlacement,
+                              EngineMetrics engineMetrics) {
         this.properties = properties;
+        this.profiles = poolProperties.getProfiles();
+        this.warmupDepth = poolProperties.getWarmupDepth();
+        this.enginePlacement = enginePlacement;
+        this.engineMetrics = engineMetrics;
+        if ("stockfish".equals(this.properties.getType())) {
+            // Fails at startup rather than on the first borrow when a
+            // profile names an option the engine does not have.
+            this.profiles.keySet().forEach(profile -> newStockfishConfig(profile,
+                    this.enginePlacement.isEnabled() ? 0 : -1));
+        }
+    }
+
+    public String getProfile(ChessEngine chessEngine) {
+        return this.engineProfiles.getOrDefault(chessEngine,
+                EngineProfile.DEFAULT);
+    }
+
+    @Override
+    public PooledObject<ChessEngine> makeObject(String profile) throws Exception {
+        PooledObject<ChessEngine> pooledObject = super.makeObject(profile);
+        this.engineProfiles.put(pooledObject.getObject(), profile);
+        return pooledObject;
     }
 
     @Override
-    public ChessEngine create() throws Exception {
+    public ChessEngine create(String profile) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        int slot = this.enginePlacement.isEnabled() ?
+                this.enginePlacement.acquire() : -1;
+        try {
+            ChessEngine chessEngine =
+                    this.engineMetrics.instrument(newEngine(profile, slot));
+            if (slot >= 0) {
+                this.engineSlots.put(chessEngine, slot);
+            }
+            success = true;
+            return chessEngine;
+        } finally {
+            if (!success && slot >= 0) {
+                this.enginePlacement.release(slot);
+            }
+            this.engineMetrics.recordEngineLifecycle("create",
+                    System.nanoTime() - start, success);
+        }
+    }
+
+    private ChessEngine newEngine(String profile, int slot) throws Exception {
         if (this.properties.getType().equals("stockfish")) {
-            return new Stockfish(new ProcessWrapper(this.properties.getCommand()),
-                    new StockfishConfig().setTimeoutInMs(this.properties.getTimeout()));
+            String command = slot < 0 ? this.properties.getCommand() :
+                    this.enginePlacement.getPinCommand(slot) + " "
+                            + this.properties.getCommand();
+            return new Stockfish(new ProcessWrapper(command),
+                    newStockfishConfig(profile, slot));
         }
         throw new InvalidPropertyException(ChessEngineProperties.class,
                 "chess.engine.type", "Invalid property value");
 
     }
 
+    /**
+     * Runs a first search so that the engine has loaded its network and
+     * touched its hash table before it serves a request. Only done for the
+     * engines started up front; engines created on demand skip it.
+     */
+    public void warmUp(ChessEngine chessEngine) throws Exception {
+        if (this.warmupDepth <= 0) {
+            return;
+        }
+        chessEngine.moveToStartPosition(true);
+        chessEngine.findBestMove(EvaluationParameters.builder()
+                .depth(this.warmupDepth)
+                .build());
+        chessEngine.moveToStartPosition(true);
+    }
+
+    private StockfishConfig newStockfishConfig(String profile, int slot) {
+        StockfishConfig config =
+                new StockfishConfig().setTimeoutInMs(this.properties.getTimeout());
+        Map<String, String> options = new HashMap<>();
+        if (slot >= 0) {
+            options.put("threads",
+                    String.valueOf(this.enginePlacement.getCores(slot).size()));
+            options.put("hash",
+                    String.valueOf(this.enginePlacement.getHashInMb(slot)));
+        }
+        EngineProfile engineProfile = this.profiles.get(profile);
+        if (Objects.nonNull(engineProfile)) {
+            engineProfile.getOptions().forEach((name, value) ->
+                    options.put(toPropertyName(name), value));
+        }
+        if (!options.isEmpty()) {
+            BeanWrapper wrapper = new BeanWrapperImpl(config);
+            wrapper.setPropertyValues(options);
+        }
+        return config;
+    }
+
+    /**
+     * Option names may be written in kebab case, as in the rest of the
+     * configuration.
+     */
+    private static String toPropertyName(String name) {
+        StringBuilder propertyName = new StringBuilder();
+        boolean upperCase = false;
+        for (char c : name.toCharArray()) {
+            if (c == '-' || c == '_') {
+                upperCase = true;
+            } else {
+                propertyName.append(upperCase ? Character.toUpperCase(c) : c);
+                upperCase = false;
+            }
+        }
+        return propertyName.toString();
+    }
+
     @Override
     public PooledObject<ChessEngine> wrap(ChessEngine engineWorker) {
         return new DefaultPooledObject<>(engineWorker);
     }
 
     @Override
-    public void destroyObject(PooledObject<ChessEngine> p,
+    public void destroyObject(String profile, PooledObject<ChessEngine> p,
                               DestroyMode destroyMode) throws Exception {
-        super.destroyObject(p, destroyMode);
+        super.destroyObject(profile, p, destroyMode);
         ChessEngine chessEngine = p.getObject();
-        chessEngine.stop();
+        this.engineProfiles.remove(chessEngine);
+        Integer slot = this.engineSlots.remove(chessEngine);
+        if (Objects.nonNull(slot)) {
+            this.enginePlacement.release(slot);
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            chessEngine.stop();
+            success = true;
+        } finally {
+            this.engineMetrics.recordEngineLifecycle("destroy",
+                    System.nanoTime() - start, success);
+        }
     }
 
     @Override
-    public boolean validateObject(PooledObject<ChessEngine> p) {
-        return p.getObject().healthCheck();
+    public boolean validateObject(String profile,
+                                  PooledObject<ChessEngine> p) {
+        long start = System.nanoTime();
+        boolean valid = p.getObject().healthCheck();
+        this.engineMetrics.recordEngineLifecycle("validation",
+                System.nanoTime() - start, valid);
+        if (!valid) {
+            this.engineMetrics.recordValidationFailure();
+        }
+        return valid;
     }
 }
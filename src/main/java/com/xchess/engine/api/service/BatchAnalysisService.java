@@ -0,0 +1,143 @@
+package com.xchess.engine.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.domain.enumeration.BatchAnalysisStatus;
+import com.xchess.engine.api.domain.request.BatchAnalysisItem;
+import com.xchess.engine.api.domain.request.BatchAnalysisRequest;
+import com.xchess.engine.api.domain.response.BatchAnalysisItemResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.exceptions.CostBudgetExceededException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads batch items over the engine pool and writes each result as a JSON
+ * line as soon as it completes. At most one item per engine slot is in
+ * flight, so a large batch neither floods the pool wait queue nor starves
+ * other clients. Lines are written in completion order; the item index lets
+ * clients restore request order.
+ */
+@Service
+public class BatchAnalysisService {
+    private final ChessService chessService;
+    private final ObjectMapper objectMapper;
+    private final int window;
+
+    @Autowired
+    public BatchAnalysisService(ChessService chessService,
+                                ObjectMapper objectMapper,
+                                PoolProperties poolProperties) {
+        this.chessService = chessService;
+        this.objectMapper = objectMapper;
+        this.window = Math.max(1, poolProperties.getMaxTotal());
+    }
+
+    public void analyse(BatchAnalysisRequest request,
+                        OutputStream outputStream) throws IOException {
+        List<BatchAnalysisItem> items = Objects.nonNull(request.getItems()) ?
+                request.getItems() : Collections.emptyList();
+        BlockingQueue<BatchAnalysisItemResponse> completed =
+                new LinkedBlockingQueue<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        int submitted = 0;
+        for (int written = 0; written < items.size(); written++) {
+            while (submitted < items.size() && inFlight.get() < this.window) {
+                inFlight.incrementAndGet();
+                analyseItem(submitted, items.get(submitted), request)
+                        .thenAccept(response -> {
+                            inFlight.decrementAndGet();
+                            completed.add(response);
+                        });
+                submitted++;
+            }
+            writeLine(outputStream, takeNext(completed));
+        }
+    }
+
+    private CompletableFuture<BatchAnalysisItemResponse> analyseItem(int index,
+                                                                     BatchAnalysisItem item,
+                                                                     BatchAnalysisRequest request) {
+        EvaluationParameters evaluationParameters =
+                Objects.nonNull(item.getEvaluationParameters()) ?
+                        item.getEvaluationParameters() :
+                        request.getEvaluationParameters();
+        BatchAnalysisItemResponse.BatchAnalysisItemResponseBuilder response =
+                BatchAnalysisItemResponse.builder()
+                        .index(index)
+                        .fen(item.getFen());
+        if (Objects.isNull(evaluationParameters)) {
+            return CompletableFuture.completedFuture(response
+                    .status(BatchAnalysisStatus.INVALID_INPUT)
+                    .error("Missing evaluation parameters")
+                    .build());
+        }
+        try {
+            CompletableFuture<PositionEvaluationResponse> evaluation =
+                    request.isWithEvaluation() ?
+                            this.chessService.getPositionEvaluation(item.getFen(),
+                                    evaluationParameters) :
+                            CompletableFuture.completedFuture(null);
+            return this.chessService.findBestMove(item.getFen(),
+                            evaluationParameters)
+                    .thenCombine(evaluation, (bestMove, positionEvaluation) -> response
+                            .status(BatchAnalysisStatus.OK)
+                            .bestMove(bestMove.getBestMove())
+                            .evaluation(positionEvaluation)
+                            .build())
+                    .exceptionally(error -> toErrorResponse(response,
+                            Futures.unwrap(error)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(toErrorResponse(response, e));
+        }
+    }
+
+    private static BatchAnalysisItemResponse toErrorResponse(BatchAnalysisItemResponse.BatchAnalysisItemResponseBuilder response,
+                                                             Throwable error) {
+        BatchAnalysisStatus status = error instanceof InvalidMoveException
+                || error instanceof InvalidSyntaxException
+                || error instanceof CostBudgetExceededException ?
+                BatchAnalysisStatus.INVALID_INPUT : BatchAnalysisStatus.ERROR;
+        return response.status(status)
+                .error(describe(error))
+                .build();
+    }
+
+    private static BatchAnalysisItemResponse takeNext(BlockingQueue<BatchAnalysisItemResponse> completed) throws IOException {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch analysis interrupted", e);
+        }
+    }
+
+    private void writeLine(OutputStream outputStream,
+                           BatchAnalysisItemResponse response) throws IOException {
+        outputStream.write(this.objectMapper.writeValueAsBytes(response));
+        outputStream.write("\n".getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = Objects.nonNull(error.getCause()) ?
+                error.getCause() : error;
+        return Objects.nonNull(cause.getMessage()) ? cause.getMessage() :
+                cause.getClass().getSimpleName();
+    }
+}
@@ -1,116 +1,368 @@
 package com.xchess.engine.api.service;
 
 import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.book.OpeningBook;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.concurrent.Deadline;
+import com.xchess.engine.api.concurrent.SingleFlight;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
 import com.xchess.engine.api.domain.response.*;
 import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
 import com.xchess.engine.api.exceptions.InvalidMoveException;
 import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.mapper.EvaluationParametersMapper;
 import com.xchess.engine.api.mapper.PositionEvaluationResponseMapper;
+import com.xchess.engine.api.pool.EngineProfile;
 import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.affinity.EnginePosition;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.engine.api.store.AnalysisStore;
+import com.xchess.engine.api.tablebase.SyzygyTablebase;
+import com.xchess.engine.api.tablebase.TablebaseMove;
 import com.xchess.evaluation.parameter.EvaluationParameters;
-import com.xchess.exceptions.IllegalMoveException;
-import com.xchess.exceptions.InvalidFenPositionException;
-import com.xchess.exceptions.InvalidMoveSyntaxException;
-import com.xchess.exceptions.InvalidSquareSyntaxException;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 @Service
 @AllArgsConstructor
 public class ChessService {
     private final PoolWrapper poolWrapper;
+    private final EvaluationCache evaluationCache;
+    private final OpeningBook openingBook;
+    private final AnalysisStore analysisStore;
+    private final SyzygyTablebase syzygyTablebase;
+    private final SingleFlight<String, Object> searches = new SingleFlight<>();
 
-    public EngineVersionResponse getEngineVersion() throws Exception {
-        return EngineVersionResponse
-                .builder()
-                .version(poolWrapper.queueAction(ChessEngine::getEngineVersion))
-                .build();
+    public CompletableFuture<EngineVersionResponse> getEngineVersion() {
+        return poolWrapper.queueAction(EngineTask.ENGINE_VERSION,
+                        ChessEngine::getEngineVersion)
+                .thenApply(version -> EngineVersionResponse
+                        .builder()
+                        .version(version)
+                        .build());
     }
 
-    public PossibleMovesResponse getPossibleMoves(String fen, String square) throws Exception {
-        return poolWrapper.queueAction(engineWorker -> {
+    public PossibleMovesResponse getPossibleMoves(String fen, String square) {
+        Position position = toPosition(fen);
+        List<String> possibleMoves;
+        if (Objects.isNull(square)) {
+            possibleMoves = MoveGenerator.legalUciMoves(position);
+        } else {
             try {
-                moveToFenPositionIfDefined(engineWorker, fen);
-                List<String> possibleMoves;
-                if (Objects.isNull(square)) {
-                    possibleMoves = engineWorker.getPossibleMoves();
-                } else {
-                    possibleMoves = engineWorker.getPossibleMoves(square);
-                }
-                return PossibleMovesResponse
-                        .builder()
-                        .possibleMoves(possibleMoves)
-                        .build();
-            } catch (IOException | TimeoutException exception) {
-                throw new ChessEngineWorkerExecutionException(exception);
-            } catch (
-                    InvalidSquareSyntaxException invalidSquareSyntaxException) {
-                throw new InvalidSyntaxException(invalidSquareSyntaxException);
+                possibleMoves = MoveGenerator.legalUciMoves(position,
+                        Square.parse(square));
+            } catch (InvalidNotationException e) {
+                throw new InvalidSyntaxException(e);
             }
-        });
+        }
+        return PossibleMovesResponse
+                .builder()
+                .possibleMoves(possibleMoves)
+                .build();
     }
 
-    public BestMoveResponse findBestMove(String fen,
-                                         EvaluationParameters evaluationParameters) throws Exception {
-        return poolWrapper.queueAction(engineWorker -> {
-            try {
-                moveToFenPositionIfDefined(engineWorker, fen);
-                return BestMoveResponse
-                        .builder()
-                        .bestMove(engineWorker.findBestMove(evaluationParameters))
-                        .build();
-            } catch (IOException | TimeoutException e) {
-                throw new ChessEngineWorkerExecutionException(e);
-            }
+    public CompletableFuture<BestMoveResponse> findBestMove(String fen,
+                                                            EvaluationParameters evaluationParameters) {
+        return findBestMove(fen, evaluationParameters, Deadline.none());
+    }
 
-        });
+    public CompletableFuture<BestMoveResponse> findBestMove(String fen,
+                                                            EvaluationParameters evaluationParameters,
+                                                            Deadline deadline) {
+        return findBestMove(fen, evaluationParameters, EngineProfile.DEFAULT,
+                deadline);
     }
 
-    public PositionEvaluationResponse getPositionEvaluation(String fen,
-                                                            EvaluationParameters evaluationParameters) throws Exception {
-        return poolWrapper.queueAction(engineWorker -> {
-            try {
-                moveToFenPositionIfDefined(engineWorker, fen);
-                return PositionEvaluationResponseMapper.toPositionEvaluationResponse(engineWorker.getPositionEvaluation(evaluationParameters));
-            } catch (IOException | TimeoutException e) {
-                throw new ChessEngineWorkerExecutionException(e);
-            }
+    public CompletableFuture<BestMoveResponse> findBestMove(String fen,
+                                                            EvaluationParameters evaluationParameters,
+                                                            String profile,
+                                                            Deadline deadline) {
+        Position position = toPosition(fen);
+        String engineProfile = poolWrapper.checkProfile(profile);
+        if (!engineProfile.equals(EngineProfile.DEFAULT)) {
+            return searchWithProfile(EngineTask.BEST_MOVE, fen, position,
+                    evaluationParameters, engineProfile, deadline,
+                    ChessService::bestMoveAction);
+        }
+        Optional<String> bookMove = openingBook.findMove(position);
+        if (bookMove.isPresent()) {
+            return CompletableFuture.completedFuture(BestMoveResponse
+                    .builder()
+                    .bestMove(bookMove.get())
+                    .source(MoveSource.BOOK)
+                    .build());
+        }
+        Optional<TablebaseMove> tablebaseMove =
+                syzygyTablebase.findBestMove(position);
+        if (tablebaseMove.isPresent()) {
+            return CompletableFuture.completedFuture(BestMoveResponse
+                    .builder()
+                    .bestMove(tablebaseMove.get().getMove())
+                    .source(MoveSource.TABLEBASE)
+                    .tablebase(tablebaseMove.get().getResult())
+                    .build());
+        }
+        return search(EvaluationType.BEST_MOVE, EngineTask.BEST_MOVE, fen,
+                position, evaluationParameters, deadline,
+                BestMoveResponse.class,
+                ChessService::bestMoveAction);
+    }
 
-        });
+    public CompletableFuture<PositionEvaluationResponse> getPositionEvaluation(String fen,
+                                                                               EvaluationParameters evaluationParameters) {
+        return getPositionEvaluation(fen, evaluationParameters,
+                Deadline.none());
+    }
+
+    public CompletableFuture<PositionEvaluationResponse> getPositionEvaluation(String fen,
+                                                                               EvaluationParameters evaluationParameters,
+                                                                               Deadline deadline) {
+        return getPositionEvaluation(fen, evaluationParameters,
+                EngineProfile.DEFAULT, deadline);
+    }
+
+    public CompletableFuture<PositionEvaluationResponse> getPositionEvaluation(String fen,
+                                                                               EvaluationParameters evaluationParameters,
+                                                                               String profile,
+                                                                               Deadline deadline) {
+        Position position = toPosition(fen);
+        String engineProfile = poolWrapper.checkProfile(profile);
+        if (!engineProfile.equals(EngineProfile.DEFAULT)) {
+            return searchWithProfile(EngineTask.POSITION_EVALUATION, fen,
+                    position, evaluationParameters, engineProfile, deadline,
+                    ChessService::positionEvaluationAction);
+        }
+        Optional<TablebaseResponse> tablebaseResult =
+                syzygyTablebase.probe(position);
+        if (tablebaseResult.isPresent()) {
+            return CompletableFuture.completedFuture(
+                    PositionEvaluationResponseMapper.toPositionEvaluationResponse(
+                            tablebaseResult.get(), position.getSideToMove()));
+        }
+        return search(EvaluationType.POSITION_EVALUATION,
+                EngineTask.POSITION_EVALUATION, fen, position,
+                evaluationParameters, deadline,
+                PositionEvaluationResponse.class,
+                ChessService::positionEvaluationAction);
     }
 
-    public MoveResponse move(String fen, List<String> moves) throws Exception {
-        return poolWrapper.queueAction(engineWorker -> {
+    public CompletableFuture<Integer> streamPositionEvaluation(String fen,
+                                                               EvaluationParameters evaluationParameters,
+                                                               int startDepth,
+                                                               int depthStep,
+                                                               Predicate<ProgressiveEvaluationResponse> listener) {
+        Integer targetDepth = evaluationParameters.getDepth();
+        if (Objects.isNull(targetDepth)) {
+            throw new InvalidSyntaxException(new IllegalArgumentException(
+                    "Progressive evaluation requires a depth"));
+        }
+        Position position = toPosition(fen);
+        String normalizedFen = position.toNormalizedFen();
+        Optional<PositionEvaluationResponse> cachedResponse =
+                lookup(EvaluationType.POSITION_EVALUATION, normalizedFen,
+                        evaluationParameters, PositionEvaluationResponse.class);
+        if (cachedResponse.isPresent()) {
+            listener.test(ProgressiveEvaluationResponse.builder()
+                    .depth(targetDepth)
+                    .complete(true)
+                    .evaluation(cachedResponse.get())
+                    .build());
+            return CompletableFuture.completedFuture(targetDepth);
+        }
+        return poolWrapper.queueAction(EngineTask.PROGRESSIVE_EVALUATION,
+                evaluationParameters, new EnginePosition(fen, position),
+                engineWorker -> {
             try {
-                moveToFenPositionIfDefined(engineWorker, fen);
-                engineWorker.move(moves);
-                return MoveResponse.builder()
-                        .resultFen(engineWorker.getFenPosition())
-                        .build();
+                int depth = Math.max(1, Math.min(startDepth, targetDepth));
+                while (true) {
+                    EvaluationParameters depthParameters =
+                            EvaluationParameters.builder()
+                                    .depth(depth)
+                                    .timeInMs(evaluationParameters.getTimeInMs())
+                                    .build();
+                    PositionEvaluationResponse evaluation =
+                            PositionEvaluationResponseMapper.toPositionEvaluationResponse(engineWorker.getPositionEvaluation(depthParameters));
+                    remember(EvaluationType.POSITION_EVALUATION,
+                            normalizedFen, depthParameters, evaluation);
+                    boolean complete = depth >= targetDepth;
+                    boolean listening =
+                            listener.test(ProgressiveEvaluationResponse.builder()
+                                    .depth(depth)
+                                    .complete(complete)
+                                    .evaluation(evaluation)
+                                    .build());
+                    if (complete || !listening) {
+                        return depth;
+                    }
+                    depth = Math.min(depth + Math.max(1, depthStep),
+                            targetDepth);
+                }
             } catch (IOException | TimeoutException e) {
                 throw new ChessEngineWorkerExecutionException(e);
-            } catch (IllegalMoveException | InvalidFenPositionException e) {
-                throw new InvalidMoveException(e);
-            } catch (InvalidMoveSyntaxException e) {
-                throw new InvalidSyntaxException(e);
             }
         });
     }
 
-    private static void moveToFenPositionIfDefined(ChessEngine engineWorker,
-                                                   String fen) throws IOException, TimeoutException {
+    public MoveResponse move(String fen, List<String> moves) {
         try {
-            if (!Objects.isNull(fen)) {
-                engineWorker.moveToFenPosition(fen, true);
-            } else {
-                engineWorker.moveToStartPosition(true);
-            }
-        } catch (InvalidFenPositionException e) {
+            Position position = MoveGenerator.playUciMoves(toPosition(fen),
+                    moves);
+            return MoveResponse.builder()
+                    .resultFen(position.toFen())
+                    .build();
+        } catch (IllegalBoardMoveException e) {
+            throw new InvalidMoveException(e);
+        } catch (InvalidNotationException e) {
+            throw new InvalidSyntaxException(e);
+        }
+    }
+
+    public String normalizeFen(String fen) {
+        return toPosition(fen).toNormalizedFen();
+    }
+
+    private <T> CompletableFuture<T> search(EvaluationType type,
+                                            EngineTask task, String fen,
+                                            Position position,
+                                            EvaluationParameters evaluationParameters,
+                                            Deadline deadline,
+                                            Class<T> responseClass,
+                                            BiFunction<ChessEngine, EvaluationParameters, T> action) {
+        String normalizedFen = position.toNormalizedFen();
+        Optional<T> cachedResponse = lookup(type, normalizedFen,
+                evaluationParameters, responseClass);
+        if (cachedResponse.isPresent()) {
+            return CompletableFuture.completedFuture(cachedResponse.get());
+        }
+        if (deadline.isBounded()) {
+            // The search may be cut short by the deadline, so its result is
+            // neither shared with other callers nor kept when the deadline
+            // gave it a time limit of its own.
+            AtomicBoolean timeLimited = new AtomicBoolean();
+            return poolWrapper.queueAction(task, evaluationParameters,
+                            new EnginePosition(fen, position), deadline,
+                            engineWorker -> {
+                                EvaluationParameters sent =
+                                        deadline.limit(evaluationParameters);
+                                timeLimited.set(Deadline.isTimeLimited(
+                                        evaluationParameters, sent));
+                                return action.apply(engineWorker, sent);
+                            })
+                    .thenApply(result -> {
+                        if (!timeLimited.get()) {
+                            remember(type, normalizedFen,
+                                    evaluationParameters, result);
+                        }
+                        return result;
+                    });
+        }
+        String searchKey = type + "|" + normalizedFen + "|"
+                + EvaluationParametersMapper.toKey(evaluationParameters);
+        return searches.execute(searchKey, () -> poolWrapper.queueAction(task,
+                                evaluationParameters,
+                                new EnginePosition(fen, position),
+                                engineWorker -> action.apply(engineWorker,
+                                        evaluationParameters))
+                        .thenApply(result -> {
+                            remember(type, normalizedFen,
+                                    evaluationParameters, result);
+                            return (Object) result;
+                        }))
+                .thenApply(responseClass::cast);
+    }
+
+    /**
+     * Searches on an engine of a non-default profile. Such engines may be
+     * configured to play weaker or stronger than the default ones, so
+     * their results are neither taken from nor added to the shared cache,
+     * store, book or tablebases.
+     */
+    private <T> CompletableFuture<T> searchWithProfile(EngineTask task,
+                                                       String fen,
+                                                       Position position,
+                                                       EvaluationParameters evaluationParameters,
+                                                       String profile,
+                                                       Deadline deadline,
+                                                       BiFunction<ChessEngine, EvaluationParameters, T> action) {
+        return poolWrapper.queueAction(task, evaluationParameters, profile,
+                new EnginePosition(fen, position), deadline,
+                engineWorker -> action.apply(engineWorker,
+                        deadline.limit(evaluationParameters)));
+    }
+
+    private static BestMoveResponse bestMoveAction(ChessEngine engineWorker,
+                                                   EvaluationParameters evaluationParameters) {
+        try {
+            return BestMoveResponse
+                    .builder()
+                    .bestMove(engineWorker.findBestMove(evaluationParameters))
+                    .source(MoveSource.ENGINE)
+                    .build();
+        } catch (IOException | TimeoutException e) {
+            throw new ChessEngineWorkerExecutionException(e);
+        }
+    }
+
+    private static PositionEvaluationResponse positionEvaluationAction(ChessEngine engineWorker,
+                                                                       EvaluationParameters evaluationParameters) {
+        try {
+            return PositionEvaluationResponseMapper.toPositionEvaluationResponse(engineWorker.getPositionEvaluation(evaluationParameters));
+        } catch (IOException | TimeoutException e) {
+            throw new ChessEngineWorkerExecutionException(e);
+        }
+    }
+
+    /**
+     * Looks a result up in the cache, then in the persistent store, which
+     * feeds the cache on a hit.
+     */
+    private <T> Optional<T> lookup(EvaluationType type, String normalizedFen,
+                                   EvaluationParameters evaluationParameters,
+                                   Class<T> responseClass) {
+        Optional<T> cachedResponse = evaluationCache.get(type, normalizedFen,
+                evaluationParameters, responseClass);
+        if (cachedResponse.isPresent()) {
+            return cachedResponse;
+        }
+        Optional<T> storedResponse = analysisStore.get(type, normalizedFen,
+                evaluationParameters, responseClass);
+        storedResponse.ifPresent(response -> evaluationCache.put(type,
+                normalizedFen, evaluationParameters, response));
+        return storedResponse;
+    }
+
+    private void remember(EvaluationType type, String normalizedFen,
+                          EvaluationParameters evaluationParameters,
+                          Object response) {
+        evaluationCache.put(type, normalizedFen, evaluationParameters,
+                response);
+        analysisStore.put(type, normalizedFen, evaluationParameters, response);
+    }
+
+    private static Position toPosition(String fen) {
+        if (Objects.isNull(fen)) {
+            return Position.startPosition();
+        }
+        try {
+            return Position.fromFen(fen);
+        } catch (InvalidFenException e) {
             throw new InvalidMoveException(e);
         }
     }
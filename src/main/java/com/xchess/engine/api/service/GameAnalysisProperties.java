@@ -0,0 +1,18 @@
+package com.xchess.engine.api.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "analysis.game")
+public class GameAnalysisProperties {
+    private int maxPlies = 1000;
+    private int minPliesPerChunk = 8;
+    private int mistakeThresholdInCentipawns = 100;
+    private int blunderThresholdInCentipawns = 300;
+    private int evaluationCapInCentipawns = 1000;
+}
@@ -0,0 +1,336 @@
+package com.xchess.engine.api.service;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.Move;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Pgn;
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.concurrent.Deadline;
+import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.MoveJudgement;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.request.GameAnalysisRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.GameAnalysisResponse;
+import com.xchess.engine.api.domain.response.PlyAnalysisResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.exceptions.DeadlineExceededException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.mapper.PositionEvaluationResponseMapper;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates every position of a game. The positions are split into
+ * contiguous chunks, one pool task each; a chunk sets its engine up once
+ * and then only sends the next move, so the engine keeps its hash from one
+ * position to the next. Moves losing more than the configured thresholds,
+ * from the mover's point of view, are flagged as mistakes or blunders.
+ */
+@Service
+public class GameAnalysisService {
+    private final PoolWrapper poolWrapper;
+    private final EvaluationCache evaluationCache;
+    private final GameAnalysisProperties properties;
+
+    @Autowired
+    public GameAnalysisService(PoolWrapper poolWrapper,
+                               EvaluationCache evaluationCache,
+                               GameAnalysisProperties properties) {
+        this.poolWrapper = poolWrapper;
+        this.evaluationCache = evaluationCache;
+        this.properties = properties;
+    }
+
+    public CompletableFuture<GameAnalysisResponse> analyse(GameAnalysisRequest request) {
+        return analyse(request, Deadline.none());
+    }
+
+    public CompletableFuture<GameAnalysisResponse> analyse(GameAnalysisRequest request,
+                                                           Deadline deadline) {
+        EvaluationParameters evaluationParameters =
+                request.getEvaluationParameters();
+        if (Objects.isNull(evaluationParameters)) {
+            throw new InvalidSyntaxException(new IllegalArgumentException(
+                    "Missing evaluation parameters"));
+        }
+        Game game = toGame(request);
+        if (game.moves.size() > this.properties.getMaxPlies()) {
+            throw new InvalidSyntaxException(new IllegalArgumentException(
+                    "Game exceeds " + this.properties.getMaxPlies() + " plies"));
+        }
+
+        int positionCount = game.positions.size();
+        int minChunkSize = Math.max(1, this.properties.getMinPliesPerChunk());
+        // the autoscaler resizes the pool, split for its current capacity
+        int maxChunks = this.poolWrapper.getStatistics().getCapacity();
+        int chunkCount = Math.max(1, Math.min(maxChunks,
+                (positionCount + minChunkSize - 1) / minChunkSize));
+        List<CompletableFuture<List<PositionAnalysis>>> chunks =
+                new ArrayList<>();
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int from = positionCount * chunk / chunkCount;
+            int to = positionCount * (chunk + 1) / chunkCount;
+            chunks.add(this.poolWrapper.queueTask(EngineTask.GAME_ANALYSIS,
+                    evaluationParameters, 2 * (to - from), deadline,
+                    () -> analyseChunk(game, from, to, evaluationParameters,
+                            deadline)));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    List<PositionAnalysis> analyses = new ArrayList<>();
+                    for (CompletableFuture<List<PositionAnalysis>> chunk : chunks) {
+                        analyses.addAll(chunk.join());
+                    }
+                    return toResponse(game, analyses);
+                });
+    }
+
+    private List<PositionAnalysis> analyseChunk(Game game, int from, int to,
+                                                EvaluationParameters evaluationParameters,
+                                                Deadline deadline) throws Exception {
+        List<PositionAnalysis> analyses = new ArrayList<>();
+        List<String> unsentMoves = new ArrayList<>(game.moves.subList(0, from));
+        ChessEngine engineWorker = null;
+        try {
+            for (int index = from; index < to; index++) {
+                Position position = game.positions.get(index);
+                String normalizedFen = position.toNormalizedFen();
+                Optional<PositionAnalysis> known = analyseWithoutEngine(position,
+                        normalizedFen, evaluationParameters);
+                if (known.isPresent()) {
+                    analyses.add(known.get());
+                } else {
+                    if (deadline.isExhausted()) {
+                        break;
+                    }
+                    if (Objects.isNull(engineWorker)) {
+                        engineWorker = this.poolWrapper.borrowEngine();
+                        if (Objects.isNull(game.startFen)) {
+                            engineWorker.moveToStartPosition(true);
+                        } else {
+                            engineWorker.moveToFenPosition(game.startFen, true);
+                        }
+                    }
+                    if (!unsentMoves.isEmpty()) {
+                        engineWorker.move(new ArrayList<>(unsentMoves));
+                        unsentMoves.clear();
+                    }
+                    analyses.add(search(engineWorker, normalizedFen,
+                            evaluationParameters, deadline));
+                }
+                if (index < game.moves.size()) {
+                    unsentMoves.add(game.moves.get(index));
+                }
+            }
+        } catch (IOException | TimeoutException e) {
+            recover(engineWorker, e);
+            throw new ChessEngineWorkerExecutionException(e);
+        } catch (Exception e) {
+            recover(engineWorker, e);
+            throw e;
+        }
+        if (Objects.nonNull(engineWorker)) {
+            this.poolWrapper.returnEngine(engineWorker);
+        }
+        if (analyses.size() < to - from) {
+            throw new DeadlineExceededException("Deadline passed during game analysis");
+        }
+        return analyses;
+    }
+
+    /**
+     * Finished games are judged from the board, and positions already
+     * searched come from the cache.
+     */
+    private Optional<PositionAnalysis> analyseWithoutEngine(Position position,
+                                                            String normalizedFen,
+                                                            EvaluationParameters evaluationParameters) {
+        if (MoveGenerator.legalMoves(position).length == 0) {
+            boolean mate = position.isInCheck();
+            return Optional.of(new PositionAnalysis(null,
+                    PositionEvaluationResponse.builder()
+                            .type(mate ? ChessEngineEvaluationType.MATE :
+                                    ChessEngineEvaluationType.CENTIPAWNS)
+                            .value(0)
+                            .color(mate && position.getSideToMove() == Piece.WHITE ?
+                                    ChessColor.BLACK : ChessColor.WHITE)
+                            .build()));
+        }
+        Optional<BestMoveResponse> bestMove = this.evaluationCache.get(
+                EvaluationType.BEST_MOVE, normalizedFen, evaluationParameters,
+                BestMoveResponse.class);
+        Optional<PositionEvaluationResponse> evaluation =
+                this.evaluationCache.get(EvaluationType.POSITION_EVALUATION,
+                        normalizedFen, evaluationParameters,
+                        PositionEvaluationResponse.class);
+        if (bestMove.isPresent() && evaluation.isPresent()) {
+            return Optional.of(new PositionAnalysis(
+                    bestMove.get().getBestMove(), evaluation.get()));
+        }
+        return Optional.empty();
+    }
+
+    private PositionAnalysis search(ChessEngine engineWorker,
+                                    String normalizedFen,
+                                    EvaluationParameters evaluationParameters,
+                                    Deadline deadline) throws Exception {
+        EvaluationParameters bestMoveParameters =
+                deadline.limit(evaluationParameters);
+        BestMoveResponse bestMove = BestMoveResponse.builder()
+                .bestMove(engineWorker.findBestMove(bestMoveParameters))
+                .source(MoveSource.ENGINE)
+                .build();
+        EvaluationParameters evaluationLimit =
+                deadline.limit(evaluationParameters);
+        PositionEvaluationResponse evaluation =
+                PositionEvaluationResponseMapper.toPositionEvaluationResponse(
+                        engineWorker.getPositionEvaluation(evaluationLimit));
+        // results of searches cut short by the deadline are not kept
+        if (!Deadline.isTimeLimited(evaluationParameters, bestMoveParameters)) {
+            this.evaluationCache.put(EvaluationType.BEST_MOVE, normalizedFen,
+                    evaluationParameters, bestMove);
+        }
+        if (!Deadline.isTimeLimited(evaluationParameters, evaluationLimit)) {
+            this.evaluationCache.put(EvaluationType.POSITION_EVALUATION,
+                    normalizedFen, evaluationParameters, evaluation);
+        }
+        return new PositionAnalysis(bestMove.getBestMove(), evaluation);
+    }
+
+    private void recover(ChessEngine engineWorker,
+                         Throwable reason) throws Exception {
+        if (Objects.nonNull(engineWorker)) {
+            this.poolWrapper.recoverEngine(engineWorker, reason);
+        }
+    }
+
+    private GameAnalysisResponse toResponse(Game game,
+                                            List<PositionAnalysis> analyses) {
+        List<PlyAnalysisResponse> plies = new ArrayList<>();
+        for (int ply = 0; ply < game.moves.size(); ply++) {
+            Position position = game.positions.get(ply);
+            PositionAnalysis before = analyses.get(ply);
+            PositionAnalysis after = analyses.get(ply + 1);
+            String move = game.moves.get(ply);
+            int swing = toWhiteCentipawns(before.evaluation)
+                    - toWhiteCentipawns(after.evaluation);
+            int loss = Math.max(0, position.getSideToMove() == Piece.WHITE ?
+                    swing : -swing);
+            plies.add(PlyAnalysisResponse.builder()
+                    .ply(ply + 1)
+                    .color(position.getSideToMove() == Piece.WHITE ?
+                            ChessColor.WHITE : ChessColor.BLACK)
+                    .fen(position.toFen())
+                    .move(move)
+                    .bestMove(before.bestMove)
+                    .evaluation(before.evaluation)
+                    .evaluationLoss(loss)
+                    .judgement(judge(move, before.bestMove, loss))
+                    .build());
+        }
+        return GameAnalysisResponse.builder()
+                .plies(plies)
+                .finalFen(game.positions.get(game.moves.size()).toFen())
+                .finalEvaluation(analyses.get(game.moves.size()).evaluation)
+                .build();
+    }
+
+    private MoveJudgement judge(String move, String bestMove, int loss) {
+        if (move.equals(bestMove)) {
+            return MoveJudgement.BEST;
+        }
+        if (loss >= this.properties.getBlunderThresholdInCentipawns()) {
+            return MoveJudgement.BLUNDER;
+        }
+        if (loss >= this.properties.getMistakeThresholdInCentipawns()) {
+            return MoveJudgement.MISTAKE;
+        }
+        return MoveJudgement.GOOD;
+    }
+
+    /**
+     * Evaluations are capped, mates included, so that going from a won
+     * position to a merely winning one does not count as a blunder.
+     */
+    private int toWhiteCentipawns(PositionEvaluationResponse evaluation) {
+        int cap = this.properties.getEvaluationCapInCentipawns();
+        int value = evaluation.getType() == ChessEngineEvaluationType.MATE ?
+                cap : Math.min(evaluation.getValue(), cap);
+        return evaluation.getColor() == ChessColor.WHITE ? value : -value;
+    }
+
+    private static Game toGame(GameAnalysisRequest request) {
+        try {
+            if (Objects.nonNull(request.getPgn())) {
+                Pgn pgn = Pgn.parse(request.getPgn());
+                return new Game(pgn.getTag("FEN"), pgn.getStartPosition(),
+                        pgn.getMoves());
+            }
+            Position startPosition = Objects.isNull(request.getFen()) ?
+                    Position.startPosition() : Position.fromFen(request.getFen());
+            List<String> uciMoves = Objects.nonNull(request.getMoves()) ?
+                    request.getMoves() : Collections.emptyList();
+            int[] moves = new int[uciMoves.size()];
+            Position position = startPosition;
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = MoveGenerator.parseUciMove(position, uciMoves.get(i));
+                position = position.play(moves[i]);
+            }
+            return new Game(request.getFen(), startPosition, moves);
+        } catch (InvalidNotationException e) {
+            throw new InvalidSyntaxException(e);
+        } catch (IllegalBoardMoveException | InvalidFenException e) {
+            throw new InvalidMoveException(e);
+        }
+    }
+
+    private static final class Game {
+        private final String startFen;
+        private final List<Position> positions = new ArrayList<>();
+        private final List<String> moves = new ArrayList<>();
+
+        private Game(String startFen, Position startPosition, int[] moves) {
+            this.startFen = startFen;
+            Position position = startPosition;
+            this.positions.add(position);
+            for (int move : moves) {
+                this.moves.add(Move.toUci(move));
+                position = position.play(move);
+                this.positions.add(position);
+            }
+        }
+    }
+
+    private static final class PositionAnalysis {
+        private final String bestMove;
+        private final PositionEvaluationResponse evaluation;
+
+        private PositionAnalysis(String bestMove,
+                                 PositionEvaluationResponse evaluation) {
+            this.bestMove = bestMove;
+            this.evaluation = evaluation;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.xchess.engine.api.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "evaluation.progressive")
+public class ProgressiveEvaluationProperties {
+    private int startDepth;
+    private int depthStep;
+    private int emitterTimeoutInMs;
+}
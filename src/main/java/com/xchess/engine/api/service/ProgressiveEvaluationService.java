@@ -0,0 +1,75 @@
+package com.xchess.engine.api.service;
+
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.domain.response.ProgressiveEvaluationResponse;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams evaluations of increasing depth as Server-Sent Events. Each depth
+ * runs on the same engine without resetting it, so deeper searches reuse the
+ * hash filled by shallower ones. Once the client goes away no deeper search
+ * is started and the engine goes back to the pool.
+ */
+@Service
+public class ProgressiveEvaluationService {
+    private static final String EVALUATION_EVENT = "evaluation";
+
+    private final ChessService chessService;
+    private final ProgressiveEvaluationProperties properties;
+
+    @Autowired
+    public ProgressiveEvaluationService(ChessService chessService,
+                                        ProgressiveEvaluationProperties properties) {
+        this.chessService = chessService;
+        this.properties = properties;
+    }
+
+    public SseEmitter streamPositionEvaluation(String fen,
+                                               EvaluationParameters evaluationParameters) {
+        if (Objects.isNull(evaluationParameters.getDepth())) {
+            throw new InvalidSyntaxException(new IllegalArgumentException(
+                    "Progressive evaluation requires a depth"));
+        }
+        this.chessService.normalizeFen(fen);
+
+        SseEmitter emitter =
+                new SseEmitter((long) this.properties.getEmitterTimeoutInMs());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        this.chessService.streamPositionEvaluation(fen, evaluationParameters,
+                        this.properties.getStartDepth(),
+                        this.properties.getDepthStep(),
+                        response -> open.get() && send(emitter, response))
+                .whenComplete((depth, error) -> {
+                    if (Objects.nonNull(error)) {
+                        emitter.completeWithError(Futures.unwrap(error));
+                    } else {
+                        emitter.complete();
+                    }
+                });
+        return emitter;
+    }
+
+    private static boolean send(SseEmitter emitter,
+                                ProgressiveEvaluationResponse response) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EVALUATION_EVENT)
+                    .id(String.valueOf(response.getDepth()))
+                    .data(response));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
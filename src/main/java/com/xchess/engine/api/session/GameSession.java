@@ -0,0 +1,46 @@
+package com.xchess.engine.api.session;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.Position;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A game followed move by move. The board position is the source of truth;
+ * the pinned engine, when there is one, has already played every move
+ * except the unsent ones, plus the moves of a running ponder. A busy
+ * session has its engine out for a search; moves played meanwhile are kept
+ * as unsent. The last search queued for the session is kept so that the
+ * next one is chained after it.
+ */
+@Getter
+@Setter
+class GameSession {
+    private final String id;
+    private final String startFen;
+    private final String profile;
+    private final boolean ponderEnabled;
+    private final List<String> moves = new ArrayList<>();
+    private final List<String> unsentMoves = new ArrayList<>();
+    private Position position;
+    private ChessEngine engine;
+    private Ponder ponder;
+    private long lastAccessAt;
+    private boolean closed;
+    private volatile boolean busy;
+    private CompletableFuture<?> lastSearch = CompletableFuture.completedFuture(null);
+
+    GameSession(String id, String startFen, String profile,
+                boolean ponderEnabled, Position position, long lastAccessAt) {
+        this.id = id;
+        this.startFen = startFen;
+        this.profile = profile;
+        this.ponderEnabled = ponderEnabled;
+        this.position = position;
+        this.lastAccessAt = lastAccessAt;
+    }
+}
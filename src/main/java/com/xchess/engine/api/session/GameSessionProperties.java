@@ -0,0 +1,19 @@
+package com.xchess.engine.api.session;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "game.session")
+public class GameSessionProperties {
+    private int maxSessions;
+    private int maxPinnedEngines;
+    private int idleTimeoutInMs;
+    private int engineIdleTimeoutInMs;
+    private int sweepIntervalInMs;
+    private int ponderPredictionDepth;
+}
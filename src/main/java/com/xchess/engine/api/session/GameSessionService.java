@@ -0,0 +1,539 @@
+package com.xchess.engine.api.session;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.GameSessionResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.exceptions.GameSessionNotFoundException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.exceptions.TooManyGameSessionsException;
+import com.xchess.engine.api.mapper.PositionEvaluationResponseMapper;
+import com.xchess.engine.api.pool.EngineProfile;
+import com.xchess.engine.api.pool.PoolWrapper;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Games followed across requests. A session keeps the engine it last
+ * searched with, and later searches only send the moves played since, so
+ * the engine keeps its hash between moves. Engines are released after a
+ * short idle period and sessions expire after a longer one; a session
+ * without an engine borrows one and replays its moves on the next search.
+ * <p>
+ * Sessions created with pondering keep searching on their engine after a
+ * best move, on the position expected after that move and the predicted
+ * reply. Only searches bounded by depth or time are pondered, as a ponder
+ * cannot be stopped: when the game takes another turn, it is left to end
+ * and its result is discarded. Sessions pondering while requests wait for
+ * engines give their engine back once the ponder ends.
+ * <p>
+ * Session locks are only held to read and update the session; searches run
+ * with the session marked busy, and the sweeper leaves busy sessions alone.
+ * Searches on a session are chained, so a search is only queued for the
+ * pool once the previous one has ended.
+ */
+@Service
+public class GameSessionService {
+    private final PoolWrapper poolWrapper;
+    private final EvaluationCache evaluationCache;
+    private final GameSessionProperties properties;
+    private final LongSupplier clock;
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionSlots = new AtomicInteger();
+    private final AtomicInteger pinnedEngines = new AtomicInteger();
+    private final AtomicLong ponderHits = new AtomicLong();
+    private final AtomicLong ponderMisses = new AtomicLong();
+    private final ScheduledExecutorService sweeper;
+    private final ExecutorService ponderExecutor;
+
+    @Autowired
+    public GameSessionService(PoolWrapper poolWrapper,
+                              EvaluationCache evaluationCache,
+                              GameSessionProperties properties) {
+        this(poolWrapper, evaluationCache, properties,
+                System::currentTimeMillis);
+        this.sweeper.scheduleWithFixedDelay(this::sweep,
+                properties.getSweepIntervalInMs(),
+                properties.getSweepIntervalInMs(), TimeUnit.MILLISECONDS);
+    }
+
+    GameSessionService(PoolWrapper poolWrapper,
+                       EvaluationCache evaluationCache,
+                       GameSessionProperties properties, LongSupplier clock) {
+        this.poolWrapper = poolWrapper;
+        this.evaluationCache = evaluationCache;
+        this.properties = properties;
+        this.clock = clock;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ponderExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "game-session-ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public GameSessionResponse create(String fen) {
+        return create(fen, EngineProfile.DEFAULT);
+    }
+
+    public GameSessionResponse create(String fen, String profile) {
+        return create(fen, profile, false);
+    }
+
+    public GameSessionResponse create(String fen, String profile,
+                                      boolean ponder) {
+        String engineProfile = this.poolWrapper.checkProfile(profile);
+        Position position = toPosition(fen);
+        if (this.sessionSlots.incrementAndGet() > this.properties.getMaxSessions()) {
+            this.sessionSlots.decrementAndGet();
+            throw new TooManyGameSessionsException(this.properties.getMaxSessions());
+        }
+        GameSession session = new GameSession(UUID.randomUUID().toString(),
+                fen, engineProfile, ponder, position, this.clock.getAsLong());
+        this.sessions.put(session.getId(), session);
+        return toResponse(session);
+    }
+
+    public GameSessionResponse get(String id) {
+        GameSession session = getSession(id);
+        synchronized (session) {
+            return toResponse(session);
+        }
+    }
+
+    public GameSessionResponse play(String id, List<String> moves) {
+        GameSession session = getSession(id);
+        synchronized (session) {
+            try {
+                session.setPosition(MoveGenerator.playUciMoves(session.getPosition(),
+                        moves));
+            } catch (IllegalBoardMoveException e) {
+                throw new InvalidMoveException(e);
+            } catch (InvalidNotationException e) {
+                throw new InvalidSyntaxException(e);
+            }
+            session.getMoves().addAll(moves);
+            if (Objects.nonNull(session.getEngine()) || session.isBusy()) {
+                session.getUnsentMoves().addAll(moves);
+                Ponder ponder = session.getPonder();
+                if (Objects.nonNull(ponder)
+                        && !ponder.isOnLine(session.getUnsentMoves())) {
+                    ponder.cancel();
+                }
+            }
+            session.setLastAccessAt(this.clock.getAsLong());
+            return toResponse(session);
+        }
+    }
+
+    public CompletableFuture<BestMoveResponse> findBestMove(String id,
+                                                            EvaluationParameters evaluationParameters) {
+        return search(getSession(id), EvaluationType.BEST_MOVE,
+                EngineTask.BEST_MOVE, evaluationParameters,
+                BestMoveResponse.class, (engineWorker, ponderHit) -> BestMoveResponse
+                        .builder()
+                        .bestMove(Objects.nonNull(ponderHit) ? ponderHit.await() :
+                                engineWorker.findBestMove(evaluationParameters))
+                        .source(MoveSource.ENGINE)
+                        .build(), BestMoveResponse::getBestMove);
+    }
+
+    public CompletableFuture<PositionEvaluationResponse> getPositionEvaluation(String id,
+                                                                               EvaluationParameters evaluationParameters) {
+        return search(getSession(id), EvaluationType.POSITION_EVALUATION,
+                EngineTask.POSITION_EVALUATION, evaluationParameters,
+                PositionEvaluationResponse.class,
+                (engineWorker, ponderHit) -> PositionEvaluationResponseMapper.toPositionEvaluationResponse(engineWorker.getPositionEvaluation(evaluationParameters)),
+                null);
+    }
+
+    public void close(String id) {
+        GameSession session = this.sessions.get(id);
+        if (Objects.isNull(session) || !remove(session)) {
+            throw new GameSessionNotFoundException(id);
+        }
+        release(session, true);
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    public int getPinnedEngineCount() {
+        return this.pinnedEngines.get();
+    }
+
+    public long getPonderHitCount() {
+        return this.ponderHits.get();
+    }
+
+    public long getPonderMissCount() {
+        return this.ponderMisses.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.sweeper.shutdownNow();
+        for (GameSession session : new ArrayList<>(this.sessions.values())) {
+            remove(session);
+            release(session, true);
+        }
+        this.ponderExecutor.shutdownNow();
+    }
+
+    void sweep() {
+        long now = this.clock.getAsLong();
+        boolean underPressure = isPoolUnderPressure();
+        for (GameSession session : new ArrayList<>(this.sessions.values())) {
+            if (session.isBusy()) {
+                continue;
+            }
+            long idle = now - session.getLastAccessAt();
+            if (idle >= this.properties.getIdleTimeoutInMs()) {
+                remove(session);
+                release(session, true);
+            } else if (idle >= this.properties.getEngineIdleTimeoutInMs()
+                    || (underPressure && Objects.nonNull(session.getPonder()))) {
+                release(session, false);
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> search(GameSession session,
+                                            EvaluationType type,
+                                            EngineTask task,
+                                            EvaluationParameters evaluationParameters,
+                                            Class<T> responseClass,
+                                            EngineCall<T> call,
+                                            Function<T, String> bestMoveOf) {
+        String normalizedFen;
+        synchronized (session) {
+            session.setLastAccessAt(this.clock.getAsLong());
+            normalizedFen = session.getPosition().toNormalizedFen();
+        }
+        // Engines of other profiles may not play at full strength, so only
+        // default sessions share results through the cache.
+        boolean cached = session.getProfile().equals(EngineProfile.DEFAULT);
+        Optional<T> cachedResponse = cached ? this.evaluationCache.get(type,
+                normalizedFen, evaluationParameters, responseClass) :
+                Optional.empty();
+        if (cachedResponse.isPresent()) {
+            return CompletableFuture.completedFuture(cachedResponse.get());
+        }
+        BiConsumer<String, T> searched = (searchedFen, result) -> {
+            if (cached) {
+                this.evaluationCache.put(type, searchedFen,
+                        evaluationParameters, result);
+            }
+        };
+        Callable<T> callable = () -> runOnSessionEngine(session, call,
+                Objects.isNull(bestMoveOf) ? null : evaluationParameters,
+                bestMoveOf, searched);
+        synchronized (session) {
+            // Queued once the previous search of the session has ended, so
+            // that a waiting search does not hold a pool worker.
+            CompletableFuture<T> search = session.getLastSearch()
+                    .handle((ignored, error) -> null)
+                    .thenCompose(ignored -> this.poolWrapper.queueTask(task,
+                            evaluationParameters, callable));
+            session.setLastSearch(search);
+            return search;
+        }
+    }
+
+    /**
+     * Runs the call on the session engine. For best moves, a ponder that
+     * predicted the game is handed to the call, and a new ponder is started
+     * from the answer. The session is only locked to take its engine and to
+     * give it back, so it can still be read, played on or closed meanwhile.
+     * The result is handed over with the position it was searched on, taken
+     * together with the moves sent to the engine.
+     */
+    private <T> T runOnSessionEngine(GameSession session, EngineCall<T> call,
+                                     EvaluationParameters bestMoveParameters,
+                                     Function<T, String> bestMoveOf,
+                                     BiConsumer<String, T> searched) throws Exception {
+        ChessEngine engineWorker;
+        Ponder ponder;
+        String normalizedFen;
+        List<String> moves;
+        List<String> unsentMoves;
+        synchronized (session) {
+            if (session.isClosed()) {
+                throw new GameSessionNotFoundException(session.getId());
+            }
+            session.setBusy(true);
+            engineWorker = session.getEngine();
+            ponder = session.getPonder();
+            session.setPonder(null);
+            normalizedFen = session.getPosition().toNormalizedFen();
+            moves = new ArrayList<>(session.getMoves());
+            unsentMoves = new ArrayList<>(session.getUnsentMoves());
+            session.getUnsentMoves().clear();
+        }
+        boolean pinned = Objects.nonNull(engineWorker);
+        T result;
+        try {
+            Ponder ponderHit = null;
+            if (pinned) {
+                ponderHit = takePonderHit(ponder, unsentMoves,
+                        bestMoveParameters);
+                if (Objects.isNull(ponderHit)) {
+                    catchUp(engineWorker, session, ponder, moves, unsentMoves);
+                }
+            } else {
+                engineWorker = this.poolWrapper.borrowEngine(session.getProfile());
+                replay(engineWorker, session, moves, true);
+            }
+            result = call.apply(engineWorker, ponderHit);
+        } catch (Exception e) {
+            giveUp(session, engineWorker, pinned, e);
+            if (e instanceof IOException || e instanceof TimeoutException) {
+                throw new ChessEngineWorkerExecutionException(e);
+            }
+            throw e;
+        }
+        searched.accept(normalizedFen, result);
+        boolean giveBack;
+        synchronized (session) {
+            session.setBusy(false);
+            giveBack = session.isClosed();
+            if (giveBack) {
+                session.getUnsentMoves().clear();
+                if (pinned) {
+                    session.setEngine(null);
+                    this.pinnedEngines.decrementAndGet();
+                }
+            } else {
+                if (!pinned) {
+                    pin(session, engineWorker);
+                }
+                if (Objects.nonNull(bestMoveOf)) {
+                    startPondering(session, bestMoveOf.apply(result),
+                            bestMoveParameters);
+                }
+                session.setLastAccessAt(this.clock.getAsLong());
+            }
+        }
+        if (giveBack) {
+            this.poolWrapper.returnEngine(engineWorker);
+        }
+        return result;
+    }
+
+    private Ponder takePonderHit(Ponder ponder, List<String> unsentMoves,
+                                 EvaluationParameters bestMoveParameters) {
+        if (Objects.nonNull(ponder) && Objects.nonNull(bestMoveParameters)
+                && ponder.isHit(unsentMoves, bestMoveParameters)) {
+            this.ponderHits.incrementAndGet();
+            return ponder;
+        }
+        return null;
+    }
+
+    /**
+     * Brings the pinned engine to the session position. A discarded ponder
+     * is waited for, then the moves it played are dropped from the unsent
+     * ones, or the game is replayed when it left the game line.
+     */
+    private void catchUp(ChessEngine engineWorker, GameSession session,
+                         Ponder ponder, List<String> moves,
+                         List<String> unsentMoves) throws Exception {
+        if (Objects.nonNull(ponder)) {
+            this.ponderMisses.incrementAndGet();
+            List<String> played = ponder.discard();
+            if (unsentMoves.size() >= played.size()
+                    && unsentMoves.subList(0, played.size()).equals(played)) {
+                unsentMoves.subList(0, played.size()).clear();
+            } else {
+                replay(engineWorker, session, moves, false);
+                unsentMoves.clear();
+            }
+        }
+        if (!unsentMoves.isEmpty()) {
+            engineWorker.move(unsentMoves);
+        }
+    }
+
+    private void startPondering(GameSession session, String bestMove,
+                                EvaluationParameters evaluationParameters) {
+        ChessEngine engineWorker = session.getEngine();
+        if (!session.isPonderEnabled() || Objects.isNull(engineWorker)
+                || Objects.isNull(bestMove) || !isBounded(evaluationParameters)
+                || isPoolUnderPressure()) {
+            return;
+        }
+        Ponder ponder = new Ponder(bestMove, evaluationParameters);
+        EvaluationParameters predictionParameters = EvaluationParameters
+                .builder()
+                .depth(this.properties.getPonderPredictionDepth())
+                .build();
+        session.setPonder(ponder);
+        this.ponderExecutor.execute(() -> ponder.run(engineWorker,
+                predictionParameters));
+    }
+
+    private static boolean isBounded(EvaluationParameters evaluationParameters) {
+        return Objects.nonNull(evaluationParameters.getDepth())
+                || Objects.nonNull(evaluationParameters.getTimeInMs());
+    }
+
+    private boolean isPoolUnderPressure() {
+        return this.poolWrapper.getStatistics().getQueued() > 0;
+    }
+
+    private void replay(ChessEngine engineWorker, GameSession session,
+                        List<String> moves, boolean newGame) throws Exception {
+        if (Objects.isNull(session.getStartFen())) {
+            engineWorker.moveToStartPosition(newGame);
+        } else {
+            engineWorker.moveToFenPosition(session.getStartFen(), newGame);
+        }
+        if (!moves.isEmpty()) {
+            engineWorker.move(moves);
+        }
+    }
+
+    private void pin(GameSession session, ChessEngine engineWorker) {
+        if (this.pinnedEngines.incrementAndGet() <= this.properties.getMaxPinnedEngines()) {
+            session.setEngine(engineWorker);
+        } else {
+            this.pinnedEngines.decrementAndGet();
+            this.poolWrapper.returnEngine(engineWorker);
+        }
+    }
+
+    private void giveUp(GameSession session, ChessEngine engineWorker,
+                        boolean pinned, Throwable reason) throws Exception {
+        synchronized (session) {
+            session.setBusy(false);
+            session.getUnsentMoves().clear();
+            if (pinned) {
+                session.setEngine(null);
+                this.pinnedEngines.decrementAndGet();
+            }
+        }
+        if (Objects.nonNull(engineWorker)) {
+            this.poolWrapper.recoverEngine(engineWorker, reason);
+        }
+    }
+
+    /**
+     * Gives the session engine back to the pool, once its ponder has ended
+     * when there is one. A busy session gives its engine back at the end of
+     * the search.
+     */
+    private void release(GameSession session, boolean close) {
+        ChessEngine engineWorker;
+        Ponder ponder;
+        synchronized (session) {
+            session.setClosed(session.isClosed() || close);
+            engineWorker = session.getEngine();
+            if (session.isBusy() || Objects.isNull(engineWorker)) {
+                return;
+            }
+            ponder = session.getPonder();
+            session.setPonder(null);
+            session.setEngine(null);
+            session.getUnsentMoves().clear();
+            this.pinnedEngines.decrementAndGet();
+        }
+        if (Objects.isNull(ponder)) {
+            this.poolWrapper.returnEngine(engineWorker);
+            return;
+        }
+        this.ponderMisses.incrementAndGet();
+        ponder.cancel();
+        ponder.whenEnded(failure -> giveBack(engineWorker, failure));
+    }
+
+    private void giveBack(ChessEngine engineWorker, Throwable failure) {
+        if (Objects.isNull(failure)) {
+            this.poolWrapper.returnEngine(engineWorker);
+            return;
+        }
+        try {
+            this.poolWrapper.recoverEngine(engineWorker, failure);
+        } catch (Exception recoveryFailure) {
+            // the engine is already out of the session
+        }
+    }
+
+    private boolean remove(GameSession session) {
+        if (this.sessions.remove(session.getId(), session)) {
+            this.sessionSlots.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private GameSession getSession(String id) {
+        GameSession session = this.sessions.get(id);
+        if (Objects.isNull(session)) {
+            throw new GameSessionNotFoundException(id);
+        }
+        return session;
+    }
+
+    private static GameSessionResponse toResponse(GameSession session) {
+        return GameSessionResponse.builder()
+                .id(session.getId())
+                .fen(session.getPosition().toFen())
+                .moves(new ArrayList<>(session.getMoves()))
+                .build();
+    }
+
+    private static Position toPosition(String fen) {
+        if (Objects.isNull(fen)) {
+            return Position.startPosition();
+        }
+        try {
+            return Position.fromFen(fen);
+        } catch (InvalidFenException e) {
+            throw new InvalidMoveException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EngineCall<T> {
+        T apply(ChessEngine engineWorker, Ponder ponderHit) throws Exception;
+    }
+}
@@ -0,0 +1,127 @@
+package com.xchess.engine.api.session;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Search run on a pinned engine while the opponent thinks. The engine plays
+ * the move it just answered, predicts the reply with a short search, plays
+ * it and searches the resulting position with the parameters of the last
+ * request. If the game goes on as predicted, the next best move request
+ * takes over this search instead of starting a new one.
+ * <p>
+ * The engine cannot be interrupted without ending its process, so both
+ * searches are bounded and a discarded ponder only skips the searches that
+ * have not started yet.
+ */
+class Ponder {
+    private final String move;
+    private final EvaluationParameters evaluationParameters;
+    private final List<String> line = Collections.synchronizedList(new ArrayList<>());
+    private final CompletableFuture<String> bestMove = new CompletableFuture<>();
+    private volatile boolean discarded;
+
+    Ponder(String move, EvaluationParameters evaluationParameters) {
+        this.move = move;
+        this.evaluationParameters = evaluationParameters;
+    }
+
+    void run(ChessEngine engineWorker,
+             EvaluationParameters predictionParameters) {
+        try {
+            play(engineWorker, this.move);
+            String reply = this.discarded ? null :
+                    engineWorker.findBestMove(predictionParameters);
+            if (Objects.isNull(reply) || this.discarded) {
+                this.bestMove.complete(null);
+                return;
+            }
+            play(engineWorker, reply);
+            this.bestMove.complete(this.discarded ? null :
+                    engineWorker.findBestMove(this.evaluationParameters));
+        } catch (Exception e) {
+            this.bestMove.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Whether the moves played since the ponder started are the predicted
+     * line and the search is the one requested.
+     */
+    boolean isHit(List<String> playedMoves,
+                  EvaluationParameters evaluationParameters) {
+        return !this.discarded
+                && this.line.size() == 2
+                && this.line.equals(playedMoves)
+                && Objects.equals(this.evaluationParameters.getDepth(),
+                evaluationParameters.getDepth())
+                && Objects.equals(this.evaluationParameters.getTimeInMs(),
+                evaluationParameters.getTimeInMs());
+    }
+
+    /**
+     * Whether the moves played since the ponder started may still lead to
+     * a hit.
+     */
+    boolean isOnLine(List<String> playedMoves) {
+        List<String> line;
+        synchronized (this.line) {
+            line = new ArrayList<>(this.line);
+        }
+        if (playedMoves.isEmpty()) {
+            return true;
+        }
+        return playedMoves.size() <= 2
+                && playedMoves.get(0).equals(this.move)
+                && (playedMoves.size() == 1 || line.size() < 2
+                || line.get(1).equals(playedMoves.get(1)));
+    }
+
+    String await() throws Exception {
+        try {
+            return this.bestMove.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ?
+                    (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Gives up the ponder without waiting: searches not started yet are
+     * skipped and the running one is left to end.
+     */
+    void cancel() {
+        this.discarded = true;
+    }
+
+    void whenEnded(Consumer<Throwable> action) {
+        this.bestMove.whenComplete((bestMove, failure) -> action.accept(failure));
+    }
+
+    /**
+     * Gives up the ponder and waits for the running search to end. A failed
+     * ponder is rethrown as the engine state is then unknown.
+     *
+     * @return the moves the engine played on top of the session position
+     */
+    List<String> discard() throws Exception {
+        cancel();
+        await();
+        synchronized (this.line) {
+            return new ArrayList<>(this.line);
+        }
+    }
+
+    private void play(ChessEngine engineWorker, String uci) throws Exception {
+        engineWorker.move(Collections.singletonList(uci));
+        this.line.add(uci);
+    }
+}
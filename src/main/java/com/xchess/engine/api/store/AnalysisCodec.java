@@ -0,0 +1,100 @@
+package com.xchess.engine.api.store;
+
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of stored analyses: key hash, evaluation type, depth,
+ * normalized FEN, then the result fields of the evaluation type.
+ */
+final class AnalysisCodec {
+    private AnalysisCodec() {
+    }
+
+    static long hash(EvaluationType type, String normalizedFen) {
+        long hash = 0xCBF29CE484222325L ^ type.ordinal();
+        for (byte b : normalizedFen.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    static byte[] encode(EvaluationType type, String normalizedFen, int depth,
+                         Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(hash(type, normalizedFen));
+        out.writeByte(type.ordinal());
+        out.writeInt(depth);
+        out.writeUTF(normalizedFen);
+        switch (type) {
+            case BEST_MOVE:
+                out.writeUTF(((BestMoveResponse) value).getBestMove());
+                break;
+            case POSITION_EVALUATION:
+                PositionEvaluationResponse evaluation =
+                        (PositionEvaluationResponse) value;
+                out.writeUTF(evaluation.getType().name());
+                out.writeUTF(evaluation.getColor().name());
+                out.writeInt(evaluation.getValue());
+                break;
+            default:
+                throw new IllegalArgumentException("Cannot store " + type);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static StoredAnalysis decode(ByteBuffer body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                body.array(), body.arrayOffset() + body.position(),
+                body.remaining()));
+        long hash = in.readLong();
+        EvaluationType type = EvaluationType.values()[in.readByte()];
+        int depth = in.readInt();
+        String normalizedFen = in.readUTF();
+        Object value;
+        switch (type) {
+            case BEST_MOVE:
+                value = BestMoveResponse.builder()
+                        .bestMove(in.readUTF())
+                        .source(MoveSource.ENGINE)
+                        .build();
+                break;
+            case POSITION_EVALUATION:
+                value = PositionEvaluationResponse.builder()
+                        .type(ChessEngineEvaluationType.valueOf(in.readUTF()))
+                        .color(ChessColor.valueOf(in.readUTF()))
+                        .value(in.readInt())
+                        .build();
+                break;
+            default:
+                throw new IOException("Unknown evaluation type " + type);
+        }
+        return new StoredAnalysis(hash, type, depth, normalizedFen, value);
+    }
+
+    /**
+     * Key hash and depth only, enough to rebuild the index.
+     */
+    static long hashOf(ByteBuffer body) {
+        return body.getLong(body.position());
+    }
+
+    static int depthOf(ByteBuffer body) {
+        return body.getInt(body.position() + Long.BYTES + 1);
+    }
+}
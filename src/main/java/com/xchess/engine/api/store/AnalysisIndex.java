@@ -0,0 +1,124 @@
+package com.xchess.engine.api.store;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table from 64 bit key hashes to the log offset, depth
+ * and size of the latest record of each key, kept in primitive arrays so
+ * that millions of entries cost a few tens of bytes each.
+ */
+class AnalysisIndex {
+    private static final long EMPTY = 0;
+
+    private long[] hashes;
+    private long[] offsets;
+    private int[] depths;
+    private int[] lengths;
+    private int size;
+    private long liveBytes;
+
+    AnalysisIndex(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Slot of the hash, or -1 when it is not indexed.
+     */
+    int find(long hash) {
+        int mask = this.hashes.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            if (this.hashes[slot] == hash) {
+                return slot;
+            }
+            if (this.hashes[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    void put(long hash, long offset, int depth, int length) {
+        if ((this.size + 1) * 2 > this.hashes.length) {
+            grow();
+        }
+        int mask = this.hashes.length - 1;
+        int slot = mix(hash) & mask;
+        while (this.hashes[slot] != EMPTY && this.hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        if (this.hashes[slot] == EMPTY) {
+            this.size++;
+        } else {
+            this.liveBytes -= this.lengths[slot];
+        }
+        this.hashes[slot] = hash;
+        this.offsets[slot] = offset;
+        this.depths[slot] = depth;
+        this.lengths[slot] = length;
+        this.liveBytes += length;
+    }
+
+    int capacity() {
+        return this.hashes.length;
+    }
+
+    boolean isUsed(int slot) {
+        return this.hashes[slot] != EMPTY;
+    }
+
+    long hashAt(int slot) {
+        return this.hashes[slot];
+    }
+
+    long offsetAt(int slot) {
+        return this.offsets[slot];
+    }
+
+    int depthAt(int slot) {
+        return this.depths[slot];
+    }
+
+    int lengthAt(int slot) {
+        return this.lengths[slot];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    long getLiveBytes() {
+        return this.liveBytes;
+    }
+
+    private void grow() {
+        long[] oldHashes = this.hashes;
+        long[] oldOffsets = this.offsets;
+        int[] oldDepths = this.depths;
+        int[] oldLengths = this.lengths;
+        allocate(oldHashes.length * 2);
+        for (int slot = 0; slot < oldHashes.length; slot++) {
+            if (oldHashes[slot] != EMPTY) {
+                put(oldHashes[slot], oldOffsets[slot], oldDepths[slot],
+                        oldLengths[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.hashes = new long[capacity];
+        this.offsets = new long[capacity];
+        this.depths = new int[capacity];
+        this.lengths = new int[capacity];
+        Arrays.fill(this.hashes, EMPTY);
+        this.size = 0;
+        this.liveBytes = 0;
+    }
+
+    private static int mix(long hash) {
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
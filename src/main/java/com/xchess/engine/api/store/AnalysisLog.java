@@ -0,0 +1,233 @@
+package com.xchess.engine.api.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record log mapped in memory by fixed size segments. A record
+ * is its body length, the body and a CRC32 of the body; records never span
+ * two segments. The length is written last, so a record torn by a crash
+ * reads as the end of the log. The first segment starts with a header
+ * holding the generation of the log, which changes on every compaction.
+ */
+class AnalysisLog implements Closeable {
+    static final int HEADER_SIZE = 16;
+
+    private static final int MAGIC = 0x58434153;
+    private static final int VERSION = 1;
+    private static final int END = 0;
+    private static final int SKIP = -1;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final long generation;
+    private long writePosition;
+
+    private AnalysisLog(FileChannel channel, int segmentSize,
+                        long generation) {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.generation = generation;
+    }
+
+    static AnalysisLog create(Path path, int segmentSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        AnalysisLog log = new AnalysisLog(channel, segmentSize,
+                ThreadLocalRandom.current().nextLong());
+        MappedByteBuffer first = log.segment(0);
+        first.putInt(0, MAGIC);
+        first.putInt(4, VERSION);
+        first.putLong(8, log.generation);
+        log.writePosition = HEADER_SIZE;
+        return log;
+    }
+
+    /**
+     * Opens an existing log, leaving the write position at the start so
+     * that {@link #scan} can find the end.
+     */
+    static AnalysisLog open(Path path, int segmentSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE || channel.size() % segmentSize != 0) {
+            channel.close();
+            throw new IOException(path + " is not an analysis log with "
+                    + segmentSize + " byte segments");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not an analysis log");
+        }
+        AnalysisLog log = new AnalysisLog(channel, segmentSize,
+                header.getLong(8));
+        log.writePosition = HEADER_SIZE;
+        return log;
+    }
+
+    long getGeneration() {
+        return this.generation;
+    }
+
+    long getWritePosition() {
+        return this.writePosition;
+    }
+
+    /**
+     * Visits every valid record from the given position, then moves the
+     * write position after the last one. Anything after a torn or corrupt
+     * record is wiped.
+     */
+    void scan(long from, ObjLongConsumer<ByteBuffer> visitor) throws IOException {
+        long fileSize = this.channel.size();
+        long position = Math.max(from, HEADER_SIZE);
+        while (position < fileSize) {
+            MappedByteBuffer segment = segment(position);
+            int offset = offsetInSegment(position);
+            if (this.segmentSize - offset < Integer.BYTES) {
+                position = nextSegment(position);
+                continue;
+            }
+            int length = segment.getInt(offset);
+            if (length == SKIP) {
+                position = nextSegment(position);
+                continue;
+            }
+            if (length == END) {
+                break;
+            }
+            ByteBuffer body = bodyAt(segment, offset, length);
+            if (Objects.isNull(body)) {
+                wipeFrom(position);
+                break;
+            }
+            visitor.accept(body, position);
+            position += recordSize(length);
+        }
+        this.writePosition = position;
+    }
+
+    /**
+     * Appends a record and returns its position.
+     */
+    long append(byte[] body) throws IOException {
+        int size = recordSize(body.length);
+        if (size > this.segmentSize - HEADER_SIZE) {
+            throw new IOException("Record of " + body.length
+                    + " bytes does not fit in a segment");
+        }
+        int offset = offsetInSegment(this.writePosition);
+        if (this.segmentSize - offset < size) {
+            if (this.segmentSize - offset >= Integer.BYTES) {
+                segment(this.writePosition).putInt(offset, SKIP);
+            }
+            this.writePosition = nextSegment(this.writePosition);
+            offset = 0;
+        }
+        long position = this.writePosition;
+        MappedByteBuffer segment = segment(position);
+        ByteBuffer target = segment.duplicate();
+        target.position(offset + Integer.BYTES);
+        target.put(body);
+        target.putInt((int) crc(body, 0, body.length));
+        segment.putInt(offset, body.length);
+        this.writePosition = position + size;
+        return position;
+    }
+
+    /**
+     * Body of the record at the given position, or nothing when it is not
+     * a valid record.
+     */
+    ByteBuffer read(long position) throws IOException {
+        MappedByteBuffer segment = segment(position);
+        int offset = offsetInSegment(position);
+        return bodyAt(segment, offset, segment.getInt(offset));
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        this.segments.clear();
+        this.channel.close();
+    }
+
+    static int recordSize(int bodyLength) {
+        return Integer.BYTES + bodyLength + Integer.BYTES;
+    }
+
+    private ByteBuffer bodyAt(MappedByteBuffer segment, int offset, int length) {
+        if (length <= 0 || (long) offset + recordSize(length) > this.segmentSize) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer source = segment.duplicate();
+        source.position(offset + Integer.BYTES);
+        source.get(bytes);
+        int expected = segment.getInt(offset + Integer.BYTES + length);
+        if ((int) crc(bytes, 0, length) != expected) {
+            return null;
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private void wipeFrom(long position) throws IOException {
+        MappedByteBuffer segment = segment(position);
+        for (int offset = offsetInSegment(position); offset < this.segmentSize;
+             offset++) {
+            segment.put(offset, (byte) 0);
+        }
+        long end = nextSegment(position);
+        if (this.channel.size() > end) {
+            while (this.segments.size() > end / this.segmentSize) {
+                this.segments.remove(this.segments.size() - 1);
+            }
+            this.channel.truncate(end);
+        }
+    }
+
+    private MappedByteBuffer segment(long position) throws IOException {
+        int index = (int) (position / this.segmentSize);
+        while (this.segments.size() <= index) {
+            this.segments.add(this.channel.map(FileChannel.MapMode.READ_WRITE,
+                    (long) this.segments.size() * this.segmentSize,
+                    this.segmentSize));
+        }
+        return this.segments.get(index);
+    }
+
+    private int offsetInSegment(long position) {
+        return (int) (position % this.segmentSize);
+    }
+
+    private long nextSegment(long position) {
+        return (position / this.segmentSize + 1) * this.segmentSize;
+    }
+
+    private static long crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+}
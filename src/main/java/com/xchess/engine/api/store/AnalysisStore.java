@@ -0,0 +1,347 @@
+package com.xchess.engine.api.store;
+
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Engine results kept on disk across restarts, looked up after the
+ * in-memory cache. Results are appended to a memory-mapped log and found
+ * through an in-memory hash index; like the cache, a result searched at
+ * depth N answers requests up to depth N and only a deeper result replaces
+ * it. Results of time-limited searches are not stored. The index is saved
+ * next to the log on shutdown, so a restart only replays the records
+ * appended since. Compaction rewrites the log with the live records once
+ * replaced ones make up too much of it.
+ */
+@Component
+public class AnalysisStore {
+    static final String LOG_FILE = "analysis.log";
+    static final String INDEX_FILE = "analysis.idx";
+
+    private static final long INDEX_MAGIC = 0x5843415349445831L;
+    private static final int INDEX_HEADER_SIZE = 28;
+    private static final int INDEX_ENTRY_SIZE = 24;
+
+    private final AnalysisStoreProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Path directory;
+    private final ScheduledExecutorService compactor;
+    private AnalysisLog analysisLog;
+    private AnalysisIndex index;
+
+    @Autowired
+    public AnalysisStore(AnalysisStoreProperties properties) {
+        this.properties = properties;
+        if (!properties.isEnabled()) {
+            this.directory = null;
+            this.compactor = null;
+            return;
+        }
+        this.directory = Paths.get(properties.getDirectory());
+        try {
+            open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open analysis store in "
+                    + this.directory, e);
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compactor.scheduleWithFixedDelay(this::compactIfNeeded,
+                properties.getCompactionCheckIntervalInMs(),
+                properties.getCompactionCheckIntervalInMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(this.directory);
+    }
+
+    public <T> Optional<T> get(EvaluationType type, String normalizedFen,
+                               EvaluationParameters evaluationParameters,
+                               Class<T> valueClass) {
+        Integer depth = evaluationParameters.getDepth();
+        if (!isEnabled() || Objects.isNull(depth)) {
+            return Optional.empty();
+        }
+        long hash = AnalysisCodec.hash(type, normalizedFen);
+        this.lock.readLock().lock();
+        try {
+            int slot = this.index.find(hash);
+            if (slot < 0 || this.index.depthAt(slot) < depth) {
+                this.misses.incrementAndGet();
+                return Optional.empty();
+            }
+            ByteBuffer body = this.analysisLog.read(this.index.offsetAt(slot));
+            StoredAnalysis analysis = Objects.isNull(body) ? null
+                    : AnalysisCodec.decode(body);
+            if (Objects.isNull(analysis) || analysis.getType() != type
+                    || !analysis.getNormalizedFen().equals(normalizedFen)) {
+                this.misses.incrementAndGet();
+                return Optional.empty();
+            }
+            this.hits.incrementAndGet();
+            return Optional.of(valueClass.cast(analysis.getValue()));
+        } catch (IOException e) {
+            this.failures.incrementAndGet();
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public void put(EvaluationType type, String normalizedFen,
+                    EvaluationParameters evaluationParameters, Object value) {
+        Integer depth = evaluationParameters.getDepth();
+        if (!isEnabled() || Objects.isNull(depth)
+                || Objects.nonNull(evaluationParameters.getTimeInMs())) {
+            return;
+        }
+        long hash = AnalysisCodec.hash(type, normalizedFen);
+        this.lock.writeLock().lock();
+        try {
+            int slot = this.index.find(hash);
+            if (slot >= 0 && this.index.depthAt(slot) >= depth) {
+                return;
+            }
+            byte[] body = AnalysisCodec.encode(type, normalizedFen, depth,
+                    value);
+            long position = this.analysisLog.append(body);
+            this.index.put(hash, position, depth,
+                    AnalysisLog.recordSize(body.length));
+        } catch (IOException e) {
+            this.failures.incrementAndGet();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the latest record of each key.
+     */
+    public void compact() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        this.lock.writeLock().lock();
+        try {
+            Path compacting = this.directory.resolve(LOG_FILE + ".compacting");
+            AnalysisLog compacted = AnalysisLog.create(compacting,
+                    this.properties.getSegmentSizeInBytes());
+            AnalysisIndex compactedIndex = new AnalysisIndex(this.index.size());
+            try {
+                for (int slot = 0; slot < this.index.capacity(); slot++) {
+                    if (!this.index.isUsed(slot)) {
+                        continue;
+                    }
+                    ByteBuffer body = this.analysisLog.read(this.index.offsetAt(slot));
+                    if (Objects.isNull(body)) {
+                        continue;
+                    }
+                    byte[] bytes = new byte[body.remaining()];
+                    body.get(bytes);
+                    compactedIndex.put(this.index.hashAt(slot),
+                            compacted.append(bytes), this.index.depthAt(slot),
+                            this.index.lengthAt(slot));
+                }
+                compacted.force();
+                // the index is only trusted with a log of the same
+                // generation, so a crash between the two moves is safe
+                writeIndex(compacted, compactedIndex);
+                Files.move(compacting, this.directory.resolve(LOG_FILE),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                compacted.close();
+                Files.deleteIfExists(compacting);
+                throw e;
+            }
+            this.analysisLog.close();
+            this.analysisLog = compacted;
+            this.index = compactedIndex;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int getSize() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        this.lock.readLock().lock();
+        try {
+            return this.index.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Share of the log taken by records that have been replaced.
+     */
+    public double getGarbageRatio() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        this.lock.readLock().lock();
+        try {
+            long used = this.analysisLog.getWritePosition() - AnalysisLog.HEADER_SIZE;
+            return used <= 0 ? 0 : 1 - (double) this.index.getLiveBytes() / used;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * Reads, writes and compactions that failed on I/O; the store keeps
+     * answering from what it can read and requests fall back to the engine.
+     */
+    public long getFailureCount() {
+        return this.failures.get();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        this.compactor.shutdownNow();
+        this.lock.writeLock().lock();
+        try {
+            this.analysisLog.force();
+            writeIndex(this.analysisLog, this.index);
+            this.analysisLog.close();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    void compactIfNeeded() {
+        if (getGarbageRatio() < this.properties.getCompactionGarbageRatio()) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            this.failures.incrementAndGet();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(this.directory);
+        Path logPath = this.directory.resolve(LOG_FILE);
+        int segmentSize = this.properties.getSegmentSizeInBytes();
+        if (!Files.exists(logPath)) {
+            this.analysisLog = AnalysisLog.create(logPath, segmentSize);
+            this.index = new AnalysisIndex(0);
+            return;
+        }
+        this.analysisLog = AnalysisLog.open(logPath, segmentSize);
+        long replayFrom = readIndex();
+        AnalysisIndex rebuilt = this.index;
+        this.analysisLog.scan(replayFrom, (body, position) -> rebuilt.put(
+                AnalysisCodec.hashOf(body), position,
+                AnalysisCodec.depthOf(body),
+                AnalysisLog.recordSize(body.remaining())));
+    }
+
+    /**
+     * Loads the saved index when it matches the log, and returns the log
+     * position it covers.
+     */
+    private long readIndex() throws IOException {
+        Path indexPath = this.directory.resolve(INDEX_FILE);
+        if (Files.exists(indexPath)) {
+            try (FileChannel channel = FileChannel.open(indexPath,
+                    StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() >= INDEX_HEADER_SIZE
+                        && buffer.getLong(0) == INDEX_MAGIC
+                        && buffer.getLong(8) == this.analysisLog.getGeneration()) {
+                    long covered = buffer.getLong(16);
+                    int count = buffer.getInt(24);
+                    if (buffer.capacity() == INDEX_HEADER_SIZE
+                            + (long) count * INDEX_ENTRY_SIZE) {
+                        this.index = new AnalysisIndex(count);
+                        for (int entry = 0; entry < count; entry++) {
+                            int offset = INDEX_HEADER_SIZE
+                                    + entry * INDEX_ENTRY_SIZE;
+                            this.index.put(buffer.getLong(offset),
+                                    buffer.getLong(offset + 8),
+                                    buffer.getInt(offset + 16),
+                                    buffer.getInt(offset + 20));
+                        }
+                        return covered;
+                    }
+                }
+            }
+        }
+        this.index = new AnalysisIndex(0);
+        return AnalysisLog.HEADER_SIZE;
+    }
+
+    private void writeIndex(AnalysisLog target,
+                            AnalysisIndex targetIndex) throws IOException {
+        Path indexPath = this.directory.resolve(INDEX_FILE);
+        Path temporary = this.directory.resolve(INDEX_FILE + ".tmp");
+        long size = INDEX_HEADER_SIZE
+                + (long) targetIndex.size() * INDEX_ENTRY_SIZE;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                    0, size);
+            buffer.putLong(INDEX_MAGIC);
+            buffer.putLong(target.getGeneration());
+            buffer.putLong(target.getWritePosition());
+            buffer.putInt(targetIndex.size());
+            for (int slot = 0; slot < targetIndex.capacity(); slot++) {
+                if (targetIndex.isUsed(slot)) {
+                    buffer.putLong(targetIndex.hashAt(slot));
+                    buffer.putLong(targetIndex.offsetAt(slot));
+                    buffer.putInt(targetIndex.depthAt(slot));
+                    buffer.putInt(targetIndex.lengthAt(slot));
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
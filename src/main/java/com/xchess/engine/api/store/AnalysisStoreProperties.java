@@ -0,0 +1,18 @@
+package com.xchess.engine.api.store;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "store.analysis")
+public class AnalysisStoreProperties {
+    private boolean enabled;
+    private String directory;
+    private int segmentSizeInBytes = 64 * 1024 * 1024;
+    private double compactionGarbageRatio = 0.5;
+    private long compactionCheckIntervalInMs = 600000;
+}
@@ -0,0 +1,13 @@
+package com.xchess.engine.api.store;
+
+import com.xchess.engine.api.cache.EvaluationType;
+import lombok.Value;
+
+@Value
+class StoredAnalysis {
+    long hash;
+    EvaluationType type;
+    int depth;
+    String normalizedFen;
+    Object value;
+}
@@ -0,0 +1,98 @@
+package com.xchess.engine.api.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a table file. Seven piece tables go beyond
+ * the 2GB a single mapping can hold, so the file is mapped in chunks and
+ * values straddling two chunks are read byte by byte.
+ */
+final class MappedTableFile {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private MappedTableFile(MappedByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    static MappedTableFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] chunks =
+                    new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int chunk = 0; chunk < chunks.length; chunk++) {
+                long start = chunk * CHUNK_SIZE;
+                chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        start, Math.min(CHUNK_SIZE, size - start));
+                chunks[chunk].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedTableFile(chunks, size);
+        }
+    }
+
+    long size() {
+        return this.size;
+    }
+
+    int u8(long offset) {
+        if (offset >= this.size) {
+            // the decoder may read ahead past the last block
+            return 0;
+        }
+        return this.chunks[(int) (offset >>> CHUNK_SHIFT)]
+                .get((int) (offset & (CHUNK_SIZE - 1))) & 0xFF;
+    }
+
+    int u16(long offset) {
+        if (fits(offset, Short.BYTES)) {
+            return chunk(offset).getShort(inChunk(offset)) & 0xFFFF;
+        }
+        return u8(offset) | (u8(offset + 1) << 8);
+    }
+
+    long u32(long offset) {
+        if (fits(offset, Integer.BYTES)) {
+            return chunk(offset).getInt(inChunk(offset)) & 0xFFFFFFFFL;
+        }
+        return u16(offset) | ((long) u16(offset + 2) << 16);
+    }
+
+    long u32BigEndian(long offset) {
+        if (fits(offset, Integer.BYTES)) {
+            return Integer.reverseBytes(chunk(offset).getInt(inChunk(offset)))
+                    & 0xFFFFFFFFL;
+        }
+        return ((long) u8(offset) << 24) | (u8(offset + 1) << 16)
+                | (u8(offset + 2) << 8) | u8(offset + 3);
+    }
+
+    long u64BigEndian(long offset) {
+        if (fits(offset, Long.BYTES)) {
+            return Long.reverseBytes(chunk(offset).getLong(inChunk(offset)));
+        }
+        return (u32BigEndian(offset) << 32) | u32BigEndian(offset + 4);
+    }
+
+    private boolean fits(long offset, int length) {
+        return inChunk(offset) + length <= CHUNK_SIZE
+                && offset + length <= this.size;
+    }
+
+    private MappedByteBuffer chunk(long offset) {
+        return this.chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int inChunk(long offset) {
+        return (int) (offset & (CHUNK_SIZE - 1));
+    }
+}
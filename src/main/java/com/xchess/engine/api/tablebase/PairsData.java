@@ -0,0 +1,208 @@
+package com.xchess.engine.api.tablebase;
+
+/**
+ * Decoding information of one sub-table: a side to move and, for tables
+ * with pawns, a file of the leading pawn. Values are compressed with
+ * recursive pairing, each symbol standing for a pair of symbols, and the
+ * symbols are Huffman coded in fixed size blocks.
+ */
+final class PairsData {
+    static final int FLAG_STM = 1;
+    static final int FLAG_MAPPED = 2;
+    static final int FLAG_WIN_PLIES = 4;
+    static final int FLAG_LOSS_PLIES = 8;
+    static final int FLAG_WIDE = 16;
+    static final int FLAG_SINGLE_VALUE = 128;
+
+    private static final int SPARSE_ENTRY_SIZE = 6;
+    private static final int PAIR_SIZE = 3;
+    private static final int NO_SYMBOL = 0xFFF;
+
+    final int[] pieces = new int[SyzygyEncoding.MAX_PIECES];
+    final int[] groupLength = new int[SyzygyEncoding.MAX_PIECES + 1];
+    final long[] groupIndex = new long[SyzygyEncoding.MAX_PIECES + 1];
+    /**
+     * Start of the DTZ value map of each result, relative to the map start.
+     */
+    final int[] mapIndex = new int[4];
+    int flags;
+
+    private int minSymbolLength;
+    private long blockSize;
+    private long span;
+    private long sparseIndexSize;
+    private long blockCount;
+    private long blockLengthSize;
+    private long[] base64;
+    private int[] symbolLength;
+    private long lowestSymbols;
+    private long pairs;
+    private long sparseIndex;
+    private long blockLengths;
+    private long blocks;
+
+    /**
+     * Reads the decoder header at the given offset and returns the offset
+     * after it.
+     */
+    long readSizes(MappedTableFile file, long offset) {
+        this.flags = file.u8(offset++);
+        if ((this.flags & FLAG_SINGLE_VALUE) != 0) {
+            this.minSymbolLength = file.u8(offset++);
+            return offset;
+        }
+        int groups = 0;
+        while (this.groupLength[groups] != 0) {
+            groups++;
+        }
+        long tableSize = this.groupIndex[groups];
+        this.blockSize = 1L << file.u8(offset++);
+        this.span = 1L << file.u8(offset++);
+        this.sparseIndexSize = (tableSize + this.span - 1) / this.span;
+        int padding = file.u8(offset++);
+        this.blockCount = file.u32(offset);
+        offset += Integer.BYTES;
+        this.blockLengthSize = this.blockCount + padding;
+        int maxSymbolLength = file.u8(offset++);
+        this.minSymbolLength = file.u8(offset++);
+        this.lowestSymbols = offset;
+
+        // canonical Huffman codes: longer codes have lower values, so
+        // base64[l] is the lowest code of length l padded to 64 bits
+        this.base64 = new long[maxSymbolLength - this.minSymbolLength + 1];
+        for (int length = this.base64.length - 2; length >= 0; length--) {
+            this.base64[length] = (this.base64[length + 1]
+                    + lowestSymbol(file, length)
+                    - lowestSymbol(file, length + 1)) / 2;
+        }
+        for (int length = 0; length < this.base64.length; length++) {
+            this.base64[length] <<= 64 - length - this.minSymbolLength;
+        }
+        offset += (long) this.base64.length * Short.BYTES;
+
+        this.symbolLength = new int[file.u16(offset)];
+        offset += Short.BYTES;
+        this.pairs = offset;
+        boolean[] visited = new boolean[this.symbolLength.length];
+        for (int symbol = 0; symbol < this.symbolLength.length; symbol++) {
+            if (!visited[symbol]) {
+                this.symbolLength[symbol] = expandedLength(file, symbol,
+                        visited);
+            }
+        }
+        return offset + (long) this.symbolLength.length * PAIR_SIZE
+                + (this.symbolLength.length & 1);
+    }
+
+    long readSparseIndex(long offset) {
+        this.sparseIndex = offset;
+        return offset + this.sparseIndexSize * SPARSE_ENTRY_SIZE;
+    }
+
+    long readBlockLengths(long offset) {
+        this.blockLengths = offset;
+        return offset + this.blockLengthSize * Short.BYTES;
+    }
+
+    long readBlocks(long offset) {
+        this.blocks = (offset + 0x3F) & ~0x3FL;
+        return this.blocks + this.blockCount * this.blockSize;
+    }
+
+    /**
+     * Stored value at the given position index.
+     */
+    int decompress(MappedTableFile file, long index) {
+        if ((this.flags & FLAG_SINGLE_VALUE) != 0) {
+            return this.minSymbolLength;
+        }
+
+        // the sparse index points to the block holding the value at
+        // k * span + span / 2, walk from there to the block holding ours
+        long k = index / this.span;
+        long entry = this.sparseIndex + k * SPARSE_ENTRY_SIZE;
+        long block = file.u32(entry);
+        long offset = file.u16(entry + Integer.BYTES)
+                + index % this.span - this.span / 2;
+        while (offset < 0) {
+            offset += blockLength(file, --block) + 1;
+        }
+        while (offset > blockLength(file, block)) {
+            offset -= blockLength(file, block++) + 1;
+        }
+
+        long position = this.blocks + block * this.blockSize;
+        long buffer = file.u64BigEndian(position);
+        position += Long.BYTES;
+        int bufferSize = 64;
+        int symbol;
+        while (true) {
+            int length = 0;
+            while (Long.compareUnsigned(buffer, this.base64[length]) < 0) {
+                length++;
+            }
+            symbol = (int) ((buffer - this.base64[length])
+                    >>> (64 - length - this.minSymbolLength));
+            symbol += lowestSymbol(file, length);
+            if (offset < this.symbolLength[symbol] + 1) {
+                break;
+            }
+            offset -= this.symbolLength[symbol] + 1;
+            length += this.minSymbolLength;
+            buffer <<= length;
+            bufferSize -= length;
+            if (bufferSize <= 32) {
+                bufferSize += 32;
+                buffer |= file.u32BigEndian(position) << (64 - bufferSize);
+                position += Integer.BYTES;
+            }
+        }
+
+        // pairs are adjacent, so halve the run until reaching a leaf
+        while (this.symbolLength[symbol] != 0) {
+            int left = left(file, symbol);
+            if (offset < this.symbolLength[left] + 1) {
+                symbol = left;
+            } else {
+                offset -= this.symbolLength[left] + 1;
+                symbol = right(file, symbol);
+            }
+        }
+        return left(file, symbol);
+    }
+
+    private int expandedLength(MappedTableFile file, int symbol,
+                               boolean[] visited) {
+        visited[symbol] = true;
+        int right = right(file, symbol);
+        if (right == NO_SYMBOL) {
+            return 0;
+        }
+        int left = left(file, symbol);
+        if (!visited[left]) {
+            this.symbolLength[left] = expandedLength(file, left, visited);
+        }
+        if (!visited[right]) {
+            this.symbolLength[right] = expandedLength(file, right, visited);
+        }
+        return this.symbolLength[left] + this.symbolLength[right] + 1;
+    }
+
+    private int lowestSymbol(MappedTableFile file, int length) {
+        return file.u16(this.lowestSymbols + (long) length * Short.BYTES);
+    }
+
+    private int blockLength(MappedTableFile file, long block) {
+        return file.u16(this.blockLengths + block * Short.BYTES);
+    }
+
+    private int left(MappedTableFile file, int symbol) {
+        long pair = this.pairs + (long) symbol * PAIR_SIZE;
+        return ((file.u8(pair + 1) & 0xF) << 8) | file.u8(pair);
+    }
+
+    private int right(MappedTableFile file, int symbol) {
+        long pair = this.pairs + (long) symbol * PAIR_SIZE;
+        return (file.u8(pair + 2) << 4) | (file.u8(pair + 1) >>> 4);
+    }
+}
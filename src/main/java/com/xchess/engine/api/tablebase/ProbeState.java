@@ -0,0 +1,20 @@
+package com.xchess.engine.api.tablebase;
+
+/**
+ * Outcome of a probe besides the probed value.
+ */
+final class ProbeState {
+    static final int FAIL = 0;
+    static final int OK = 1;
+    /**
+     * The DTZ table only stores the other side to move.
+     */
+    static final int CHANGE_STM = -1;
+    /**
+     * The best move resets the 50 move counter, so the DTZ table holds no
+     * meaningful value for the position.
+     */
+    static final int ZEROING_BEST_MOVE = 2;
+
+    int status = OK;
+}
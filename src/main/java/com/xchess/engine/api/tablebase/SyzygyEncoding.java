@@ -0,0 +1,123 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.board.Bitboards;
+import com.xchess.engine.api.board.Square;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lookup tables of the Syzygy position indexing. Pieces are numbered as in
+ * the table files: 1 to 6 for white pawn to king and 9 to 14 for black, so
+ * that xor-ing with 8 swaps the color.
+ */
+final class SyzygyEncoding {
+    static final int MAX_PIECES = 7;
+
+    /**
+     * Square of the leading pawn to 0..47, growing toward the edges and
+     * toward the first rank, so the leading pawn has the highest value.
+     */
+    static final int[] MAP_PAWNS = new int[64];
+    /**
+     * Squares below the a1-h8 diagonal to 0..27.
+     */
+    static final int[] MAP_B1H1H7 = new int[64];
+    /**
+     * Squares of the a1-d1-d4 triangle to 0..9, diagonal last.
+     */
+    static final int[] MAP_A1D1D4 = new int[64];
+    /**
+     * The 462 placements of two kings, the first in the a1-d1-d4 triangle.
+     */
+    static final int[][] MAP_KK = new int[10][64];
+    static final long[][] BINOMIAL = new long[MAX_PIECES][64];
+    static final int[][] LEAD_PAWN_INDEX = new int[MAX_PIECES][64];
+    static final int[][] LEAD_PAWNS_SIZE = new int[MAX_PIECES][4];
+
+    static {
+        int code = 0;
+        for (int square = 0; square < 64; square++) {
+            if (offDiagonal(square) < 0) {
+                MAP_B1H1H7[square] = code++;
+            }
+        }
+
+        code = 0;
+        List<Integer> diagonal = new ArrayList<>();
+        for (int square = 0; square <= Square.of(3, 3); square++) {
+            if (offDiagonal(square) < 0 && Square.file(square) <= 3) {
+                MAP_A1D1D4[square] = code++;
+            } else if (offDiagonal(square) == 0 && Square.file(square) <= 3) {
+                diagonal.add(square);
+            }
+        }
+        for (int square : diagonal) {
+            MAP_A1D1D4[square] = code++;
+        }
+
+        code = 0;
+        List<int[]> bothOnDiagonal = new ArrayList<>();
+        for (int index = 0; index < 10; index++) {
+            for (int first = 0; first <= Square.of(3, 3); first++) {
+                if (MAP_A1D1D4[first] != index
+                        || (index == 0 && first != Square.of(1, 0))) {
+                    continue;
+                }
+                long forbidden = Bitboards.kingAttacks(first)
+                        | Bitboards.squareBit(first);
+                for (int second = 0; second < 64; second++) {
+                    if ((forbidden & Bitboards.squareBit(second)) != 0) {
+                        continue;
+                    }
+                    if (offDiagonal(first) == 0 && offDiagonal(second) > 0) {
+                        continue;
+                    }
+                    if (offDiagonal(first) == 0 && offDiagonal(second) == 0) {
+                        bothOnDiagonal.add(new int[]{index, second});
+                    } else {
+                        MAP_KK[index][second] = code++;
+                    }
+                }
+            }
+        }
+        for (int[] kings : bothOnDiagonal) {
+            MAP_KK[kings[0]][kings[1]] = code++;
+        }
+
+        BINOMIAL[0][0] = 1;
+        for (int n = 1; n < 64; n++) {
+            for (int k = 0; k < MAX_PIECES && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0)
+                        + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+
+        int availableSquares = 47;
+        for (int leadPawns = 1; leadPawns < MAX_PIECES - 1; leadPawns++) {
+            for (int file = 0; file < 4; file++) {
+                int index = 0;
+                for (int rank = 1; rank < 7; rank++) {
+                    int square = Square.of(file, rank);
+                    if (leadPawns == 1) {
+                        MAP_PAWNS[square] = availableSquares--;
+                        MAP_PAWNS[square ^ 7] = availableSquares--;
+                    }
+                    LEAD_PAWN_INDEX[leadPawns][square] = index;
+                    index += (int) BINOMIAL[leadPawns - 1][MAP_PAWNS[square]];
+                }
+                LEAD_PAWNS_SIZE[leadPawns][file] = index;
+            }
+        }
+    }
+
+    private SyzygyEncoding() {
+    }
+
+    /**
+     * Positive above the a1-h8 diagonal, negative below.
+     */
+    static int offDiagonal(int square) {
+        return Square.rank(square) - Square.file(square);
+    }
+}
@@ -0,0 +1,20 @@
+package com.xchess.engine.api.tablebase;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tablebase.syzygy")
+public class SyzygyProperties {
+    private boolean enabled;
+    /**
+     * Directories holding the .rtbw and .rtbz files, separated like the
+     * system path (':' on Unix, ';' on Windows).
+     */
+    private String path;
+    private int probeLimit = 7;
+}
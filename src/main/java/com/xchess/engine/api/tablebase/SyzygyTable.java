@@ -0,0 +1,474 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.BINOMIAL;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.LEAD_PAWNS_SIZE;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.LEAD_PAWN_INDEX;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.MAP_A1D1D4;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.MAP_B1H1H7;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.MAP_KK;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.MAP_PAWNS;
+import static com.xchess.engine.api.tablebase.SyzygyEncoding.offDiagonal;
+
+/**
+ * One {@code .rtbw} or {@code .rtbz} file, for instance {@code KRvK.rtbw}.
+ * Tables are stored with the stronger side, the one written first in the
+ * file name, as white; positions with colors the other way round are
+ * mirrored before probing. The file is mapped on first probe.
+ */
+final class SyzygyTable {
+    static final String PIECE_SYMBOLS = "PNBRQK";
+
+    private static final int WDL_MAGIC = 0x5D23E871;
+    private static final int DTZ_MAGIC = 0xA50C66D7;
+    private static final int HEADER_SPLIT = 1;
+    private static final int HEADER_HAS_PAWNS = 2;
+    private static final int[] WDL_TO_MAP = {1, 3, 0, 2, 0};
+
+    private final Path path;
+    private final boolean dtz;
+    private final long key;
+    private final long mirroredKey;
+    private final int pieceCount;
+    private final boolean hasPawns;
+    private final boolean hasUniquePieces;
+    private final int[] pawnCount = new int[2];
+    private volatile boolean ready;
+    private MappedTableFile file;
+    private PairsData[][] items;
+    private long valueMap;
+
+    SyzygyTable(Path path, String material, boolean dtz) {
+        this.path = path;
+        this.dtz = dtz;
+        int separator = material.indexOf('v');
+        int[][] counts = new int[2][6];
+        count(material.substring(0, separator), counts[Piece.WHITE]);
+        count(material.substring(separator + 1), counts[Piece.BLACK]);
+        this.key = materialKey(counts[Piece.WHITE], counts[Piece.BLACK]);
+        this.mirroredKey = materialKey(counts[Piece.BLACK],
+                counts[Piece.WHITE]);
+        this.pieceCount = material.length() - 1;
+        int whitePawns = counts[Piece.WHITE][Piece.PAWN];
+        int blackPawns = counts[Piece.BLACK][Piece.PAWN];
+        this.hasPawns = whitePawns + blackPawns > 0;
+        boolean unique = false;
+        for (int[] colorCounts : counts) {
+            for (int type = Piece.PAWN; type < Piece.KING; type++) {
+                unique |= colorCounts[type] == 1;
+            }
+        }
+        this.hasUniquePieces = unique;
+        // the side with fewer pawns leads, it compresses better
+        boolean whiteLeads = blackPawns == 0
+                || (whitePawns > 0 && blackPawns >= whitePawns);
+        this.pawnCount[0] = whiteLeads ? whitePawns : blackPawns;
+        this.pawnCount[1] = whiteLeads ? blackPawns : whitePawns;
+    }
+
+    /**
+     * Material signature of a position, four bits per piece count.
+     */
+    static long materialKey(Position position) {
+        int[] white = new int[6];
+        int[] black = new int[6];
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            white[type] = Long.bitCount(position.getPieces(Piece.WHITE, type));
+            black[type] = Long.bitCount(position.getPieces(Piece.BLACK, type));
+        }
+        return materialKey(white, black);
+    }
+
+    long getKey() {
+        return this.key;
+    }
+
+    long getMirroredKey() {
+        return this.mirroredKey;
+    }
+
+    int getPieceCount() {
+        return this.pieceCount;
+    }
+
+    /**
+     * Value stored for the position: a WDL score from -2 to 2, or a DTZ in
+     * plies given the WDL score of the position.
+     */
+    int probe(Position position, int wdl, ProbeState state) {
+        if (!map()) {
+            state.status = ProbeState.FAIL;
+            return 0;
+        }
+        int[] squares = new int[SyzygyEncoding.MAX_PIECES];
+        int[] pieces = new int[SyzygyEncoding.MAX_PIECES];
+        int size = 0;
+        int leadPawnCount = 0;
+        long leadPawns = 0;
+        int tableFile = 0;
+
+        // symmetric tables only store white to move
+        boolean flip = (this.key == this.mirroredKey
+                && position.getSideToMove() == Piece.BLACK)
+                || materialKey(position) != this.key;
+        int flipColor = flip ? 8 : 0;
+        int flipSquares = flip ? 56 : 0;
+        int sideToMove = (flip ? 1 : 0) ^ position.getSideToMove();
+
+        if (this.hasPawns) {
+            int leadPiece = this.items[0][0].pieces[0] ^ flipColor;
+            leadPawns = position.getPieces(leadPiece >>> 3, Piece.PAWN);
+            for (long pawns = leadPawns; pawns != 0; pawns &= pawns - 1) {
+                squares[size++] = Long.numberOfTrailingZeros(pawns) ^ flipSquares;
+            }
+            leadPawnCount = size;
+            int lead = 0;
+            for (int index = 1; index < leadPawnCount; index++) {
+                if (MAP_PAWNS[squares[index]] > MAP_PAWNS[squares[lead]]) {
+                    lead = index;
+                }
+            }
+            swap(squares, 0, lead);
+            int file = Square.file(squares[0]);
+            tableFile = Math.min(file, 7 - file);
+        }
+
+        if (this.dtz && (get(sideToMove, tableFile).flags & PairsData.FLAG_STM)
+                != sideToMove && (this.key != this.mirroredKey || this.hasPawns)) {
+            state.status = ProbeState.CHANGE_STM;
+            return 0;
+        }
+
+        for (long rest = position.getOccupancy() ^ leadPawns; rest != 0;
+             rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            squares[size] = square ^ flipSquares;
+            pieces[size++] = tablePiece(position.getPieceAt(square)) ^ flipColor;
+        }
+
+        PairsData data = get(sideToMove, tableFile);
+
+        // order the pieces as the table encodes them
+        for (int i = leadPawnCount; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (data.pieces[i] == pieces[j]) {
+                    swap(pieces, i, j);
+                    swap(squares, i, j);
+                    break;
+                }
+            }
+        }
+
+        if (Square.file(squares[0]) > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 7;
+            }
+        }
+
+        long index;
+        if (this.hasPawns) {
+            index = LEAD_PAWN_INDEX[leadPawnCount][squares[0]];
+            sortByPawnMap(squares, 1, leadPawnCount);
+            for (int i = 1; i < leadPawnCount; i++) {
+                index += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+            }
+        } else {
+            index = leadingGroupIndex(squares, size, data);
+        }
+
+        index *= data.groupIndex[0];
+        int groupStart = data.groupLength[0];
+        boolean remainingPawns = this.hasPawns && this.pawnCount[1] > 0;
+        for (int group = 1; data.groupLength[group] != 0; group++) {
+            int groupEnd = groupStart + data.groupLength[group];
+            Arrays.sort(squares, groupStart, groupEnd);
+            long groupIndex = 0;
+            for (int i = groupStart; i < groupEnd; i++) {
+                int adjust = 0;
+                for (int previous = 0; previous < groupStart; previous++) {
+                    if (squares[i] > squares[previous]) {
+                        adjust++;
+                    }
+                }
+                groupIndex += BINOMIAL[i - groupStart + 1][squares[i] - adjust
+                        - (remainingPawns ? 8 : 0)];
+            }
+            remainingPawns = false;
+            index += groupIndex * data.groupIndex[group];
+            groupStart = groupEnd;
+        }
+
+        int value = data.decompress(this.file, index);
+        return this.dtz ? toDtz(tableFile, value, wdl) : value - 2;
+    }
+
+    /**
+     * Index of the leading group of a pawnless position, after mirroring
+     * its first piece into the a1-d1-d4 triangle.
+     */
+    private long leadingGroupIndex(int[] squares, int size, PairsData data) {
+        if (Square.rank(squares[0]) > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 56;
+            }
+        }
+        for (int i = 0; i < data.groupLength[0]; i++) {
+            if (offDiagonal(squares[i]) == 0) {
+                continue;
+            }
+            if (offDiagonal(squares[i]) > 0) {
+                for (int j = i; j < size; j++) {
+                    squares[j] = ((squares[j] >>> 3) | (squares[j] << 3)) & 63;
+                }
+            }
+            break;
+        }
+        if (!this.hasUniquePieces) {
+            return MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+        }
+        int adjust1 = squares[1] > squares[0] ? 1 : 0;
+        int adjust2 = (squares[2] > squares[0] ? 1 : 0)
+                + (squares[2] > squares[1] ? 1 : 0);
+        if (offDiagonal(squares[0]) != 0) {
+            return ((long) MAP_A1D1D4[squares[0]] * 63
+                    + (squares[1] - adjust1)) * 62 + squares[2] - adjust2;
+        }
+        if (offDiagonal(squares[1]) != 0) {
+            return (6L * 63 + Square.rank(squares[0]) * 28
+                    + MAP_B1H1H7[squares[1]]) * 62 + squares[2] - adjust2;
+        }
+        if (offDiagonal(squares[2]) != 0) {
+            return 6L * 63 * 62 + 4 * 28 * 62
+                    + Square.rank(squares[0]) * 7 * 28
+                    + (Square.rank(squares[1]) - adjust1) * 28
+                    + MAP_B1H1H7[squares[2]];
+        }
+        return 6L * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28
+                + Square.rank(squares[0]) * 7 * 6
+                + (Square.rank(squares[1]) - adjust1) * 6
+                + (Square.rank(squares[2]) - adjust2);
+    }
+
+    /**
+     * DTZ values are ranked by frequency for each WDL score and stored in
+     * moves or plies; maps them back to plies.
+     */
+    private int toDtz(int tableFile, int value, int wdl) {
+        PairsData data = get(0, tableFile);
+        if ((data.flags & PairsData.FLAG_MAPPED) != 0) {
+            int start = data.mapIndex[WDL_TO_MAP[wdl + 2]];
+            value = (data.flags & PairsData.FLAG_WIDE) != 0
+                    ? this.file.u16(this.valueMap + 2L * (start + value))
+                    : this.file.u8(this.valueMap + start + value);
+        }
+        if ((wdl == Wdl.WIN && (data.flags & PairsData.FLAG_WIN_PLIES) == 0)
+                || (wdl == Wdl.LOSS
+                && (data.flags & PairsData.FLAG_LOSS_PLIES) == 0)
+                || wdl == Wdl.CURSED_WIN || wdl == Wdl.BLESSED_LOSS) {
+            value *= 2;
+        }
+        return value + 1;
+    }
+
+    private PairsData get(int sideToMove, int tableFile) {
+        return this.items[sideToMove % this.items.length][this.hasPawns ?
+                tableFile : 0];
+    }
+
+    private boolean map() {
+        if (this.ready) {
+            return Objects.nonNull(this.file);
+        }
+        synchronized (this) {
+            if (!this.ready) {
+                try {
+                    MappedTableFile mapped = MappedTableFile.map(this.path);
+                    if (mapped.size() < 5 || (int) mapped.u32(0)
+                            != (this.dtz ? DTZ_MAGIC : WDL_MAGIC)) {
+                        throw new IOException(this.path
+                                + " is not a Syzygy table");
+                    }
+                    read(mapped);
+                    this.file = mapped;
+                } catch (IOException | RuntimeException e) {
+                    // missing or corrupt tables leave the material
+                    // unprobed, callers fall back to the engine
+                    this.file = null;
+                }
+                this.ready = true;
+            }
+        }
+        return Objects.nonNull(this.file);
+    }
+
+    private void read(MappedTableFile mapped) throws IOException {
+        long offset = 4;
+        int header = mapped.u8(offset++);
+        if (((header & HEADER_HAS_PAWNS) != 0) != this.hasPawns
+                || ((header & HEADER_SPLIT) != 0) != (this.key != this.mirroredKey)) {
+            throw new IOException(this.path + " does not match its name");
+        }
+        int sides = !this.dtz && this.key != this.mirroredKey ? 2 : 1;
+        int files = this.hasPawns ? 4 : 1;
+        boolean pawnsOnBothSides = this.hasPawns && this.pawnCount[1] > 0;
+        PairsData[][] tables = new PairsData[sides][files];
+
+        for (int tableFile = 0; tableFile < files; tableFile++) {
+            for (int side = 0; side < sides; side++) {
+                tables[side][tableFile] = new PairsData();
+            }
+            int first = mapped.u8(offset);
+            int second = pawnsOnBothSides ? mapped.u8(offset + 1) : 0xFF;
+            int[][] order = {{first & 0xF, second & 0xF},
+                    {first >>> 4, second >>> 4}};
+            offset += pawnsOnBothSides ? 2 : 1;
+            for (int piece = 0; piece < this.pieceCount; piece++, offset++) {
+                int pieces = mapped.u8(offset);
+                for (int side = 0; side < sides; side++) {
+                    tables[side][tableFile].pieces[piece] =
+                            side == 0 ? pieces & 0xF : pieces >>> 4;
+                }
+            }
+            for (int side = 0; side < sides; side++) {
+                setGroups(tables[side][tableFile], order[side], tableFile);
+            }
+        }
+        offset += offset & 1;
+
+        for (int tableFile = 0; tableFile < files; tableFile++) {
+            for (int side = 0; side < sides; side++) {
+                offset = tables[side][tableFile].readSizes(mapped, offset);
+            }
+        }
+
+        if (this.dtz) {
+            this.valueMap = offset;
+            for (int tableFile = 0; tableFile < files; tableFile++) {
+                PairsData data = tables[0][tableFile];
+                if ((data.flags & PairsData.FLAG_MAPPED) == 0) {
+                    continue;
+                }
+                if ((data.flags & PairsData.FLAG_WIDE) != 0) {
+                    offset += offset & 1;
+                    for (int wdl = 0; wdl < 4; wdl++) {
+                        data.mapIndex[wdl] =
+                                (int) ((offset - this.valueMap) / 2 + 1);
+                        offset += 2L * mapped.u16(offset) + 2;
+                    }
+                } else {
+                    for (int wdl = 0; wdl < 4; wdl++) {
+                        data.mapIndex[wdl] = (int) (offset - this.valueMap + 1);
+                        offset += mapped.u8(offset) + 1;
+                    }
+                }
+            }
+            offset += offset & 1;
+        }
+
+        for (int tableFile = 0; tableFile < files; tableFile++) {
+            for (int side = 0; side < sides; side++) {
+                offset = tables[side][tableFile].readSparseIndex(offset);
+            }
+        }
+        for (int tableFile = 0; tableFile < files; tableFile++) {
+            for (int side = 0; side < sides; side++) {
+                offset = tables[side][tableFile].readBlockLengths(offset);
+            }
+        }
+        for (int tableFile = 0; tableFile < files; tableFile++) {
+            for (int side = 0; side < sides; side++) {
+                offset = tables[side][tableFile].readBlocks(offset);
+            }
+        }
+        if (offset > mapped.size()) {
+            throw new IOException(this.path + " is truncated");
+        }
+        this.items = tables;
+    }
+
+    /**
+     * Splits the pieces in groups encoded together, pieces of a same kind
+     * and color, and computes the index multiplier of each group. The first
+     * group holds the leading pawns, or the kings and a unique piece.
+     */
+    private void setGroups(PairsData data, int[] order, int tableFile) {
+        int groups = 0;
+        int firstLength = this.hasPawns ? 0 : this.hasUniquePieces ? 3 : 2;
+        data.groupLength[groups] = 1;
+        for (int i = 1; i < this.pieceCount; i++) {
+            if (--firstLength > 0 || data.pieces[i] == data.pieces[i - 1]) {
+                data.groupLength[groups]++;
+            } else {
+                data.groupLength[++groups] = 1;
+            }
+        }
+        data.groupLength[++groups] = 0;
+
+        boolean pawnsOnBothSides = this.hasPawns && this.pawnCount[1] > 0;
+        int next = pawnsOnBothSides ? 2 : 1;
+        int freeSquares = 64 - data.groupLength[0]
+                - (pawnsOnBothSides ? data.groupLength[1] : 0);
+        long index = 1;
+        for (int k = 0; next < groups || k == order[0] || k == order[1]; k++) {
+            if (k == order[0]) {
+                data.groupIndex[0] = index;
+                index *= this.hasPawns
+                        ? LEAD_PAWNS_SIZE[data.groupLength[0]][tableFile]
+                        : this.hasUniquePieces ? 31332 : 462;
+            } else if (k == order[1]) {
+                data.groupIndex[1] = index;
+                index *= BINOMIAL[data.groupLength[1]][48 - data.groupLength[0]];
+            } else {
+                data.groupIndex[next] = index;
+                index *= BINOMIAL[data.groupLength[next]][freeSquares];
+                freeSquares -= data.groupLength[next++];
+            }
+        }
+        data.groupIndex[groups] = index;
+    }
+
+    private static void count(String side, int[] counts) {
+        for (char symbol : side.toCharArray()) {
+            counts[PIECE_SYMBOLS.indexOf(symbol)]++;
+        }
+    }
+
+    private static long materialKey(int[] white, int[] black) {
+        long key = 0;
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            key |= (long) white[type] << (4 * type);
+            key |= (long) black[type] << (4 * (type + 6));
+        }
+        return key;
+    }
+
+    private static int tablePiece(int piece) {
+        return (Piece.color(piece) << 3) | (Piece.type(piece) + 1);
+    }
+
+    private static void sortByPawnMap(int[] squares, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int square = squares[i];
+            int j = i - 1;
+            while (j >= from && MAP_PAWNS[squares[j]] > MAP_PAWNS[square]) {
+                squares[j + 1] = squares[j];
+                j--;
+            }
+            squares[j + 1] = square;
+        }
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
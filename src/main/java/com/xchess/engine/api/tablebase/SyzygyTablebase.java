@@ -0,0 +1,351 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.board.Move;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Piece;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.domain.response.TablebaseResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Optional Syzygy endgame tablebases, answering positions with few enough
+ * pieces without an engine. WDL tables give the exact result and DTZ
+ * tables the distance to the next capture or pawn move, which is enough to
+ * play a winning position out under the 50 move rule.
+ */
+@Component
+public class SyzygyTablebase {
+    private static final String WDL_SUFFIX = ".rtbw";
+    private static final String DTZ_SUFFIX = ".rtbz";
+    private static final Pattern MATERIAL = Pattern.compile("K[QRBNP]*vK[QRBNP]*");
+    private static final int MAX_DTZ = 1 << 18;
+
+    private final Map<Long, SyzygyTable> wdlTables = new HashMap<>();
+    private final Map<Long, SyzygyTable> dtzTables = new HashMap<>();
+    private final int maxPieces;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public SyzygyTablebase(SyzygyProperties properties) {
+        if (!properties.isEnabled()) {
+            this.maxPieces = 0;
+            return;
+        }
+        List<Path> directories = new ArrayList<>();
+        for (String directory : properties.getPath().split(File.pathSeparator)) {
+            if (!directory.trim().isEmpty()) {
+                directories.add(Paths.get(directory.trim()));
+            }
+        }
+        try {
+            this.maxPieces = Math.min(properties.getProbeLimit(),
+                    load(directories));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load Syzygy tables from "
+                    + properties.getPath(), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.maxPieces > 0;
+    }
+
+    /**
+     * Largest number of pieces, kings included, of the probed positions.
+     */
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    /**
+     * Tables do not hold positions where castling is still possible.
+     */
+    public boolean canProbe(Position position) {
+        return isEnabled() && position.getPieceCount() <= this.maxPieces
+                && position.getCastlingRights() == 0;
+    }
+
+    /**
+     * Result of the position for the side to move.
+     */
+    public Optional<TablebaseResponse> probe(Position position) {
+        if (!canProbe(position)) {
+            return Optional.empty();
+        }
+        ProbeState state = new ProbeState();
+        int wdl = probeWdl(position, state);
+        if (state.status == ProbeState.FAIL) {
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+        ProbeState dtzState = new ProbeState();
+        int dtz = probeDtz(position, dtzState);
+        this.hits.incrementAndGet();
+        return Optional.of(TablebaseResponse.builder()
+                .outcome(Wdl.toOutcome(wdl))
+                .dtz(dtzState.status == ProbeState.FAIL ? null : dtz)
+                .build());
+    }
+
+    /**
+     * Move keeping the best result: the fastest conversion when winning,
+     * the longest resistance when losing. Needs the DTZ tables.
+     */
+    public Optional<TablebaseMove> findBestMove(Position position) {
+        if (!canProbe(position)) {
+            return Optional.empty();
+        }
+        int[] moves = MoveGenerator.legalMoves(position);
+        if (moves.length == 0) {
+            return Optional.empty();
+        }
+        ProbeState state = new ProbeState();
+        int halfmoveClock = position.getHalfmoveClock();
+        int bestMove = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        int bestDtz = 0;
+        for (int move : moves) {
+            Position next = position.play(move);
+            int dtz;
+            if (next.getHalfmoveClock() == 0) {
+                dtz = Wdl.dtzBeforeZeroing(-probeWdl(next, state));
+            } else {
+                dtz = -probeDtz(next, state);
+                dtz = dtz > 0 ? dtz + 1 : dtz < 0 ? dtz - 1 : 0;
+            }
+            if (state.status == ProbeState.FAIL) {
+                this.misses.incrementAndGet();
+                return Optional.empty();
+            }
+            boolean mate = dtz > 0 && next.isInCheck()
+                    && MoveGenerator.legalMoves(next).length == 0;
+            if (mate) {
+                dtz = 1;
+            }
+            int rank = mate ? MAX_DTZ
+                    : dtz > 0 ? MAX_DTZ - (dtz + halfmoveClock)
+                    : dtz < 0 ? -MAX_DTZ + (-dtz + halfmoveClock)
+                    : 0;
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = move;
+                bestDtz = dtz;
+            }
+        }
+        int wdl = probeWdl(position, state);
+        if (state.status == ProbeState.FAIL) {
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+        this.hits.incrementAndGet();
+        return Optional.of(new TablebaseMove(Move.toUci(bestMove),
+                TablebaseResponse.builder()
+                        .outcome(Wdl.toOutcome(wdl))
+                        .dtz(bestDtz)
+                        .build()));
+    }
+
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    int probeWdl(Position position, ProbeState state) {
+        state.status = ProbeState.OK;
+        return search(position, state, false);
+    }
+
+    /**
+     * DTZ in plies, signed like the WDL score, 0 for draws.
+     */
+    int probeDtz(Position position, ProbeState state) {
+        state.status = ProbeState.OK;
+        int wdl = search(position, state, true);
+        if (state.status == ProbeState.FAIL || wdl == Wdl.DRAW) {
+            return 0;
+        }
+        if (state.status == ProbeState.ZEROING_BEST_MOVE) {
+            return Wdl.dtzBeforeZeroing(wdl);
+        }
+        int dtz = probeTable(this.dtzTables, position, wdl, state);
+        if (state.status == ProbeState.FAIL) {
+            return 0;
+        }
+        if (state.status != ProbeState.CHANGE_STM) {
+            boolean ruleOf50 = wdl == Wdl.BLESSED_LOSS || wdl == Wdl.CURSED_WIN;
+            return (dtz + (ruleOf50 ? 100 : 0)) * Integer.signum(wdl);
+        }
+
+        // the table stores the other side to move: take the best DTZ of
+        // the replies, one ply further
+        int minDtz = 0xFFFF;
+        for (int move : MoveGenerator.legalMoves(position)) {
+            boolean zeroing = isZeroing(position, move);
+            Position next = position.play(move);
+            dtz = zeroing ? -Wdl.dtzBeforeZeroing(search(next, state, false))
+                    : -probeDtz(next, state);
+            if (dtz == 1 && next.isInCheck()
+                    && MoveGenerator.legalMoves(next).length == 0) {
+                minDtz = 1;
+            }
+            if (!zeroing) {
+                dtz += Integer.signum(dtz);
+            }
+            if (dtz < minDtz && Integer.signum(dtz) == Integer.signum(wdl)) {
+                minDtz = dtz;
+            }
+            if (state.status == ProbeState.FAIL) {
+                return 0;
+            }
+        }
+        return minDtz == 0xFFFF ? -1 : minDtz;
+    }
+
+    /**
+     * Tables may store any value for positions won by a capture, or by a
+     * pawn move for DTZ, since the generator knows they are resolved one ply
+     * later. The true score is the best of the stored one and of these
+     * moves.
+     */
+    private int search(Position position, ProbeState state,
+                       boolean checkZeroingMoves) {
+        int bestValue = Wdl.LOSS;
+        int[] moves = MoveGenerator.legalMoves(position);
+        int moveCount = 0;
+        for (int move : moves) {
+            if (!isCapture(position, move) && (!checkZeroingMoves
+                    || !isPawnMove(position, move))) {
+                continue;
+            }
+            moveCount++;
+            int value = -search(position.play(move), state, false);
+            if (state.status == ProbeState.FAIL) {
+                return Wdl.DRAW;
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                if (value >= Wdl.WIN) {
+                    state.status = ProbeState.ZEROING_BEST_MOVE;
+                    return value;
+                }
+            }
+        }
+
+        // when every move was searched the stored value may be wrong, for
+        // instance tables ignore en passant captures
+        boolean noMoreMoves = moveCount > 0 && moveCount == moves.length;
+        int value;
+        if (noMoreMoves) {
+            value = bestValue;
+        } else {
+            value = probeTable(this.wdlTables, position, Wdl.DRAW, state);
+            if (state.status == ProbeState.FAIL) {
+                return Wdl.DRAW;
+            }
+        }
+        if (bestValue >= value) {
+            state.status = bestValue > Wdl.DRAW || noMoreMoves
+                    ? ProbeState.ZEROING_BEST_MOVE : ProbeState.OK;
+            return bestValue;
+        }
+        state.status = ProbeState.OK;
+        return value;
+    }
+
+    private int probeTable(Map<Long, SyzygyTable> tables, Position position,
+                           int wdl, ProbeState state) {
+        if (position.getPieceCount() == 2) {
+            return Wdl.DRAW;
+        }
+        SyzygyTable table = tables.get(SyzygyTable.materialKey(position));
+        if (Objects.isNull(table)) {
+            state.status = ProbeState.FAIL;
+            return 0;
+        }
+        return table.probe(position, wdl, state);
+    }
+
+    /**
+     * Registers the tables found and returns the largest piece count.
+     */
+    private int load(List<Path> directories) throws IOException {
+        Map<String, Path> wdlFiles = new HashMap<>();
+        Map<String, Path> dtzFiles = new HashMap<>();
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                throw new IOException(directory + " is not a directory");
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(WDL_SUFFIX)) {
+                        wdlFiles.putIfAbsent(material(name), file);
+                    } else if (name.endsWith(DTZ_SUFFIX)) {
+                        dtzFiles.putIfAbsent(material(name), file);
+                    }
+                }
+            }
+        }
+        int largest = 0;
+        for (Map.Entry<String, Path> wdlFile : wdlFiles.entrySet()) {
+            String material = wdlFile.getKey();
+            if (!MATERIAL.matcher(material).matches()
+                    || material.length() - 1 > SyzygyEncoding.MAX_PIECES) {
+                continue;
+            }
+            SyzygyTable wdlTable = new SyzygyTable(wdlFile.getValue(),
+                    material, false);
+            register(this.wdlTables, wdlTable);
+            largest = Math.max(largest, wdlTable.getPieceCount());
+            Path dtzFile = dtzFiles.get(material);
+            if (Objects.nonNull(dtzFile)) {
+                register(this.dtzTables, new SyzygyTable(dtzFile, material,
+                        true));
+            }
+        }
+        return largest;
+    }
+
+    private static void register(Map<Long, SyzygyTable> tables,
+                                 SyzygyTable table) {
+        tables.put(table.getKey(), table);
+        tables.put(table.getMirroredKey(), table);
+    }
+
+    private static String material(String fileName) {
+        return fileName.substring(0, fileName.length() - WDL_SUFFIX.length());
+    }
+
+    private static boolean isCapture(Position position, int move) {
+        return position.getPieceAt(Move.to(move)) != Piece.NONE
+                || Move.isEnPassant(move);
+    }
+
+    private static boolean isPawnMove(Position position, int move) {
+        return Piece.type(position.getPieceAt(Move.from(move))) == Piece.PAWN;
+    }
+
+    private static boolean isZeroing(Position position, int move) {
+        return isCapture(position, move) || isPawnMove(position, move);
+    }
+}
@@ -0,0 +1,10 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.domain.response.TablebaseResponse;
+import lombok.Value;
+
+@Value
+public class TablebaseMove {
+    String move;
+    TablebaseResponse result;
+}
@@ -0,0 +1,42 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
+
+/**
+ * Win/draw/loss scores as stored in the tables, for the side to move.
+ * Cursed wins and blessed losses are wins and losses that the 50 move rule
+ * turns into draws.
+ */
+final class Wdl {
+    static final int LOSS = -2;
+    static final int BLESSED_LOSS = -1;
+    static final int DRAW = 0;
+    static final int CURSED_WIN = 1;
+    static final int WIN = 2;
+
+    private Wdl() {
+    }
+
+    /**
+     * DTZ of the move leading to a position with the given score, when that
+     * move resets the 50 move counter.
+     */
+    static int dtzBeforeZeroing(int wdl) {
+        switch (wdl) {
+            case WIN:
+                return 1;
+            case CURSED_WIN:
+                return 101;
+            case BLESSED_LOSS:
+                return -101;
+            case LOSS:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+
+    static TablebaseOutcome toOutcome(int wdl) {
+        return TablebaseOutcome.values()[wdl + 2];
+    }
+}
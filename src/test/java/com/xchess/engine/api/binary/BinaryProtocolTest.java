@@ -0,0 +1,115 @@
+package com.xchess.engine.api.binary;
+
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import com.xchess.engine.api.domain.response.TablebaseResponse;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryProtocolTest {
+
+    @Test
+    public void shouldRoundTripRequest() throws Exception {
+        String fen = "r3k2r/pp3ppp/8/2pPp3/8/8/PP3PPP/R3K2R w Kq c6 0 17";
+        byte[] bytes = BinaryProtocol.encodeRequest(BinaryPositionRequest
+                .builder()
+                .position(Position.fromFen(fen))
+                .square("d5")
+                .depth(20)
+                .timeInMs(1500)
+                .build());
+
+        BinaryPositionRequest request =
+                BinaryProtocol.decodeRequest(ByteBuffer.wrap(bytes));
+
+        assertTrue(bytes.length < fen.length());
+        assertEquals(fen, request.getPosition().toFen());
+        assertEquals("d5", request.getSquare());
+        assertEquals(Integer.valueOf(20), request.getDepth());
+        assertEquals(Integer.valueOf(1500), request.getTimeInMs());
+    }
+
+    @Test
+    public void shouldDefaultToStartPositionWithoutLimits() throws Exception {
+        byte[] bytes = BinaryProtocol.encodeRequest(BinaryPositionRequest
+                .builder()
+                .build());
+
+        BinaryPositionRequest request =
+                BinaryProtocol.decodeRequest(ByteBuffer.wrap(bytes));
+
+        assertEquals(7, bytes.length);
+        assertNull(request.getPosition());
+        assertNull(request.getSquare());
+        assertNull(request.getDepth());
+        assertNull(request.getTimeInMs());
+    }
+
+    @Test
+    public void shouldRejectTruncatedOrInvalidRequests() throws Exception {
+        byte[] bytes = BinaryProtocol.encodeRequest(BinaryPositionRequest
+                .builder()
+                .position(Position.startPosition())
+                .build());
+
+        assertThrows(InvalidFenException.class, () -> BinaryProtocol
+                .decodeRequest(ByteBuffer.wrap(Arrays.copyOf(bytes, 12))));
+        assertThrows(InvalidNotationException.class, () -> BinaryProtocol
+                .decodeRequest(ByteBuffer.wrap(new byte[]{2, 64, 0, 0, 0, 0, 0, 0})));
+    }
+
+    @Test
+    public void shouldRoundTripBestMove() throws Exception {
+        BestMoveResponse response = decode(BestMoveResponse.builder()
+                .bestMove("a7a8n")
+                .source(MoveSource.TABLEBASE)
+                .tablebase(TablebaseResponse.builder()
+                        .outcome(TablebaseOutcome.CURSED_WIN)
+                        .dtz(-101)
+                        .build())
+                .build());
+
+        assertEquals("a7a8n", response.getBestMove());
+        assertEquals(MoveSource.TABLEBASE, response.getSource());
+        assertEquals(TablebaseOutcome.CURSED_WIN,
+                response.getTablebase().getOutcome());
+        assertEquals(Integer.valueOf(-101), response.getTablebase().getDtz());
+
+        BestMoveResponse noMove = decode(BestMoveResponse.builder()
+                .source(MoveSource.ENGINE)
+                .build());
+        assertNull(noMove.getBestMove());
+        assertNull(noMove.getTablebase());
+    }
+
+    @Test
+    public void shouldRoundTripPossibleMoves() throws Exception {
+        List<String> moves = Arrays.asList("e1g1", "b7b8q", "h2h1r", "e5d6");
+        byte[] bytes = BinaryProtocol.encode(PossibleMovesResponse.builder()
+                .possibleMoves(moves)
+                .build());
+
+        assertEquals(1 + 2 * moves.size(), bytes.length);
+        assertEquals(moves, BinaryProtocol.decodePossibleMoves(
+                ByteBuffer.wrap(bytes)).getPossibleMoves());
+    }
+
+    private static BestMoveResponse decode(BestMoveResponse response) throws InvalidNotationException {
+        return BinaryProtocol.decodeBestMove(ByteBuffer.wrap(
+                BinaryProtocol.encode(response)));
+    }
+}
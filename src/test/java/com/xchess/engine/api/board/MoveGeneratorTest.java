@@ -0,0 +1,89 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidFenException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoveGeneratorTest {
+
+    @Test
+    public void shouldCountStartPositionNodes() throws Exception {
+        assertPerft(Position.START_FEN, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    public void shouldCountKiwipeteNodes() throws Exception {
+        assertPerft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R" +
+                " w KQkq - 0 1", 48, 2039, 97862);
+    }
+
+    @Test
+    public void shouldCountEndgameNodesWithEnPassantPins() throws Exception {
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191,
+                2812, 43238);
+    }
+
+    @Test
+    public void shouldCountPromotionAndCastlingNodes() throws Exception {
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1" +
+                " w kq - 0 1", 6, 264, 9467);
+    }
+
+    @Test
+    public void shouldCountDiscoveredPromotionNodes() throws Exception {
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44, 1486, 62379);
+    }
+
+    @Test
+    public void shouldRoundTripFen() throws Exception {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R" +
+                " b Kq - 3 17";
+        assertEquals(fen, Position.fromFen(fen).toFen());
+    }
+
+    @Test
+    public void shouldOnlyKeepEnPassantSquareWhenCaptureIsPossible() throws Exception {
+        Position position = MoveGenerator.playUciMoves(Position.startPosition(),
+                Arrays.asList("e2e4"));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                position.toFen());
+
+        position = MoveGenerator.playUciMoves(position,
+                Arrays.asList("d7d5", "e4e5", "f7f5"));
+        assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                position.toFen());
+    }
+
+    @Test
+    public void shouldRejectInvalidFen() {
+        assertThrows(InvalidFenException.class,
+                () -> Position.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        assertThrows(InvalidFenException.class,
+                () -> Position.fromFen("8/8/8/8/8/8/8/8 w - - 0 1"));
+        assertThrows(InvalidFenException.class,
+                () -> Position.fromFen("4k3/8/8/8/8/8/8/4K2R x - - 0 1"));
+    }
+
+    @Test
+    public void shouldRejectIllegalMove() {
+        assertThrows(IllegalBoardMoveException.class,
+                () -> MoveGenerator.parseUciMove(Position.startPosition(), "e1e2"));
+        assertThrows(InvalidNotationException.class,
+                () -> MoveGenerator.parseUciMove(Position.startPosition(), "e9e4"));
+    }
+
+    private static void assertPerft(String fen, long... expectedNodes) throws Exception {
+        Position position = Position.fromFen(fen);
+        for (int depth = 1; depth <= expectedNodes.length; depth++) {
+            assertEquals(expectedNodes[depth - 1],
+                    MoveGenerator.perft(position, depth), "perft(" + depth + ")");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.xchess.engine.api.board;
+
+import com.xchess.engine.api.board.exceptions.IllegalBoardMoveException;
+import com.xchess.engine.api.board.exceptions.InvalidNotationException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PgnTest {
+
+    @Test
+    public void shouldReadMainLineAndSkipAnnotations() throws Exception {
+        Pgn pgn = Pgn.parse("[Event \"Casual\"]\n[White \"A \\\"B\\\" C\"]\n\n"
+                + "1. e4 {best by test} e5 2.Nf3 (2. f4 exf4) Nc6 $1 "
+                + "3. Bb5 a6!? ; Morphy\n4. Ba4 Nf6 5. O-O 1-0");
+
+        assertEquals("A \"B\" C", pgn.getTag("White"));
+        assertEquals(Arrays.asList("e2e4", "e7e5", "g1f3", "b8c6", "f1b5",
+                "a7a6", "b5a4", "g8f6", "e1g1"), toUci(pgn.getMoves()));
+    }
+
+    @Test
+    public void shouldStartFromFenTag() throws Exception {
+        Pgn pgn = Pgn.parse("[SetUp \"1\"]\n[FEN \"4k3/1P6/8/8/8/8/8/R3K3 w Q - 0 1\"]\n"
+                + "1. b8=Q+ Kd7 2. O-O-O+ *");
+
+        assertEquals(Arrays.asList("b7b8q", "e8d7", "e1c1"),
+                toUci(pgn.getMoves()));
+    }
+
+    @Test
+    public void shouldDisambiguateMoves() throws Exception {
+        Position position = Position.fromFen("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+
+        assertEquals("h1f1", Move.toUci(MoveGenerator.parseSanMove(position, "Rhf1")));
+        assertThrows(InvalidNotationException.class,
+                () -> MoveGenerator.parseSanMove(position, "Rf1"));
+        assertThrows(IllegalBoardMoveException.class,
+                () -> MoveGenerator.parseSanMove(position, "O-O"));
+    }
+
+    @Test
+    public void shouldRejectIllegalMovetext() {
+        assertThrows(IllegalBoardMoveException.class,
+                () -> Pgn.parse("1. e4 e5 2. Ke3"));
+        assertThrows(InvalidNotationException.class,
+                () -> Pgn.parse("1. e4 (1. d4 e5"));
+    }
+
+    private static List<String> toUci(int[] moves) {
+        List<String> uciMoves = new ArrayList<>();
+        for (int move : moves) {
+            uciMoves.add(Move.toUci(move));
+        }
+        return uciMoves;
+    }
+}
@@ -0,0 +1,139 @@
+package com.xchess.engine.api.book;
+
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.board.Square;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OpeningBookTest {
+    private static final String CASTLING_FEN =
+            "r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w KQkq - 0 1";
+
+    private PolyglotKeys keys;
+    private Path bookPath;
+
+    @Before
+    public void setUp() throws Exception {
+        long[] randoms = new long[PolyglotKeys.SIZE];
+        Random random = new Random(42);
+        for (int index = 0; index < randoms.length; index++) {
+            randoms[index] = random.nextLong();
+        }
+        this.keys = new PolyglotKeys(randoms);
+        long startKey = this.keys.key(Position.startPosition());
+        long castlingKey = this.keys.key(Position.fromFen(CASTLING_FEN));
+        TreeMap<Long, long[][]> entries =
+                new TreeMap<>(Long::compareUnsigned);
+        entries.put(startKey, new long[][]{
+                {move("e2", "e4"), 10},
+                {move("d2", "d4"), 30},
+                {move("e2", "e5"), 100},
+                {move("g1", "f3"), 0}});
+        entries.put(castlingKey, new long[][]{{move("e1", "h1"), 1}});
+        this.bookPath = Files.createTempFile("book", ".bin");
+        try (OutputStream outputStream = Files.newOutputStream(this.bookPath);
+             DataOutputStream out = new DataOutputStream(outputStream)) {
+            for (Map.Entry<Long, long[][]> entry : entries.entrySet()) {
+                for (long[] bookMove : entry.getValue()) {
+                    out.writeLong(entry.getKey());
+                    out.writeShort((int) bookMove[0]);
+                    out.writeShort((int) bookMove[1]);
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.bookPath);
+    }
+
+    @Test
+    public void shouldPlayHeaviestLegalMove() throws Exception {
+        OpeningBook openingBook = new OpeningBook(BookSelection.BEST,
+                this.keys, PolyglotBook.open(this.bookPath));
+
+        assertEquals(Optional.of("d2d4"),
+                openingBook.findMove(Position.startPosition()));
+    }
+
+    @Test
+    public void shouldOnlyPickWeightedLegalMoves() throws Exception {
+        OpeningBook openingBook = new OpeningBook(BookSelection.WEIGHTED,
+                this.keys, PolyglotBook.open(this.bookPath));
+        Set<String> moves = new HashSet<>();
+        for (int draw = 0; draw < 200; draw++) {
+            moves.add(openingBook.findMove(Position.startPosition()).get());
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("e2e4", "d2d4")),
+                moves);
+    }
+
+    @Test
+    public void shouldTranslateCastling() throws Exception {
+        OpeningBook openingBook = new OpeningBook(BookSelection.BEST,
+                this.keys, PolyglotBook.open(this.bookPath));
+
+        assertEquals(Optional.of("e1g1"),
+                openingBook.findMove(Position.fromFen(CASTLING_FEN)));
+    }
+
+    @Test
+    public void shouldMissPositionOutOfBook() throws Exception {
+        OpeningBook openingBook = new OpeningBook(BookSelection.BEST,
+                this.keys, PolyglotBook.open(this.bookPath));
+
+        assertFalse(openingBook.findMove(Position.fromFen(
+                "8/8/8/8/8/8/8/k6K w - - 0 1")).isPresent());
+        assertEquals(1, openingBook.getMissCount());
+    }
+
+    @Test
+    public void shouldIgnoreEnPassantSquareWithoutAdjacentPawn() throws Exception {
+        assertEquals(this.keys.key(Position.fromFen(
+                        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                this.keys.key(Position.fromFen(
+                        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+    }
+
+    @Test
+    public void shouldRejectTableThatIsNotPolyglot() throws IOException {
+        Path keysPath = Files.createTempFile("keys", ".txt");
+        try {
+            StringBuilder table = new StringBuilder();
+            Random random = new Random(7);
+            for (int index = 0; index < PolyglotKeys.SIZE; index++) {
+                table.append(String.format("0x%016X,%n", random.nextLong()));
+            }
+            Files.write(keysPath, table.toString().getBytes());
+
+            assertThrows(IOException.class, () -> PolyglotKeys.load(keysPath));
+        } finally {
+            Files.delete(keysPath);
+        }
+    }
+
+    private static long move(String from, String to) throws Exception {
+        return Square.parse(to) | (Square.parse(from) << 6);
+    }
+}
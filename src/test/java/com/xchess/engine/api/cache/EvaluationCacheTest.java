@@ -0,0 +1,137 @@
+package com.xchess.engine.api.cache;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EvaluationCacheTest {
+    private static final String FEN =
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -";
+
+    private MutableClock clock;
+    private EvaluationCache cache;
+
+    @Before
+    public void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxSize(2);
+        properties.setTtlInMs(1000);
+        this.clock = new MutableClock();
+        this.cache = new EvaluationCache(properties, this.clock);
+    }
+
+    @Test
+    public void shouldAnswerRequestsUpToCachedDepth() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, depth(12), "e2e4");
+
+        assertEquals(Optional.of("e2e4"), this.cache.get(EvaluationType.BEST_MOVE,
+                FEN, depth(12), String.class));
+        assertEquals(Optional.of("e2e4"), this.cache.get(EvaluationType.BEST_MOVE,
+                FEN, depth(8), String.class));
+        assertFalse(this.cache.get(EvaluationType.BEST_MOVE, FEN, depth(14),
+                String.class).isPresent());
+        assertEquals(2, this.cache.getHitCount());
+        assertEquals(1, this.cache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotReplaceDeeperResultWithShallowerOne() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, depth(12), "e2e4");
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, depth(6), "d2d4");
+
+        assertEquals(Optional.of("e2e4"), this.cache.get(EvaluationType.BEST_MOVE,
+                FEN, depth(6), String.class));
+    }
+
+    @Test
+    public void shouldNotAnswerFromTimeLimitedSearch() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, EvaluationParameters
+                .builder()
+                .depth(20)
+                .timeInMs(50)
+                .build(), "a2a3");
+
+        assertFalse(this.cache.get(EvaluationType.BEST_MOVE, FEN, depth(12),
+                String.class).isPresent());
+        assertEquals(0, this.cache.getSize());
+    }
+
+    @Test
+    public void shouldSeparateEvaluationTypes() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, depth(12), "e2e4");
+
+        assertFalse(this.cache.get(EvaluationType.POSITION_EVALUATION, FEN,
+                depth(12), String.class).isPresent());
+    }
+
+    @Test
+    public void shouldExpireEntries() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN, depth(12), "e2e4");
+        this.clock.advance(Duration.ofMillis(1000));
+
+        assertFalse(this.cache.get(EvaluationType.BEST_MOVE, FEN, depth(12),
+                String.class).isPresent());
+        assertEquals(0, this.cache.getSize());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        this.cache.put(EvaluationType.BEST_MOVE, "a", depth(10), "a");
+        this.cache.put(EvaluationType.BEST_MOVE, "b", depth(10), "b");
+        this.cache.get(EvaluationType.BEST_MOVE, "a", depth(10), String.class);
+        this.cache.put(EvaluationType.BEST_MOVE, "c", depth(10), "c");
+
+        assertTrue(this.cache.get(EvaluationType.BEST_MOVE, "a", depth(10),
+                String.class).isPresent());
+        assertFalse(this.cache.get(EvaluationType.BEST_MOVE, "b", depth(10),
+                String.class).isPresent());
+        assertEquals(1, this.cache.getEvictionCount());
+    }
+
+    @Test
+    public void shouldNotCacheSearchesWithoutDepth() {
+        this.cache.put(EvaluationType.BEST_MOVE, FEN,
+                EvaluationParameters.builder().build(), "e2e4");
+
+        assertEquals(0, this.cache.getSize());
+    }
+
+    private static EvaluationParameters depth(int depth) {
+        return EvaluationParameters.builder().depth(depth).build();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.xchess.engine.api.cluster;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xchess.engine.api.binary.BinaryProtocol;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import jakarta.servlet.ReadListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterForwardingFilterTest {
+    private static final String SELF = "http://localhost:1";
+
+    private HttpServer peer;
+    private String peerUrl;
+    private List<String> forwardedUris;
+    private List<byte[]> forwardedBodies;
+    private volatile int peerStatus;
+    private volatile long peerDelayInMs;
+
+    @Before
+    public void setUp() throws IOException {
+        this.forwardedUris = new ArrayList<>();
+        this.forwardedBodies = new ArrayList<>();
+        this.peerStatus = 200;
+        this.peerDelayInMs = 0;
+        this.peer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.peer.createContext("/", exchange -> {
+            this.forwardedUris.add(exchange.getRequestURI() + " "
+                    + exchange.getRequestHeaders().getFirst(ClusterForwardingFilter.FORWARDED_HEADER));
+            this.forwardedBodies.add(StreamUtils.copyToByteArray(exchange.getRequestBody()));
+            try {
+                TimeUnit.MILLISECONDS.sleep(this.peerDelayInMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"bestMove\":\"e2e4\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (this.peerStatus == 503) {
+                exchange.getResponseHeaders().add("Retry-After", "5");
+            }
+            exchange.sendResponseHeaders(this.peerStatus, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.peer.start();
+        this.peerUrl = "http://localhost:" + this.peer.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        this.peer.stop(0);
+    }
+
+    @Test
+    public void shouldForwardPositionsOwnedByPeer() throws Exception {
+        ClusterForwardingFilter filter = filter(this.peerUrl);
+        MockHttpServletRequest request = get("/bestMove");
+        request.setQueryString("depth=12");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(Arrays.asList("/bestMove?depth=12 " + SELF), this.forwardedUris);
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals("{\"bestMove\":\"e2e4\"}", response.getContentAsString());
+    }
+
+    @Test
+    public void shouldReplayBinaryBody() throws Exception {
+        ClusterForwardingFilter filter = filter(this.peerUrl);
+        byte[] body = BinaryProtocol.encodeRequest(BinaryPositionRequest
+                .builder()
+                .depth(8)
+                .build());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bestMove");
+        request.setServletPath("/bestMove");
+        request.setContentType(BinaryProtocol.MEDIA_TYPE_VALUE);
+        request.setContent(body);
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertArrayEquals(body, this.forwardedBodies.get(0));
+    }
+
+    @Test
+    public void shouldRunLocallyWhenPeerIsDown() throws Exception {
+        String downPeer;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            downPeer = "http://localhost:" + socket.getLocalPort();
+        }
+        ClusterForwardingFilter filter = filter(downPeer);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/bestMove"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void shouldCopyPeerHeaders() throws Exception {
+        this.peerStatus = 503;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(this.peerUrl).doFilter(get("/bestMove"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeader("Retry-After"));
+        assertEquals("application/json", response.getContentType());
+    }
+
+    @Test
+    public void shouldNotSearchLocallyWhenPeerTimesOut() throws Exception {
+        this.peerDelayInMs = 500;
+        ClusterForwardingFilter filter = filter(this.peerUrl);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/bestMove"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(504, response.getStatus());
+    }
+
+    @Test
+    public void shouldReplayBodyToReadListener() throws Exception {
+        String downPeer;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            downPeer = "http://localhost:" + socket.getLocalPort();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bestMove");
+        request.setServletPath("/bestMove");
+        request.setContent(new byte[]{1, 2, 3});
+        MockFilterChain chain = new MockFilterChain();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        filter(downPeer).doFilter(request, new MockHttpServletResponse(), chain);
+        chain.getRequest().getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        });
+
+        assertTrue(allDataRead.get());
+    }
+
+    @Test
+    public void shouldNotForwardTwice() throws Exception {
+        ClusterForwardingFilter filter = filter(this.peerUrl);
+        MockHttpServletRequest request = get("/positionEvaluation");
+        request.addHeader(ClusterForwardingFilter.FORWARDED_HEADER, this.peerUrl);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(0, this.forwardedUris.size());
+    }
+
+    /**
+     * A cluster where the peer owns every position.
+     */
+    private static ClusterForwardingFilter filter(String peer) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(SELF);
+        properties.setPeers(Arrays.asList(SELF, peer));
+        properties.setVirtualNodes(0);
+        properties.setReadTimeoutInMs(200);
+        ClusterRouter router = new ClusterRouter(properties) {
+            @Override
+            public Optional<String> peerFor(String normalizedFen) {
+                return Optional.of(peer);
+            }
+        };
+        return new ClusterForwardingFilter(router, properties);
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.xchess.engine.api.cluster;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterRouterTest {
+    private static final String SELF = "http://localhost:8080";
+    private static final String PEER = "http://localhost:8081";
+
+    private ClusterProperties properties;
+    private MutableClock clock;
+
+    @Before
+    public void setUp() {
+        this.properties = new ClusterProperties();
+        this.properties.setEnabled(true);
+        this.properties.setSelf(SELF);
+        this.properties.setPeers(Arrays.asList(SELF, PEER));
+        this.properties.setPeerRetryInMs(1000);
+        this.clock = new MutableClock();
+    }
+
+    @Test
+    public void shouldRouteToOwnerOnly() {
+        ClusterRouter router = new ClusterRouter(this.properties, this.clock);
+        HashRing ring = new HashRing(this.properties.getPeers(),
+                this.properties.getVirtualNodes());
+        boolean forwarded = false;
+        boolean local = false;
+        for (int i = 0; i < 100; i++) {
+            String key = "position " + i;
+            Optional<String> peer = router.peerFor(key);
+            assertEquals(ring.nodeFor(key).equals(PEER), peer.isPresent());
+            forwarded |= peer.isPresent();
+            local |= !peer.isPresent();
+        }
+
+        assertTrue(forwarded);
+        assertTrue(local);
+    }
+
+    @Test
+    public void shouldServeLocallyWhilePeerIsDown() {
+        ClusterRouter router = new ClusterRouter(this.properties, this.clock);
+        String key = ownedByPeer();
+
+        router.markDown(PEER);
+        assertFalse(router.peerFor(key).isPresent());
+
+        this.clock.advance(Duration.ofMillis(1000));
+        assertEquals(Optional.of(PEER), router.peerFor(key));
+    }
+
+    @Test
+    public void shouldStayLocalWhenDisabled() {
+        this.properties.setEnabled(false);
+        ClusterRouter router = new ClusterRouter(this.properties, this.clock);
+
+        assertFalse(router.peerFor(ownedByPeer()).isPresent());
+    }
+
+    @Test
+    public void shouldRejectSelfMissingFromPeers() {
+        this.properties.setSelf("http://localhost:9090");
+
+        assertThrows(IllegalStateException.class,
+                () -> new ClusterRouter(this.properties, this.clock));
+    }
+
+    private String ownedByPeer() {
+        HashRing ring = new HashRing(this.properties.getPeers(),
+                this.properties.getVirtualNodes());
+        for (int i = 0; ; i++) {
+            if (ring.nodeFor("position " + i).equals(PEER)) {
+                return "position " + i;
+            }
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.xchess.engine.api.cluster;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashRingTest {
+    private static final List<String> NODES = Arrays.asList(
+            "http://localhost:8080", "http://localhost:8081",
+            "http://localhost:8082");
+
+    @Test
+    public void shouldSpreadKeysEvenly() {
+        HashRing ring = new HashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30000; i++) {
+            counts.merge(ring.nodeFor("position " + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > 7000 && count < 13000, "count " + count);
+        }
+    }
+
+    @Test
+    public void shouldOnlyMoveKeysOfRemovedNode() {
+        HashRing ring = new HashRing(NODES, 128);
+        HashRing shrunk = new HashRing(NODES.subList(0, 2), 128);
+
+        for (int i = 0; i < 10000; i++) {
+            String key = "position " + i;
+            String node = ring.nodeFor(key);
+            if (!node.equals(NODES.get(2))) {
+                assertEquals(node, shrunk.nodeFor(key));
+            }
+        }
+    }
+
+    @Test
+    public void shouldAgreeAcrossInstances() {
+        HashRing ring = new HashRing(NODES, 16);
+        HashRing other = new HashRing(NODES, 16);
+
+        assertEquals(ring.nodeFor("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -"),
+                other.nodeFor("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.xchess.engine.api.concurrent;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest {
+    private final AtomicLong now = new AtomicLong();
+    private Deadline deadline;
+
+    @Before
+    public void setUp() {
+        this.deadline = new Deadline(TimeUnit.MILLISECONDS.toNanos(1000),
+                TimeUnit.MILLISECONDS.toNanos(100), this.now::get);
+    }
+
+    @Test
+    public void shouldStopSearchesBeforeDeadline() {
+        EvaluationParameters limited = this.deadline.limit(
+                EvaluationParameters.builder().depth(30).build());
+
+        assertEquals(Integer.valueOf(30), limited.getDepth());
+        assertEquals(Integer.valueOf(900), limited.getTimeInMs());
+    }
+
+    @Test
+    public void shouldKeepShorterTimeLimits() {
+        EvaluationParameters evaluationParameters =
+                EvaluationParameters.builder().timeInMs(500).build();
+
+        assertSame(evaluationParameters,
+                this.deadline.limit(evaluationParameters));
+        this.now.set(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(Integer.valueOf(300), this.deadline.limit(evaluationParameters)
+                .getTimeInMs());
+    }
+
+    @Test
+    public void shouldTellWhenTimeLimitWasImposed() {
+        EvaluationParameters depthOnly =
+                EvaluationParameters.builder().depth(30).build();
+        EvaluationParameters shortSearch =
+                EvaluationParameters.builder().timeInMs(500).build();
+
+        assertTrue(Deadline.isTimeLimited(depthOnly,
+                this.deadline.limit(depthOnly)));
+        assertFalse(Deadline.isTimeLimited(shortSearch,
+                this.deadline.limit(shortSearch)));
+        assertFalse(Deadline.isTimeLimited(depthOnly,
+                Deadline.none().limit(depthOnly)));
+    }
+
+    @Test
+    public void shouldBeExhaustedWithinMarginOrWhenCancelled() {
+        assertFalse(this.deadline.isExhausted());
+        this.now.set(TimeUnit.MILLISECONDS.toNanos(950));
+        assertTrue(this.deadline.isExhausted());
+
+        Deadline none = Deadline.none();
+        EvaluationParameters evaluationParameters =
+                EvaluationParameters.builder().depth(30).build();
+        assertSame(evaluationParameters, none.limit(evaluationParameters));
+        assertFalse(none.isExhausted());
+        none.cancel();
+        assertTrue(none.isExhausted());
+    }
+}
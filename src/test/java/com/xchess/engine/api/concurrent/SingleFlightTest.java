@@ -0,0 +1,87 @@
+package com.xchess.engine.api.concurrent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+    private SingleFlight<String, String> singleFlight;
+    private AtomicInteger calls;
+
+    @Before
+    public void setUp() {
+        this.singleFlight = new SingleFlight<>();
+        this.calls = new AtomicInteger();
+    }
+
+    @Test
+    public void shouldShareResultBetweenConcurrentCalls() throws Exception {
+        CompletableFuture<String> search = new CompletableFuture<>();
+        CompletableFuture<String> first = this.singleFlight.execute("key",
+                () -> countCall(search));
+        CompletableFuture<String> second = this.singleFlight.execute("key",
+                () -> countCall(search));
+
+        assertFalse(first.isDone());
+        search.complete("e2e4");
+
+        assertEquals("e2e4", first.get());
+        assertEquals("e2e4", second.get());
+        assertEquals(1, this.calls.get());
+        assertEquals(1, this.singleFlight.getCoalescedCount());
+        assertEquals(0, this.singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void shouldPropagateFailureToAllCallers() {
+        CompletableFuture<String> search = new CompletableFuture<>();
+        CompletableFuture<String> first = this.singleFlight.execute("key",
+                () -> countCall(search));
+        CompletableFuture<String> second = this.singleFlight.execute("key",
+                () -> countCall(search));
+        search.completeExceptionally(new IllegalStateException("engine failure"));
+
+        for (CompletableFuture<String> result : new CompletableFuture[]{first, second}) {
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    result::get);
+            assertInstanceOf(IllegalStateException.class,
+                    Futures.unwrap(exception));
+        }
+    }
+
+    @Test
+    public void shouldNotShareCancellationBetweenCallers() throws Exception {
+        CompletableFuture<String> search = new CompletableFuture<>();
+        CompletableFuture<String> first = this.singleFlight.execute("key",
+                () -> countCall(search));
+        CompletableFuture<String> second = this.singleFlight.execute("key",
+                () -> countCall(search));
+        first.cancel(false);
+        search.complete("e2e4");
+
+        assertEquals("e2e4", second.get());
+    }
+
+    @Test
+    public void shouldRunSequentialCallsSeparately() throws Exception {
+        this.singleFlight.execute("key",
+                () -> countCall(CompletableFuture.completedFuture("a"))).get();
+        this.singleFlight.execute("key",
+                () -> countCall(CompletableFuture.completedFuture("b"))).get();
+
+        assertEquals(2, this.calls.get());
+    }
+
+    private CompletableFuture<String> countCall(CompletableFuture<String> search) {
+        this.calls.incrementAndGet();
+        return search;
+    }
+}
@@ -0,0 +1,96 @@
+package com.xchess.engine.api.controller;
+
+import com.xchess.engine.api.binary.BinaryMessageConverter;
+import com.xchess.engine.api.binary.BinaryProtocol;
+import com.xchess.engine.api.concurrent.Deadline;
+import com.xchess.engine.api.concurrent.DeadlineProperties;
+import com.xchess.engine.api.domain.request.BinaryPositionRequest;
+import com.xchess.engine.api.service.BatchAnalysisService;
+import com.xchess.engine.api.service.ChessService;
+import com.xchess.engine.api.service.GameAnalysisService;
+import com.xchess.engine.api.service.ProgressiveEvaluationService;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ChessControllerTest {
+    private ChessService chessService;
+    private BatchAnalysisService batchAnalysisService;
+    private GameAnalysisService gameAnalysisService;
+    private ChessController chessController;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        this.chessService = mock(ChessService.class);
+        this.batchAnalysisService = mock(BatchAnalysisService.class);
+        this.gameAnalysisService = mock(GameAnalysisService.class);
+        this.chessController = new ChessController(this.chessService,
+                this.batchAnalysisService,
+                mock(ProgressiveEvaluationService.class),
+                this.gameAnalysisService, new DeadlineProperties());
+        this.mockMvc = MockMvcBuilders.standaloneSetup(this.chessController)
+                .build();
+    }
+
+    @Test
+    public void shouldPassProfileOfBinaryBestMoveRequest() throws Exception {
+        when(this.chessService.findBestMove(any(), any(EvaluationParameters.class),
+                any(), any(Deadline.class))).thenReturn(new CompletableFuture<>());
+        MockMvc binaryMockMvc = MockMvcBuilders.standaloneSetup(this.chessController)
+                .setMessageConverters(new BinaryMessageConverter())
+                .build();
+
+        binaryMockMvc.perform(post("/bestMove")
+                .param("profile", "strong")
+                .param("requestTimeoutInMs", "5000")
+                .contentType(BinaryProtocol.MEDIA_TYPE)
+                .content(BinaryProtocol.encodeRequest(BinaryPositionRequest
+                        .builder()
+                        .depth(10)
+                        .build())));
+
+        verify(this.chessService).findBestMove(any(),
+                any(EvaluationParameters.class), eq("strong"),
+                any(Deadline.class));
+    }
+
+    @Test
+    public void shouldRejectEmptyBatch() throws Exception {
+        this.mockMvc.perform(post("/batchAnalysis")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(this.batchAnalysisService);
+    }
+
+    @Test
+    public void shouldRejectMoveRequestWithoutMoves() throws Exception {
+        this.mockMvc.perform(post("/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fen\":null,\"moves\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(this.chessService);
+    }
+
+    @Test
+    public void shouldRejectGameAnalysisWithoutEvaluationParameters() throws Exception {
+        this.mockMvc.perform(post("/gameAnalysis")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pgn\":\"1. e4 e5\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(this.gameAnalysisService);
+    }
+}
@@ -1,99 +1,146 @@
 package com.xchess.engine.api.controller;
 
 import com.xchess.ChessEngine;
+import com.xchess.engine.api.book.OpeningBook;
+import com.xchess.engine.api.book.OpeningBookProperties;
+import com.xchess.engine.api.cache.CacheProperties;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.concurrent.Deadline;
 import com.xchess.engine.api.domain.enumeration.ChessColor;
 import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.MoveResponse;
 import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
 import com.xchess.engine.api.domain.response.PossibleMovesResponse;
+import com.xchess.engine.api.domain.response.ProgressiveEvaluationResponse;
 import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.exceptions.DeadlineExceededException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
 import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.pool.EngineProfile;
 import com.xchess.engine.api.service.ChessService;
+import com.xchess.engine.api.store.AnalysisStore;
+import com.xchess.engine.api.store.AnalysisStoreProperties;
+import com.xchess.engine.api.tablebase.SyzygyProperties;
+import com.xchess.engine.api.tablebase.SyzygyTablebase;
 import com.xchess.evaluation.ChessEngineEvaluation;
 import com.xchess.evaluation.ChessEngineEvaluationType;
 import com.xchess.evaluation.parameter.EvaluationParameters;
-import com.xchess.exceptions.InvalidSquareSyntaxException;
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class ChessServiceTest {
 
+    private GenericKeyedObjectPool<String, ChessEngine> pool;
     private ChessEngine engine;
     private ChessService chessService;
 
     @Before
     public void setUp() throws Exception {
-        GenericObjectPool<ChessEngine> pool = mock(GenericObjectPool.class);
+        this.pool = mock(GenericKeyedObjectPool.class);
         this.engine = mock(ChessEngine.class);
-        when(pool.borrowObject()).thenReturn(engine);
+        when(this.pool.borrowObject(EngineProfile.DEFAULT)).thenReturn(engine);
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(true);
+        cacheProperties.setMaxSize(100);
+        cacheProperties.setTtlInMs(60000);
         this.chessService =
-                new ChessService(new PoolWrapperTestImplementation(pool));
+                new ChessService(new PoolWrapperTestImplementation(this.pool),
+                        new EvaluationCache(cacheProperties),
+                        new OpeningBook(new OpeningBookProperties()),
+                        new AnalysisStore(new AnalysisStoreProperties()),
+                        new SyzygyTablebase(new SyzygyProperties()));
     }
 
     @Test
     public void shouldCallEngineGetVersionMethod() throws Exception {
         doReturn(12.4f).when(this.engine).getEngineVersion();
 
-        assertEquals(12.4f, this.chessService.getEngineVersion().getVersion());
+        assertEquals(12.4f, await(this.chessService.getEngineVersion()).getVersion());
     }
 
     @Test
-    public void shouldMoveToFenPositionWhenGettingPossibleMoves() throws Exception {
+    public void shouldNotBorrowEngineWhenGettingPossibleMoves() throws Exception {
         String fen = "rnbqkbnr/ppp1pppp/8/3p4/4P3/8" +
                 "/PPPP1PPP/RNBQKBNR w KQkq d6 0 2";
         this.chessService.getPossibleMoves(fen, null);
 
-        verify(this.engine, times(1)).moveToFenPosition(fen, true);
+        verifyNoInteractions(this.engine);
     }
 
     @Test
-    public void shouldMoveToStartPositionWhenGettingPossibleMoves() throws Exception {
-        this.chessService.getPossibleMoves(null, null);
-
-        verify(this.engine, times(1)).moveToStartPosition(true);
+    public void shouldGetPossibleMovesFromStartPosition() {
+        PossibleMovesResponse result =
+                this.chessService.getPossibleMoves(null, null);
+        assertEquals(20, result.getPossibleMoves().size());
+        assertTrue(result.getPossibleMoves().contains("e2e4"));
     }
 
     @Test
-    public void shouldGetPossibleMoves() throws Exception {
-        List<String> expected = Collections.singletonList("a2a4");
-        doReturn(expected).when(this.engine).getPossibleMoves();
+    public void shouldGetPossibleMovesForSquare() {
         PossibleMovesResponse result =
-                this.chessService.getPossibleMoves(null, null);
-        assertEquals(expected, result.getPossibleMoves());
+                this.chessService.getPossibleMoves(null, "a2");
+        assertEquals(Arrays.asList("a2a3", "a2a4"), result.getPossibleMoves());
     }
 
     @Test
-    public void shouldGetPossibleMovesForSquare() throws Exception {
-        List<String> expected = Collections.singletonList("a2a4");
-        doReturn(expected).when(this.engine).getPossibleMoves("a2");
+    public void shouldGetPromotionMoves() {
         PossibleMovesResponse result =
-                this.chessService.getPossibleMoves(null, "a2");
-        assertEquals(expected, result.getPossibleMoves());
+                this.chessService.getPossibleMoves("8/P7/8/8/8/8/8/k6K w - - 0 1", "a7");
+        assertEquals(Arrays.asList("a7a8q", "a7a8r", "a7a8b", "a7a8n"),
+                result.getPossibleMoves());
     }
 
     @Test
-    public void shouldThrowExceptionWhenGetPossibleMoves() throws Exception {
-        doThrow(IOException.class).when(this.engine).getPossibleMoves();
-        assertThrows(ChessEngineWorkerExecutionException.class,
-                () -> this.chessService.getPossibleMoves(null, null));
+    public void shouldThrowExceptionWhenGetPossibleMovesWithInvalidFen() {
+        assertThrows(InvalidMoveException.class,
+                () -> this.chessService.getPossibleMoves("notafen", null));
     }
 
     @Test
-    public void shouldThrowExceptionWhenGetPossibleMovesWithBadSyntax() throws Exception {
-        doThrow(InvalidSquareSyntaxException.class).when(this.engine).getPossibleMoves(anyString());
+    public void shouldThrowExceptionWhenGetPossibleMovesWithBadSyntax() {
         assertThrows(InvalidSyntaxException.class,
                 () -> this.chessService.getPossibleMoves(null, "notvalid"));
     }
 
+    @Test
+    public void shouldMove() {
+        MoveResponse result = this.chessService.move(null,
+                Arrays.asList("e2e4", "d7d5", "e4e5", "f7f5"));
+        assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                result.getResultFen());
+        verifyNoInteractions(this.engine);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMoveIsIllegal() {
+        assertThrows(InvalidMoveException.class,
+                () -> this.chessService.move(null,
+                        Collections.singletonList("e2e5")));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMoveHasBadSyntax() {
+        assertThrows(InvalidSyntaxException.class,
+                () -> this.chessService.move(null,
+                        Collections.singletonList("e2")));
+    }
+
     @Test
     public void shouldMoveToFenPositionWhenFindingBestMove() throws Exception {
         String fen = "rnbqkbnr/ppp1pppp/8/3p4/4P3/8" +
@@ -116,17 +163,148 @@ public class ChessServiceTest {
     public void shouldFindBestMove() throws Exception {
         String expected = "a2a4";
         doReturn(expected).when(this.engine).findBestMove(any(EvaluationParameters.class));
-        BestMoveResponse result = this.chessService.findBestMove(null,
-                EvaluationParameters.builder().depth(10).build());
+        BestMoveResponse result = await(this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(10).build()));
         assertEquals(expected, result.getBestMove());
     }
 
+    @Test
+    public void shouldAnswerShallowerBestMoveFromCache() throws Exception {
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(12).build());
+        BestMoveResponse result = await(this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(10).build()));
+
+        assertEquals("e2e4", result.getBestMove());
+        verify(this.engine, times(1)).findBestMove(any(EvaluationParameters.class));
+    }
+
+    @Test
+    public void shouldSearchAgainWhenCachedBestMoveIsShallower() throws Exception {
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(10).build());
+        this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(12).build());
+
+        verify(this.engine, times(2)).findBestMove(any(EvaluationParameters.class));
+    }
+
     @Test
     public void shouldThrowExceptionWhenFindBestMove() throws Exception {
         doThrow(IOException.class).when(this.engine).findBestMove(any(EvaluationParameters.class));
         assertThrows(ChessEngineWorkerExecutionException.class,
+                () -> await(this.chessService.findBestMove(null,
+                        EvaluationParameters.builder().depth(10).build())));
+    }
+
+    @Test
+    public void shouldSearchOnProfileEngineWithoutCache() throws Exception {
+        when(this.pool.borrowObject("weak")).thenReturn(this.engine);
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        ChessService service = new ChessService(
+                new PoolWrapperTestImplementation(this.pool,
+                        Collections.singletonMap("weak", new EngineProfile())),
+                new EvaluationCache(new CacheProperties()),
+                new OpeningBook(new OpeningBookProperties()),
+                new AnalysisStore(new AnalysisStoreProperties()),
+                new SyzygyTablebase(new SyzygyProperties()));
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(10).build();
+
+        await(service.findBestMove(null, parameters, "weak", Deadline.none()));
+        await(service.findBestMove(null, parameters, "weak", Deadline.none()));
+
+        verify(this.pool, times(2)).borrowObject("weak");
+        verify(this.pool, never()).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(2)).findBestMove(parameters);
+    }
+
+    @Test
+    public void shouldRejectUnknownProfile() {
+        assertThrows(InvalidSyntaxException.class,
                 () -> this.chessService.findBestMove(null,
-                        EvaluationParameters.builder().depth(10).build()));
+                        EvaluationParameters.builder().depth(10).build(),
+                        "unknown", Deadline.none()));
+    }
+
+    @Test
+    public void shouldResetAndKeepEngineAfterInputError() throws Exception {
+        doThrow(InvalidFenPositionException.class).when(this.engine)
+                .moveToFenPosition(anyString(), anyBoolean());
+
+        assertThrows(InvalidMoveException.class,
+                () -> await(this.chessService.findBestMove(
+                        "8/8/8/8/8/8/8/k6K w - - 0 1",
+                        EvaluationParameters.builder().depth(10).build())));
+        verify(this.engine, times(1)).moveToStartPosition(true);
+        verify(this.pool, times(1)).returnObject(EngineProfile.DEFAULT, this.engine);
+        verify(this.pool, never()).invalidateObject(EngineProfile.DEFAULT, this.engine);
+    }
+
+    @Test
+    public void shouldInvalidateEngineAfterIoError() throws Exception {
+        doThrow(IOException.class).when(this.engine).findBestMove(any(EvaluationParameters.class));
+
+        assertThrows(ChessEngineWorkerExecutionException.class,
+                () -> await(this.chessService.findBestMove(null,
+                        EvaluationParameters.builder().depth(10).build())));
+        verify(this.pool, times(1)).invalidateObject(EngineProfile.DEFAULT, this.engine);
+        verify(this.pool, never()).returnObject(EngineProfile.DEFAULT, this.engine);
+    }
+
+    @Test
+    public void shouldKeepFailureWhenRecoveryFails() throws Exception {
+        doThrow(IOException.class).when(this.engine).findBestMove(any(EvaluationParameters.class));
+        IllegalStateException invalidationFailure = new IllegalStateException();
+        doThrow(invalidationFailure).when(this.pool)
+                .invalidateObject(EngineProfile.DEFAULT, this.engine);
+
+        ChessEngineWorkerExecutionException e = assertThrows(
+                ChessEngineWorkerExecutionException.class,
+                () -> await(this.chessService.findBestMove(null,
+                        EvaluationParameters.builder().depth(10).build())));
+        assertTrue(Arrays.asList(e.getSuppressed()).contains(invalidationFailure));
+    }
+
+    @Test
+    public void shouldNotRecoverEngineWhenReturnFails() throws Exception {
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        doThrow(IllegalStateException.class).when(this.pool)
+                .returnObject(EngineProfile.DEFAULT, this.engine);
+
+        assertThrows(IllegalStateException.class,
+                () -> await(this.chessService.findBestMove(null,
+                        EvaluationParameters.builder().depth(10).build())));
+        verify(this.pool, times(1)).returnObject(EngineProfile.DEFAULT, this.engine);
+        verify(this.engine, never()).moveToStartPosition(true);
+        verify(this.pool, never()).invalidateObject(EngineProfile.DEFAULT, this.engine);
+    }
+
+    @Test
+    public void shouldLimitSearchTimeToDeadline() throws Exception {
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        BestMoveResponse result = await(this.chessService.findBestMove(null,
+                EvaluationParameters.builder().depth(40).build(),
+                Deadline.after(5000, 250)));
+
+        assertEquals("e2e4", result.getBestMove());
+        verify(this.engine, times(1)).findBestMove(argThat(parameters ->
+                parameters.getDepth() == 40
+                        && parameters.getTimeInMs() <= 4750));
+    }
+
+    @Test
+    public void shouldNotSearchWhenDeadlineIsExhausted() {
+        Deadline deadline = Deadline.after(5000, 250);
+        deadline.cancel();
+
+        assertThrows(DeadlineExceededException.class,
+                () -> await(this.chessService.findBestMove(null,
+                        EvaluationParameters.builder().depth(10).build(),
+                        deadline)));
+        verifyNoInteractions(this.engine);
     }
 
     @Test
@@ -153,8 +331,8 @@ public class ChessServiceTest {
     public void shouldGetPositionEvaluationForWhite() throws Exception {
         initEvaluationMock(12);
         PositionEvaluationResponse result =
-                this.chessService.getPositionEvaluation(null,
-                        EvaluationParameters.builder().depth(10).build());
+                await(this.chessService.getPositionEvaluation(null,
+                        EvaluationParameters.builder().depth(10).build()));
         assertEquals(12, result.getValue());
         assertEquals(ChessColor.WHITE, result.getColor());
         assertEquals(ChessEngineEvaluationType.CENTIPAWNS, result.getType());
@@ -164,8 +342,8 @@ public class ChessServiceTest {
     public void shouldGetPositionEvaluationForBlack() throws Exception {
         initEvaluationMock(-12);
         PositionEvaluationResponse result =
-                this.chessService.getPositionEvaluation(null,
-                        EvaluationParameters.builder().depth(10).build());
+                await(this.chessService.getPositionEvaluation(null,
+                        EvaluationParameters.builder().depth(10).build()));
         assertEquals(12, result.getValue());
         assertEquals(ChessColor.BLACK, result.getColor());
         assertEquals(ChessEngineEvaluationType.CENTIPAWNS, result.getType());
@@ -175,8 +353,55 @@ public class ChessServiceTest {
     public void shouldThrowExceptionWhenEvaluatingPosition() throws Exception {
         doThrow(IOException.class).when(this.engine).getPositionEvaluation(any(EvaluationParameters.class));
         assertThrows(ChessEngineWorkerExecutionException.class,
-                () -> this.chessService.getPositionEvaluation(null,
-                        EvaluationParameters.builder().depth(10).build()));
+                () -> await(this.chessService.getPositionEvaluation(null,
+                        EvaluationParameters.builder().depth(10).build())));
+    }
+
+    @Test
+    public void shouldStreamEvaluationsOfIncreasingDepth() throws Exception {
+        initEvaluationMock(12);
+        List<ProgressiveEvaluationResponse> responses = new ArrayList<>();
+        this.chessService.streamPositionEvaluation(null,
+                EvaluationParameters.builder().depth(12).build(), 8, 2,
+                responses::add);
+
+        assertEquals(3, responses.size());
+        assertEquals(8, responses.get(0).getDepth());
+        assertEquals(12, responses.get(2).getDepth());
+        assertTrue(responses.get(2).isComplete());
+        verify(this.engine, times(1)).moveToStartPosition(true);
+    }
+
+    @Test
+    public void shouldKeepTimeLimitOnEveryStreamedDepth() throws Exception {
+        initEvaluationMock(12);
+        this.chessService.streamPositionEvaluation(null,
+                EvaluationParameters.builder().depth(12).timeInMs(50).build(),
+                8, 2, response -> true);
+
+        verify(this.engine, times(3)).getPositionEvaluation(argThat(parameters ->
+                Integer.valueOf(50).equals(parameters.getTimeInMs())));
+    }
+
+    @Test
+    public void shouldStopStreamingWhenListenerLeaves() throws Exception {
+        initEvaluationMock(12);
+        this.chessService.streamPositionEvaluation(null,
+                EvaluationParameters.builder().depth(20).build(), 8, 2,
+                response -> false);
+
+        verify(this.engine, times(1)).getPositionEvaluation(any(EvaluationParameters.class));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
     }
 
     private void initEvaluationMock(int value) throws IOException,
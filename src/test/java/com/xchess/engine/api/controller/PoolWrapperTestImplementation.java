@@ -1,12 +1,21 @@
 package com.xchess.engine.api.controller;
 
 import com.xchess.ChessEngine;
+import com.xchess.engine.api.pool.EngineProfile;
 import com.xchess.engine.api.pool.PoolWrapper;
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+
+import java.util.Map;
 
 public class PoolWrapperTestImplementation extends PoolWrapper {
-    public PoolWrapperTestImplementation(GenericObjectPool<ChessEngine> pool) {
+    public PoolWrapperTestImplementation(GenericKeyedObjectPool<String, ChessEngine> pool) {
         super();
         this.pool = pool;
     }
+
+    public PoolWrapperTestImplementation(GenericKeyedObjectPool<String, ChessEngine> pool,
+                                         Map<String, EngineProfile> profiles) {
+        this(pool);
+        this.profiles = profiles;
+    }
 }
@@ -0,0 +1,58 @@
+package com.xchess.engine.api.metrics;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.pool.scheduler.EngineTask;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class EngineMetricsTest {
+    private SimpleMeterRegistry registry;
+    private EngineMetrics engineMetrics;
+
+    @Before
+    public void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        this.engineMetrics = new EngineMetrics(this.registry);
+    }
+
+    @Test
+    public void shouldTimeEngineCallsPerCommandAndEndpoint() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        doReturn(16f).when(engine).getEngineVersion();
+        doThrow(new TimeoutException()).when(engine).getFenPosition();
+        ChessEngine instrumented = this.engineMetrics.instrument(engine);
+
+        this.engineMetrics.startTask(EngineTask.ENGINE_VERSION);
+        assertEquals(16f, instrumented.getEngineVersion());
+        assertThrows(TimeoutException.class, instrumented::getFenPosition);
+        this.engineMetrics.endTask();
+
+        assertEquals(1, this.registry.get("engine.uci.calls")
+                .tags("endpoint", "engine_version", "command",
+                        "getEngineVersion", "outcome", "success")
+                .timer().count());
+        assertEquals(1, this.registry.get("engine.uci.calls")
+                .tags("command", "getFenPosition", "outcome", "failure")
+                .timer().count());
+    }
+
+    @Test
+    public void shouldTagInvalidationsWithRootCause() {
+        this.engineMetrics.recordInvalidation(
+                new ChessEngineWorkerExecutionException(new IOException()));
+
+        assertEquals(1, this.registry.get("engine.invalidations")
+                .tags("endpoint", EngineMetrics.NO_ENDPOINT, "reason",
+                        "IOException")
+                .counter().count());
+    }
+}
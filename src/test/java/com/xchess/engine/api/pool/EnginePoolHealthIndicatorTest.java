@@ -0,0 +1,58 @@
+package com.xchess.engine.api.pool;
+
+import com.xchess.ChessEngine;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EnginePoolHealthIndicatorTest {
+    @Test
+    public void shouldBeOutOfServiceUntilEnginesAreWarm() {
+        CompletableFuture<Void> prewarm = new CompletableFuture<>();
+        EnginePoolHealthIndicator indicator = new EnginePoolHealthIndicator(
+                new PrewarmingPoolWrapper(prewarm, 2));
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        prewarm.complete(null);
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+
+    @Test
+    public void shouldStayOutOfServiceWhenPrewarmFails() {
+        CompletableFuture<Void> prewarm = new CompletableFuture<>();
+        prewarm.completeExceptionally(new IOException("no engine"));
+
+        assertEquals(Status.OUT_OF_SERVICE, new EnginePoolHealthIndicator(
+                new PrewarmingPoolWrapper(prewarm, 1)).health().getStatus());
+        assertEquals(Status.UP, new EnginePoolHealthIndicator(
+                new PrewarmingPoolWrapper(prewarm, 0)).health().getStatus());
+    }
+
+    private static class PrewarmingPoolWrapper extends PoolWrapper {
+        PrewarmingPoolWrapper(CompletableFuture<Void> prewarm,
+                              int prewarmTarget) {
+            this.pool = new GenericKeyedObjectPool<>(
+                    new BaseKeyedPooledObjectFactory<String, ChessEngine>() {
+                        @Override
+                        public ChessEngine create(String profile) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public PooledObject<ChessEngine> wrap(ChessEngine engineWorker) {
+                            return new DefaultPooledObject<>(engineWorker);
+                        }
+                    });
+            this.prewarm = prewarm;
+            this.prewarmTarget = prewarmTarget;
+        }
+    }
+}
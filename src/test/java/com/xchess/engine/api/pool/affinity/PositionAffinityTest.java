@@ -0,0 +1,97 @@
+package com.xchess.engine.api.pool.affinity;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+public class PositionAffinityTest {
+    private final ChessEngine engine = mock(ChessEngine.class);
+    private PositionAffinity positionAffinity;
+
+    @Before
+    public void setUp() {
+        this.positionAffinity = new PositionAffinity(new AffinityProperties());
+        this.positionAffinity.record(this.engine, Position.startPosition());
+    }
+
+    @Test
+    public void shouldNotMoveEngineAlreadyOnPosition() {
+        assertEquals(Optional.of(Collections.emptyList()),
+                this.positionAffinity.movesTo(this.engine,
+                        Position.startPosition()));
+    }
+
+    @Test
+    public void shouldPlayMissingMovesToDescendant() throws Exception {
+        List<String> moves = Arrays.asList("g1f3", "g8f6");
+        Position target = MoveGenerator.playUciMoves(Position.startPosition(),
+                moves);
+
+        assertEquals(Optional.of(moves),
+                this.positionAffinity.movesTo(this.engine, target));
+    }
+
+    @Test
+    public void shouldResetEngineForUnrelatedPosition() throws Exception {
+        Position target = MoveGenerator.playUciMoves(Position.startPosition(),
+                Arrays.asList("e2e4", "e7e5", "g1f3"));
+
+        assertFalse(this.positionAffinity.movesTo(this.engine, target).isPresent());
+        assertFalse(this.positionAffinity.movesTo(mock(ChessEngine.class),
+                Position.startPosition()).isPresent());
+    }
+
+    @Test
+    public void shouldOnlyFindIdleEngines() {
+        assertFalse(this.positionAffinity.findIdle(Position.startPosition(),
+                engineWorker -> true).isPresent());
+
+        this.positionAffinity.released(this.engine);
+        assertEquals(Optional.of(this.engine),
+                this.positionAffinity.findIdle(Position.startPosition(),
+                        engineWorker -> true));
+        assertFalse(this.positionAffinity.findIdle(Position.startPosition(),
+                engineWorker -> false).isPresent());
+
+        this.positionAffinity.taken(this.engine);
+        assertFalse(this.positionAffinity.findIdle(Position.startPosition(),
+                engineWorker -> true).isPresent());
+    }
+
+    @Test
+    public void shouldMeasureIdleDurationFromRelease() {
+        AtomicLong now = new AtomicLong();
+        PositionAffinity positionAffinity =
+                new PositionAffinity(new AffinityProperties(), now::get);
+        assertFalse(positionAffinity.getIdleDuration(this.engine).isPresent());
+
+        positionAffinity.released(this.engine);
+        now.set(Duration.ofSeconds(2).toNanos());
+
+        assertEquals(Duration.ofSeconds(2),
+                positionAffinity.getIdleDuration(this.engine).get());
+    }
+
+    @Test
+    public void shouldComputeHitRate() {
+        this.positionAffinity.recordOutcome(Optional.of(Collections.emptyList()));
+        this.positionAffinity.recordOutcome(Optional.of(Collections.singletonList("e2e4")));
+        this.positionAffinity.recordOutcome(Optional.empty());
+        this.positionAffinity.recordOutcome(Optional.empty());
+
+        assertEquals(0.5, this.positionAffinity.getHitRate());
+    }
+}
@@ -0,0 +1,83 @@
+package com.xchess.engine.api.pool.autoscaling;
+
+import com.xchess.engine.api.pool.PoolStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PoolAutoscalerTest {
+    private final AtomicLong now = new AtomicLong();
+    private double load;
+    private PoolAutoscaler autoscaler;
+
+    @Before
+    public void setUp() {
+        AutoscalingProperties properties = new AutoscalingProperties();
+        properties.setMinTotal(1);
+        properties.setMaxTotal(6);
+        properties.setSpareEngines(1);
+        properties.setTargetWaitInMs(200);
+        properties.setMaxLoadPerCore(1.0);
+        properties.setScaleDownDelayInMs(1000);
+        this.autoscaler = new PoolAutoscaler(null, properties,
+                () -> this.load, this.now::get);
+    }
+
+    @After
+    public void tearDown() {
+        this.autoscaler.shutdown();
+    }
+
+    @Test
+    public void shouldGrowToDemandPlusSpare() {
+        assertEquals(5, this.autoscaler.nextCapacity(statistics(2, 2, 2, 0)));
+    }
+
+    @Test
+    public void shouldStayWithinBounds() {
+        assertEquals(6, this.autoscaler.nextCapacity(statistics(2, 2, 20, 0)));
+    }
+
+    @Test
+    public void shouldGrowWhenWaitExceedsTarget() {
+        assertEquals(5, this.autoscaler.nextCapacity(statistics(4, 2, 1, 500)));
+    }
+
+    @Test
+    public void shouldShrinkWhenIdleAfterBurst() {
+        assertEquals(5, this.autoscaler.nextCapacity(statistics(5, 0, 0, 800)));
+
+        this.now.set(1000);
+        assertEquals(4, this.autoscaler.nextCapacity(statistics(5, 0, 0, 800)));
+    }
+
+    @Test
+    public void shouldNotGrowWhenHostIsSaturated() {
+        this.load = 1.5;
+
+        assertEquals(2, this.autoscaler.nextCapacity(statistics(2, 2, 4, 500)));
+    }
+
+    @Test
+    public void shouldShrinkOneEngineAfterDelay() {
+        assertEquals(4, this.autoscaler.nextCapacity(statistics(4, 0, 0, 0)));
+
+        this.now.set(1000);
+        assertEquals(3, this.autoscaler.nextCapacity(statistics(4, 0, 0, 0)));
+        assertEquals(3, this.autoscaler.nextCapacity(statistics(3, 0, 0, 0)));
+    }
+
+    private static PoolStatistics statistics(int capacity, int active,
+                                             int queued, double meanWaitInMs) {
+        return PoolStatistics.builder()
+                .capacity(capacity)
+                .active(active)
+                .queued(queued)
+                .meanWaitInMs(meanWaitInMs)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.xchess.engine.api.pool.placement;
+
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.engine.api.pool.autoscaling.AutoscalingProperties;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class EnginePlacementTest {
+    @Test
+    public void shouldSplitCoresAfterReservedOnes() {
+        List<List<Integer>> coreSets =
+                EnginePlacement.divide(CpuTopology.parseCpuList("0-8"), 2, 3);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(2, 3, 4),
+                Arrays.asList(5, 6),
+                Arrays.asList(7, 8)), coreSets);
+    }
+
+    @Test
+    public void shouldShareCoresWhenSlotsOutnumberThem() {
+        List<List<Integer>> coreSets =
+                EnginePlacement.divide(Arrays.asList(0, 1, 2), 4, 3);
+
+        assertEquals(Arrays.asList(
+                Collections.singletonList(2),
+                Collections.singletonList(2),
+                Collections.singletonList(2)), coreSets);
+    }
+
+    @Test
+    public void shouldSizeSlotsForAutoscalerMaximum() {
+        PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setMaxTotal(2);
+        AutoscalingProperties autoscalingProperties =
+                new AutoscalingProperties();
+        autoscalingProperties.setMaxTotal(8);
+
+        assertEquals(2, EnginePlacement.maxEngines(poolProperties,
+                autoscalingProperties));
+        autoscalingProperties.setEnabled(true);
+        assertEquals(8, EnginePlacement.maxEngines(poolProperties,
+                autoscalingProperties));
+    }
+
+    @Test
+    public void shouldStartEnginesOnLeastUsedCoreSet() {
+        PlacementProperties properties = new PlacementProperties();
+        properties.setEnabled(true);
+        properties.setReservedCores(0);
+        EnginePlacement placement = new EnginePlacement(properties,
+                CpuTopology.parseCpuList("0-3"), 2);
+
+        int first = placement.acquire();
+        int second = placement.acquire();
+        placement.release(first);
+
+        assertEquals(first, placement.acquire());
+        assertEquals(1 - first, second);
+        assertEquals("taskset -c 2-3", placement.getPinCommand(1));
+        assertEquals(32, placement.getHashInMb(1));
+        assertFalse(new EnginePlacement(new PlacementProperties(),
+                CpuTopology.parseCpuList("0-3"), 2).isEnabled());
+    }
+
+    @Test
+    public void shouldReadAffinityMaskAndCgroupQuota() throws Exception {
+        Path directory = Files.createTempDirectory("placement");
+        Path status = directory.resolve("status");
+        Files.write(status, "Name:\tjava\nCpus_allowed_list:\t0-5,8\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 8),
+                CpuTopology.availableCores(status, directory));
+        Files.write(directory.resolve("cpu.max"),
+                "250000 100000\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(0, 1, 2),
+                CpuTopology.availableCores(status, directory));
+        assertEquals("0-2,5,7-8",
+                CpuTopology.toCpuList(Arrays.asList(0, 1, 2, 5, 7, 8)));
+        assertEquals(OptionalInt.empty(), CpuTopology.parseQuota(-1, 100000));
+
+        Files.delete(directory.resolve("cpu.max"));
+        Files.delete(status);
+        Files.delete(directory);
+    }
+}
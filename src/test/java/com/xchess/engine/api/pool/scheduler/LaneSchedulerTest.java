@@ -0,0 +1,77 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LaneSchedulerTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LaneScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setReservedWorkers(1);
+        this.scheduler = new LaneScheduler(2, 2, properties);
+    }
+
+    @After
+    public void tearDown() {
+        this.release.countDown();
+        this.scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldKeepReservedWorkerForShortTasks() throws Exception {
+        CountDownLatch deepStarted = new CountDownLatch(1);
+        this.scheduler.execute(Lane.DEEP, () -> {
+            deepStarted.countDown();
+            await(this.release);
+        });
+        assertTrue(deepStarted.await(5, TimeUnit.SECONDS));
+        this.scheduler.execute(Lane.DEEP, () -> await(this.release));
+
+        CountDownLatch fastDone = new CountDownLatch(1);
+        this.scheduler.execute(Lane.FAST, fastDone::countDown);
+
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertEquals(1, this.scheduler.getActiveCount(Lane.DEEP));
+        assertEquals(1, this.scheduler.getQueuedCount(Lane.DEEP));
+    }
+
+    @Test
+    public void shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            this.scheduler.execute(Lane.STANDARD, () -> {
+                started.countDown();
+                await(this.release);
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        this.scheduler.execute(Lane.STANDARD, () -> {
+        });
+        this.scheduler.execute(Lane.STANDARD, () -> {
+        });
+
+        assertThrows(RejectedExecutionException.class,
+                () -> this.scheduler.execute(Lane.FAST, () -> {
+                }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
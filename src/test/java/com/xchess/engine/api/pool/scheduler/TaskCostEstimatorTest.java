@@ -0,0 +1,72 @@
+package com.xchess.engine.api.pool.scheduler;
+
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskCostEstimatorTest {
+    private TaskCostEstimator estimator;
+
+    @Before
+    public void setUp() {
+        this.estimator = new TaskCostEstimator(new SchedulerProperties());
+    }
+
+    @Test
+    public void shouldPutEngineVersionInFastLane() {
+        TaskCost cost = this.estimator.estimate(EngineTask.ENGINE_VERSION, null);
+
+        assertEquals(Lane.FAST, cost.getLane());
+    }
+
+    @Test
+    public void shouldUseTimeLimitAsCost() {
+        TaskCost cost = this.estimator.estimate(EngineTask.BEST_MOVE,
+                EvaluationParameters.builder().timeInMs(2000).build());
+
+        assertEquals(2000, cost.getEstimatedCostInMs());
+        assertEquals(Lane.STANDARD, cost.getLane());
+    }
+
+    @Test
+    public void shouldGrowCostWithDepth() {
+        TaskCost shallow = this.estimator.estimate(EngineTask.BEST_MOVE,
+                EvaluationParameters.builder().depth(8).build());
+        TaskCost deep = this.estimator.estimate(EngineTask.BEST_MOVE,
+                EvaluationParameters.builder().depth(30).build());
+
+        assertEquals(Lane.FAST, shallow.getLane());
+        assertEquals(Lane.DEEP, deep.getLane());
+    }
+
+    @Test
+    public void shouldKeepCheapestLimitWhenDepthAndTimeAreSet() {
+        TaskCost cost = this.estimator.estimate(EngineTask.BEST_MOVE,
+                EvaluationParameters.builder().depth(30).timeInMs(50).build());
+
+        assertEquals(50, cost.getEstimatedCostInMs());
+    }
+
+    @Test
+    public void shouldChargeProgressiveEvaluationForShallowerIterations() {
+        EvaluationParameters evaluationParameters =
+                EvaluationParameters.builder().depth(20).build();
+
+        assertTrue(this.estimator.estimate(EngineTask.PROGRESSIVE_EVALUATION,
+                        evaluationParameters).getEstimatedCostInMs()
+                > this.estimator.estimate(EngineTask.POSITION_EVALUATION,
+                evaluationParameters).getEstimatedCostInMs());
+    }
+
+    @Test
+    public void shouldChargeGameAnalysisForEverySearch() {
+        TaskCost cost = this.estimator.estimate(EngineTask.GAME_ANALYSIS,
+                EvaluationParameters.builder().timeInMs(50).build(), 16);
+
+        assertEquals(800, cost.getEstimatedCostInMs());
+        assertEquals(Lane.STANDARD, cost.getLane());
+    }
+}
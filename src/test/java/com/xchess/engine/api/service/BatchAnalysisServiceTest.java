@@ -0,0 +1,91 @@
+package com.xchess.engine.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xchess.engine.api.concurrent.Futures;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.request.BatchAnalysisItem;
+import com.xchess.engine.api.domain.request.BatchAnalysisRequest;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.exceptions.ChessEngineWorkerExecutionException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.pool.PoolProperties;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class BatchAnalysisServiceTest {
+    private static final String INVALID_FEN = "invalid";
+    private static final String FAILING_FEN = "8/8/8/8/8/8/8/k6K w - - 0 1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChessService chessService;
+    private BatchAnalysisService batchAnalysisService;
+
+    @Before
+    public void setUp() {
+        this.chessService = mock(ChessService.class);
+        PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setMaxTotal(2);
+        this.batchAnalysisService = new BatchAnalysisService(this.chessService,
+                this.objectMapper, poolProperties);
+    }
+
+    @Test
+    public void shouldStreamOneLinePerItemWithStatus() throws Exception {
+        doReturn(CompletableFuture.completedFuture(new BestMoveResponse("e2e4", MoveSource.ENGINE, null))).when(this.chessService)
+                .findBestMove(isNull(), any(EvaluationParameters.class));
+        doThrow(new InvalidMoveException(new IllegalArgumentException()))
+                .when(this.chessService)
+                .findBestMove(eq(INVALID_FEN), any(EvaluationParameters.class));
+        doReturn(Futures.failed(new ChessEngineWorkerExecutionException(new IOException())))
+                .when(this.chessService)
+                .findBestMove(eq(FAILING_FEN), any(EvaluationParameters.class));
+        BatchAnalysisRequest request = new BatchAnalysisRequest(
+                EvaluationParameters.builder().depth(10).build(), false,
+                Arrays.asList(new BatchAnalysisItem(null, null),
+                        new BatchAnalysisItem(INVALID_FEN, null),
+                        new BatchAnalysisItem(FAILING_FEN, null)));
+
+        Map<Integer, JsonNode> lines = analyse(request);
+
+        assertEquals(3, lines.size());
+        assertEquals("OK", lines.get(0).get("status").asText());
+        assertEquals("e2e4", lines.get(0).get("bestMove").asText());
+        assertEquals("INVALID_INPUT", lines.get(1).get("status").asText());
+        assertEquals("ERROR", lines.get(2).get("status").asText());
+    }
+
+    @Test
+    public void shouldRejectItemWithoutEvaluationParameters() throws Exception {
+        BatchAnalysisRequest request = new BatchAnalysisRequest(null, false,
+                Arrays.asList(new BatchAnalysisItem(null, null)));
+
+        Map<Integer, JsonNode> lines = analyse(request);
+
+        assertEquals("INVALID_INPUT", lines.get(0).get("status").asText());
+        verifyNoInteractions(this.chessService);
+    }
+
+    private Map<Integer, JsonNode> analyse(BatchAnalysisRequest request) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.batchAnalysisService.analyse(request, outputStream);
+        Map<Integer, JsonNode> lines = new HashMap<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8.name()).split("\n")) {
+            JsonNode node = this.objectMapper.readTree(line);
+            lines.put(node.get("index").asInt(), node);
+        }
+        return lines;
+    }
+}
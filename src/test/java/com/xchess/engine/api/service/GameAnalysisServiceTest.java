@@ -0,0 +1,152 @@
+package com.xchess.engine.api.service;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.cache.CacheProperties;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.controller.PoolWrapperTestImplementation;
+import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.MoveJudgement;
+import com.xchess.engine.api.domain.request.GameAnalysisRequest;
+import com.xchess.engine.api.domain.response.GameAnalysisResponse;
+import com.xchess.engine.api.domain.response.PlyAnalysisResponse;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.InvalidSyntaxException;
+import com.xchess.engine.api.pool.EngineProfile;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class GameAnalysisServiceTest {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(10).build();
+
+    private GenericKeyedObjectPool<String, ChessEngine> pool;
+    private ChessEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        this.pool = mock(GenericKeyedObjectPool.class);
+        this.engine = mock(ChessEngine.class);
+        when(this.pool.borrowObject(EngineProfile.DEFAULT)).thenReturn(this.engine);
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        when(this.engine.getPositionEvaluation(any(EvaluationParameters.class)))
+                .thenReturn(evaluation(0));
+    }
+
+    @Test
+    public void shouldWalkGameIncrementallyOnOneEngine() throws Exception {
+        GameAnalysisResponse response = service(1, 8)
+                .analyse(request(Arrays.asList("e2e4", "e7e5")))
+                .get();
+
+        assertEquals(2, response.getPlies().size());
+        verify(this.pool, times(1)).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(1)).moveToStartPosition(true);
+        verify(this.engine, times(1)).move(Collections.singletonList("e2e4"));
+        verify(this.engine, times(1)).move(Collections.singletonList("e7e5"));
+        verify(this.engine, times(3)).getPositionEvaluation(PARAMETERS);
+        verify(this.pool, times(1)).returnObject(EngineProfile.DEFAULT, this.engine);
+    }
+
+    @Test
+    public void shouldSplitGameIntoChunks() throws Exception {
+        service(2, 2).analyse(request(Arrays.asList("e2e4", "e7e5", "g1f3")))
+                .get();
+
+        verify(this.pool, times(2)).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(2)).moveToStartPosition(true);
+        verify(this.engine, times(1)).move(Arrays.asList("e2e4", "e7e5"));
+        verify(this.engine, times(1)).move(Collections.singletonList("e2e4"));
+        verify(this.engine, times(1)).move(Collections.singletonList("g1f3"));
+        verify(this.pool, times(2)).returnObject(EngineProfile.DEFAULT, this.engine);
+    }
+
+    @Test
+    public void shouldSplitForCurrentPoolCapacity() throws Exception {
+        GameAnalysisService service = service(1, 2);
+        when(this.pool.getMaxTotal()).thenReturn(2);
+
+        service.analyse(request(Arrays.asList("e2e4", "e7e5", "g1f3"))).get();
+
+        verify(this.pool, times(2)).borrowObject(EngineProfile.DEFAULT);
+    }
+
+    @Test
+    public void shouldFlagMistakesAndBlunders() throws Exception {
+        when(this.engine.getPositionEvaluation(any(EvaluationParameters.class)))
+                .thenReturn(evaluation(30), evaluation(40), evaluation(20),
+                        evaluation(-400), evaluation(-250));
+
+        List<PlyAnalysisResponse> plies = service(1, 8)
+                .analyse(request(Arrays.asList("e2e4", "e7e5", "g1f3", "b8c6")))
+                .get()
+                .getPlies();
+
+        assertEquals(MoveJudgement.BEST, plies.get(0).getJudgement());
+        assertEquals(MoveJudgement.GOOD, plies.get(1).getJudgement());
+        assertEquals(420, plies.get(2).getEvaluationLoss());
+        assertEquals(MoveJudgement.BLUNDER, plies.get(2).getJudgement());
+        assertEquals(ChessColor.BLACK, plies.get(3).getColor());
+        assertEquals(150, plies.get(3).getEvaluationLoss());
+        assertEquals(MoveJudgement.MISTAKE, plies.get(3).getJudgement());
+    }
+
+    @Test
+    public void shouldJudgeFinalMateWithoutEngine() throws Exception {
+        GameAnalysisRequest request = new GameAnalysisRequest(
+                "1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6 4. Qxf7# 1-0", null, null,
+                PARAMETERS);
+
+        GameAnalysisResponse response = service(1, 8).analyse(request).get();
+
+        assertEquals(7, response.getPlies().size());
+        assertEquals(ChessEngineEvaluationType.MATE,
+                response.getFinalEvaluation().getType());
+        assertEquals(ChessColor.WHITE, response.getFinalEvaluation().getColor());
+        verify(this.engine, times(7)).getPositionEvaluation(PARAMETERS);
+    }
+
+    @Test
+    public void shouldRejectInvalidGames() {
+        GameAnalysisService service = service(1, 8);
+
+        assertThrows(InvalidSyntaxException.class, () -> service.analyse(
+                new GameAnalysisRequest(null, null, null, null)));
+        assertThrows(InvalidMoveException.class, () -> service.analyse(
+                request(Arrays.asList("e2e4", "e2e4"))));
+        assertThrows(InvalidSyntaxException.class, () -> service.analyse(
+                new GameAnalysisRequest("1. e4 e5 2. Nf3 (2. f4", null, null,
+                        PARAMETERS)));
+    }
+
+    private GameAnalysisService service(int maxTotal, int minPliesPerChunk) {
+        when(this.pool.getMaxTotal()).thenReturn(maxTotal);
+        GameAnalysisProperties properties = new GameAnalysisProperties();
+        properties.setMinPliesPerChunk(minPliesPerChunk);
+        return new GameAnalysisService(
+                new PoolWrapperTestImplementation(this.pool),
+                new EvaluationCache(new CacheProperties()), properties);
+    }
+
+    private static GameAnalysisRequest request(List<String> moves) {
+        return new GameAnalysisRequest(null, null, moves, PARAMETERS);
+    }
+
+    private static ChessEngineEvaluation evaluation(int value) {
+        return ChessEngineEvaluation.builder()
+                .type(ChessEngineEvaluationType.CENTIPAWNS)
+                .value(value)
+                .build();
+    }
+}
@@ -0,0 +1,260 @@
+package com.xchess.engine.api.session;
+
+import com.xchess.ChessEngine;
+import com.xchess.engine.api.cache.CacheProperties;
+import com.xchess.engine.api.board.MoveGenerator;
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.cache.EvaluationCache;
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.controller.PoolWrapperTestImplementation;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.exceptions.GameSessionNotFoundException;
+import com.xchess.engine.api.exceptions.InvalidMoveException;
+import com.xchess.engine.api.exceptions.TooManyGameSessionsException;
+import com.xchess.engine.api.pool.EngineProfile;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class GameSessionServiceTest {
+    private final AtomicLong now = new AtomicLong();
+    private GenericKeyedObjectPool<String, ChessEngine> pool;
+    private ChessEngine engine;
+    private EvaluationCache evaluationCache;
+    private GameSessionService gameSessionService;
+
+    @Before
+    public void setUp() throws Exception {
+        this.pool = mock(GenericKeyedObjectPool.class);
+        this.engine = mock(ChessEngine.class);
+        when(this.pool.borrowObject(EngineProfile.DEFAULT)).thenReturn(this.engine);
+        doReturn("e2e4").when(this.engine).findBestMove(any(EvaluationParameters.class));
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(true);
+        cacheProperties.setMaxSize(100);
+        cacheProperties.setTtlInMs(60000);
+        this.evaluationCache = new EvaluationCache(cacheProperties);
+        GameSessionProperties properties = new GameSessionProperties();
+        properties.setMaxSessions(10);
+        properties.setMaxPinnedEngines(1);
+        properties.setIdleTimeoutInMs(60000);
+        properties.setEngineIdleTimeoutInMs(1000);
+        this.gameSessionService = new GameSessionService(
+                new PoolWrapperTestImplementation(this.pool),
+                this.evaluationCache, properties,
+                this.now::get);
+    }
+
+    @After
+    public void tearDown() {
+        this.gameSessionService.shutdown();
+    }
+
+    @Test
+    public void shouldOnlySendNewMovesToPinnedEngine() throws Exception {
+        String id = this.gameSessionService.create(null).getId();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+        this.gameSessionService.play(id, Arrays.asList("e2e4", "e7e5"));
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+
+        verify(this.pool, times(1)).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(1)).moveToStartPosition(true);
+        verify(this.engine, times(1)).move(Arrays.asList("e2e4", "e7e5"));
+        assertEquals(1, this.gameSessionService.getPinnedEngineCount());
+    }
+
+    @Test
+    public void shouldReplayMovesOnReacquiredEngine() throws Exception {
+        String id = this.gameSessionService.create(null).getId();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+        this.gameSessionService.play(id, Collections.singletonList("d2d4"));
+        this.now.set(1000);
+        this.gameSessionService.sweep();
+
+        verify(this.pool, times(1)).returnObject(EngineProfile.DEFAULT, this.engine);
+        assertEquals(0, this.gameSessionService.getPinnedEngineCount());
+
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+
+        verify(this.pool, times(2)).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(2)).moveToStartPosition(true);
+        verify(this.engine, times(1)).move(Collections.singletonList("d2d4"));
+    }
+
+    @Test
+    public void shouldKeepSessionAvailableDuringSearch() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            searching.countDown();
+            finish.await();
+            return "e2e4";
+        }).when(this.engine).findBestMove(any(EvaluationParameters.class));
+        String id = this.gameSessionService.create(null).getId();
+        CompletableFuture<BestMoveResponse> bestMove = findBestMoveAsync(id,
+                EvaluationParameters.builder().depth(10).build());
+        assertTrue(searching.await(1, TimeUnit.SECONDS));
+
+        this.gameSessionService.play(id, Collections.singletonList("e2e4"));
+        this.now.set(60000);
+        this.gameSessionService.sweep();
+        assertEquals(1, this.gameSessionService.get(id).getMoves().size());
+
+        finish.countDown();
+        bestMove.get();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+
+        verify(this.pool, times(1)).borrowObject(EngineProfile.DEFAULT);
+        verify(this.engine, times(1)).move(Collections.singletonList("e2e4"));
+        assertEquals(1, this.gameSessionService.getPinnedEngineCount());
+    }
+
+    @Test
+    public void shouldCacheUnderSearchedPosition() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            searching.countDown();
+            finish.await();
+            return "e7e5";
+        }).when(this.engine).findBestMove(any(EvaluationParameters.class));
+        String id = this.gameSessionService.create(null).getId();
+        CompletableFuture<BestMoveResponse> first = findBestMoveAsync(id,
+                EvaluationParameters.builder().depth(10).build());
+        assertTrue(searching.await(1, TimeUnit.SECONDS));
+
+        EvaluationParameters evaluationParameters =
+                EvaluationParameters.builder().depth(12).build();
+        CompletableFuture<BestMoveResponse> second =
+                this.gameSessionService.findBestMove(id, evaluationParameters);
+        this.gameSessionService.play(id, Collections.singletonList("e2e4"));
+        finish.countDown();
+        first.get();
+        second.get();
+
+        assertFalse(this.evaluationCache.get(EvaluationType.BEST_MOVE,
+                Position.startPosition().toNormalizedFen(),
+                evaluationParameters, BestMoveResponse.class).isPresent());
+        assertTrue(this.evaluationCache.get(EvaluationType.BEST_MOVE,
+                MoveGenerator.playUciMoves(Position.startPosition(),
+                        Collections.singletonList("e2e4")).toNormalizedFen(),
+                evaluationParameters, BestMoveResponse.class).isPresent());
+    }
+
+    @Test
+    public void shouldLimitSessionCount() {
+        String id = this.gameSessionService.create(null).getId();
+        for (int i = 1; i < 10; i++) {
+            this.gameSessionService.create(null);
+        }
+
+        assertThrows(TooManyGameSessionsException.class,
+                () -> this.gameSessionService.create(null));
+        this.gameSessionService.close(id);
+        this.gameSessionService.create(null);
+        assertEquals(10, this.gameSessionService.getSessionCount());
+    }
+
+    @Test
+    public void shouldExpireIdleSessions() {
+        String id = this.gameSessionService.create(null).getId();
+        this.now.set(60000);
+        this.gameSessionService.sweep();
+
+        assertThrows(GameSessionNotFoundException.class,
+                () -> this.gameSessionService.get(id));
+    }
+
+    @Test
+    public void shouldRejectIllegalSessionMove() {
+        String id = this.gameSessionService.create(null).getId();
+
+        assertThrows(InvalidMoveException.class,
+                () -> this.gameSessionService.play(id,
+                        Collections.singletonList("e2e5")));
+        assertEquals(0, this.gameSessionService.get(id).getMoves().size());
+    }
+
+    @Test
+    public void shouldAnswerFromPonderWhenPredictedReplyIsPlayed() throws Exception {
+        doReturn("e2e4", "e7e5", "g1f3").when(this.engine)
+                .findBestMove(any(EvaluationParameters.class));
+        String id = this.gameSessionService.create(null, EngineProfile.DEFAULT,
+                true).getId();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+        verify(this.engine, timeout(1000).times(3))
+                .findBestMove(any(EvaluationParameters.class));
+
+        this.gameSessionService.play(id, Arrays.asList("e2e4", "e7e5"));
+        String bestMove = this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get()
+                .getBestMove();
+
+        assertEquals("g1f3", bestMove);
+        assertEquals(1, this.gameSessionService.getPonderHitCount());
+        verify(this.engine, never()).move(Arrays.asList("e2e4", "e7e5"));
+    }
+
+    @Test
+    public void shouldResyncEngineWhenPonderMisses() throws Exception {
+        doReturn("e2e4", "e7e5", "g1f3").when(this.engine)
+                .findBestMove(any(EvaluationParameters.class));
+        String id = this.gameSessionService.create(null, EngineProfile.DEFAULT,
+                true).getId();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+        verify(this.engine, timeout(1000).times(3))
+                .findBestMove(any(EvaluationParameters.class));
+
+        this.gameSessionService.play(id, Arrays.asList("e2e4", "d7d5"));
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().depth(10).build()).get();
+
+        assertEquals(1, this.gameSessionService.getPonderMissCount());
+        verify(this.engine, times(1)).moveToStartPosition(false);
+        verify(this.engine, times(1)).move(Arrays.asList("e2e4", "d7d5"));
+        verify(this.engine, never()).stop();
+    }
+
+    @Test
+    public void shouldNotPonderUnboundedSearch() throws Exception {
+        String id = this.gameSessionService.create(null, EngineProfile.DEFAULT,
+                true).getId();
+        this.gameSessionService.findBestMove(id,
+                EvaluationParameters.builder().build()).get();
+        this.gameSessionService.play(id, Arrays.asList("e2e4", "e7e5"));
+
+        verify(this.engine, times(1)).findBestMove(any(EvaluationParameters.class));
+        verify(this.engine, times(1)).move(Arrays.asList("e2e4", "e7e5"));
+        assertEquals(0, this.gameSessionService.getPonderMissCount());
+    }
+
+    private CompletableFuture<BestMoveResponse> findBestMoveAsync(String id,
+                                                                  EvaluationParameters evaluationParameters) {
+        return CompletableFuture.supplyAsync(() -> this.gameSessionService
+                        .findBestMove(id, evaluationParameters))
+                .thenCompose(Function.identity());
+    }
+}
@@ -0,0 +1,214 @@
+package com.xchess.engine.api.store;
+
+import com.xchess.engine.api.cache.EvaluationType;
+import com.xchess.engine.api.domain.enumeration.ChessColor;
+import com.xchess.engine.api.domain.enumeration.MoveSource;
+import com.xchess.engine.api.domain.response.BestMoveResponse;
+import com.xchess.engine.api.domain.response.PositionEvaluationResponse;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnalysisStoreTest {
+    private static final String FEN =
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq -";
+
+    private Path directory;
+    private AnalysisStore analysisStore;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("analysis-store");
+        this.analysisStore = open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.analysisStore.close();
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path ->
+                    path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void shouldReturnStoredResultsUpToTheirDepth() {
+        this.analysisStore.put(EvaluationType.BEST_MOVE, FEN, depth(12),
+                bestMove("e7e5"));
+        this.analysisStore.put(EvaluationType.POSITION_EVALUATION, FEN,
+                depth(12), evaluation(35));
+
+        assertEquals("e7e5", this.analysisStore.get(EvaluationType.BEST_MOVE,
+                        FEN, depth(10), BestMoveResponse.class).get()
+                .getBestMove());
+        PositionEvaluationResponse stored = this.analysisStore.get(
+                EvaluationType.POSITION_EVALUATION, FEN, depth(12),
+                PositionEvaluationResponse.class).get();
+        assertEquals(ChessEngineEvaluationType.CENTIPAWNS, stored.getType());
+        assertEquals(ChessColor.BLACK, stored.getColor());
+        assertEquals(35, stored.getValue());
+        assertFalse(this.analysisStore.get(EvaluationType.BEST_MOVE, FEN,
+                depth(13), BestMoveResponse.class).isPresent());
+    }
+
+    @Test
+    public void shouldOnlyReplaceWithDeeperResult() {
+        this.analysisStore.put(EvaluationType.BEST_MOVE, FEN, depth(12),
+                bestMove("e7e5"));
+        this.analysisStore.put(EvaluationType.BEST_MOVE, FEN, depth(8),
+                bestMove("c7c5"));
+        this.analysisStore.put(EvaluationType.BEST_MOVE, FEN, depth(20),
+                bestMove("e7e6"));
+
+        assertEquals("e7e6", this.analysisStore.get(EvaluationType.BEST_MOVE,
+                        FEN, depth(20), BestMoveResponse.class).get()
+                .getBestMove());
+        assertEquals(1, this.analysisStore.getSize());
+    }
+
+    @Test
+    public void shouldNotStoreTimeLimitedResults() throws IOException {
+        this.analysisStore.put(EvaluationType.BEST_MOVE, FEN, EvaluationParameters
+                .builder()
+                .depth(20)
+                .timeInMs(50)
+                .build(), bestMove("a7a6"));
+        this.analysisStore.close();
+        this.analysisStore = open();
+
+        assertEquals(0, this.analysisStore.getSize());
+        assertFalse(this.analysisStore.get(EvaluationType.BEST_MOVE, FEN,
+                depth(12), BestMoveResponse.class).isPresent());
+    }
+
+    @Test
+    public void shouldSurviveRestart() throws IOException {
+        fill(500);
+        this.analysisStore.close();
+        this.analysisStore = open();
+
+        assertEquals(500, this.analysisStore.getSize());
+        assertStored(500);
+    }
+
+    @Test
+    public void shouldRebuildIndexFromLog() throws IOException {
+        fill(500);
+        this.analysisStore.close();
+        Files.delete(this.directory.resolve(AnalysisStore.INDEX_FILE));
+        this.analysisStore = open();
+
+        assertEquals(500, this.analysisStore.getSize());
+        assertStored(500);
+    }
+
+    @Test
+    public void shouldDropTornRecord() throws IOException {
+        fill(3);
+        this.analysisStore.close();
+        Files.delete(this.directory.resolve(AnalysisStore.INDEX_FILE));
+        // flip a byte inside the body of the last record
+        try (FileChannel channel = FileChannel.open(
+                this.directory.resolve(AnalysisStore.LOG_FILE),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = AnalysisLog.HEADER_SIZE;
+            ByteBuffer length = ByteBuffer.allocate(4);
+            for (int record = 0; record < 2; record++) {
+                length.clear();
+                channel.read(length, position);
+                position += AnalysisLog.recordSize(length.getInt(0));
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}),
+                    position + 12);
+        }
+        this.analysisStore = open();
+
+        assertEquals(2, this.analysisStore.getSize());
+        this.analysisStore.put(EvaluationType.BEST_MOVE, fen(2), depth(10),
+                bestMove("e7e5"));
+        this.analysisStore.close();
+        this.analysisStore = open();
+        assertStored(3);
+    }
+
+    @Test
+    public void shouldCompactReplacedRecords() throws IOException {
+        for (int depth = 1; depth <= 10; depth++) {
+            for (int position = 0; position < 50; position++) {
+                this.analysisStore.put(EvaluationType.BEST_MOVE, fen(position),
+                        depth(depth), bestMove("e7e5"));
+            }
+        }
+        long logSize = Files.size(this.directory.resolve(AnalysisStore.LOG_FILE));
+        assertTrue(this.analysisStore.getGarbageRatio() > 0.8);
+
+        this.analysisStore.compactIfNeeded();
+
+        assertTrue(this.analysisStore.getGarbageRatio() < 0.1);
+        assertTrue(Files.size(this.directory.resolve(AnalysisStore.LOG_FILE))
+                < logSize);
+        this.analysisStore.close();
+        this.analysisStore = open();
+        assertEquals(50, this.analysisStore.getSize());
+        assertStored(50);
+    }
+
+    private AnalysisStore open() {
+        AnalysisStoreProperties properties = new AnalysisStoreProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(this.directory.toString());
+        properties.setSegmentSizeInBytes(4096);
+        return new AnalysisStore(properties);
+    }
+
+    private void fill(int count) {
+        for (int position = 0; position < count; position++) {
+            this.analysisStore.put(EvaluationType.BEST_MOVE, fen(position),
+                    depth(10), bestMove("e7e5"));
+        }
+    }
+
+    private void assertStored(int count) {
+        for (int position = 0; position < count; position++) {
+            Optional<BestMoveResponse> stored = this.analysisStore.get(
+                    EvaluationType.BEST_MOVE, fen(position), depth(10),
+                    BestMoveResponse.class);
+            assertEquals("e7e5", stored.map(BestMoveResponse::getBestMove)
+                    .orElse(null));
+        }
+    }
+
+    private static String fen(int position) {
+        return FEN + " " + position;
+    }
+
+    private static EvaluationParameters depth(int depth) {
+        return EvaluationParameters.builder().depth(depth).build();
+    }
+
+    private static BestMoveResponse bestMove(String move) {
+        return new BestMoveResponse(move, MoveSource.ENGINE, null);
+    }
+
+    private static PositionEvaluationResponse evaluation(int value) {
+        return new PositionEvaluationResponse(
+                ChessEngineEvaluationType.CENTIPAWNS, ChessColor.BLACK, value,
+                null);
+    }
+}
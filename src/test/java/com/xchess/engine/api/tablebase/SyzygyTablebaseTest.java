@@ -0,0 +1,192 @@
+package com.xchess.engine.api.tablebase;
+
+import com.xchess.engine.api.board.Position;
+import com.xchess.engine.api.domain.enumeration.TablebaseOutcome;
+import com.xchess.engine.api.domain.response.TablebaseResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyzygyTablebaseTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("syzygy");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    @Test
+    public void shouldEncodeKingPairsOnce() {
+        Set<Integer> codes = new HashSet<>();
+        for (int[] placements : SyzygyEncoding.MAP_KK) {
+            for (int code : placements) {
+                codes.add(code);
+            }
+        }
+
+        assertEquals(462, codes.size());
+        assertTrue(codes.contains(461));
+    }
+
+    @Test
+    public void shouldEncodeLeadingPawns() {
+        Set<Integer> codes = new HashSet<>();
+        for (int rank = 1; rank < 7; rank++) {
+            for (int file = 0; file < 8; file++) {
+                codes.add(SyzygyEncoding.MAP_PAWNS[rank * 8 + file]);
+            }
+        }
+
+        assertEquals(48, codes.size());
+        assertEquals(47, SyzygyEncoding.MAP_PAWNS[8]);
+        assertEquals(6, SyzygyEncoding.LEAD_PAWNS_SIZE[1][0]);
+        assertEquals(47 + 45 + 43 + 41 + 39 + 37,
+                SyzygyEncoding.LEAD_PAWNS_SIZE[2][0]);
+    }
+
+    @Test
+    public void shouldNotProbeWhenDisabledOrCastlingIsPossible() throws Exception {
+        Files.write(this.directory.resolve("KQvK.rtbw"), new byte[16]);
+        SyzygyTablebase tablebase = new SyzygyTablebase(properties());
+
+        assertFalse(new SyzygyTablebase(new SyzygyProperties()).isEnabled());
+        assertEquals(3, tablebase.getMaxPieces());
+        assertFalse(tablebase.canProbe(Position.fromFen(
+                "4k3/8/8/8/8/8/8/R3K3 w Q - 0 1")));
+        assertTrue(tablebase.canProbe(Position.fromFen(
+                "4k3/8/8/8/8/8/8/R3K3 w - - 0 1")));
+        assertFalse(tablebase.canProbe(Position.startPosition()));
+    }
+
+    @Test
+    public void shouldMissWhenTableIsCorrupt() throws Exception {
+        Files.write(this.directory.resolve("KQvK.rtbw"), new byte[64]);
+        SyzygyTablebase tablebase = new SyzygyTablebase(properties());
+
+        assertFalse(tablebase.probe(Position.fromFen(
+                "4k3/8/8/8/8/8/8/Q3K3 w - - 0 1")).isPresent());
+        assertFalse(tablebase.findBestMove(Position.fromFen(
+                "4k3/8/8/8/8/8/8/Q3K3 b - - 0 1")).isPresent());
+        assertEquals(2, tablebase.getMissCount());
+    }
+
+    @Test
+    public void shouldMissMaterialWithoutTable() throws Exception {
+        Files.write(this.directory.resolve("KQvK.rtbw"), new byte[64]);
+        SyzygyTablebase tablebase = new SyzygyTablebase(properties());
+
+        assertFalse(tablebase.probe(Position.fromFen(
+                "4k3/8/8/8/8/8/8/R3K3 w - - 0 1")).isPresent());
+    }
+
+    @Test
+    public void shouldProbeQueenEnding() throws Exception {
+        SyzygyTablebase tablebase = new SyzygyTablebase(tables());
+
+        assertResult(TablebaseOutcome.WIN, 1, tablebase,
+                "4k3/8/4K3/8/8/8/8/1Q6 w - - 0 1");
+        assertBestMove("b1b8", tablebase, "4k3/8/4K3/8/8/8/8/1Q6 w - - 0 1");
+        // the undefended queen is taken
+        assertResult(TablebaseOutcome.DRAW, 0, tablebase,
+                "7K/8/8/8/8/8/1kQ5/8 b - - 0 1");
+        assertBestMove("b2c2", tablebase, "7K/8/8/8/8/8/1kQ5/8 b - - 0 1");
+        // stalemate
+        assertResult(TablebaseOutcome.DRAW, 0, tablebase,
+                "k7/8/1Q6/8/8/8/8/7K b - - 0 1");
+        assertEquals(0, tablebase.getMissCount());
+    }
+
+    @Test
+    public void shouldProbeRookEnding() throws Exception {
+        SyzygyTablebase tablebase = new SyzygyTablebase(tables());
+
+        assertResult(TablebaseOutcome.WIN, 1, tablebase,
+                "4k3/8/4K3/8/8/8/8/R7 w - - 0 1");
+        assertBestMove("a1a8", tablebase, "4k3/8/4K3/8/8/8/8/R7 w - - 0 1");
+        assertResult(TablebaseOutcome.LOSS, -1, tablebase,
+                "R3k3/8/4K3/8/8/8/8/8 b - - 0 1");
+        // the table stores white to move, black's DTZ comes from a search
+        assertResult(TablebaseOutcome.LOSS, -10, tablebase,
+                "4k3/R7/4K3/8/8/8/8/8 b - - 0 1");
+        assertEquals(-10, tablebase.findBestMove(Position.fromFen(
+                "4k3/R7/4K3/8/8/8/8/8 b - - 0 1")).get().getResult().getDtz());
+        assertEquals(0, tablebase.getMissCount());
+    }
+
+    @Test
+    public void shouldProbeMirroredColors() throws Exception {
+        SyzygyTablebase tablebase = new SyzygyTablebase(tables());
+
+        assertResult(TablebaseOutcome.WIN, 1, tablebase,
+                "4K3/8/4k3/8/8/8/8/r7 b - - 0 1");
+        assertBestMove("a1a8", tablebase, "4K3/8/4k3/8/8/8/8/r7 b - - 0 1");
+        assertResult(TablebaseOutcome.LOSS, -1, tablebase,
+                "8/8/8/8/8/4k3/8/r3K3 w - - 0 1");
+    }
+
+    @Test
+    public void shouldRejectMissingDirectory() {
+        SyzygyProperties properties = properties();
+        properties.setPath(this.directory.resolve("missing").toString());
+
+        assertThrows(IllegalStateException.class,
+                () -> new SyzygyTablebase(properties));
+    }
+
+    private static void assertResult(TablebaseOutcome outcome, int dtz,
+                                     SyzygyTablebase tablebase,
+                                     String fen) throws Exception {
+        TablebaseResponse response = tablebase.probe(Position.fromFen(fen))
+                .get();
+        assertEquals(outcome, response.getOutcome(), fen);
+        assertEquals(dtz, response.getDtz(), fen);
+    }
+
+    private static void assertBestMove(String move, SyzygyTablebase tablebase,
+                                       String fen) throws Exception {
+        assertEquals(move, tablebase.findBestMove(Position.fromFen(fen)).get()
+                .getMove(), fen);
+    }
+
+    /**
+     * KQvK and KRvK tables, small enough to be checked in.
+     */
+    private static SyzygyProperties tables() throws URISyntaxException {
+        SyzygyProperties properties = new SyzygyProperties();
+        properties.setEnabled(true);
+        properties.setPath(Paths.get(SyzygyTablebaseTest.class
+                .getResource("/syzygy").toURI()).toString());
+        return properties;
+    }
+
+    private SyzygyProperties properties() {
+        SyzygyProperties properties = new SyzygyProperties();
+        properties.setEnabled(true);
+        properties.setPath(this.directory.toString());
+        return properties;
+    }
+}